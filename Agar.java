@@ -7,103 +7,331 @@
  *  with the mouse and tries to eat smaller round blobs and avoid spikey shapes.
  *
  *  Example: java Agar
+ *           java Agar 1 game.log   (and record the game)
+ *           java Agar 10           (in a world 10 screens across)
+ *           java Agar large        (in the world from scenarios/large.scenario)
  *----------------------------------------------------------------*/
 
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
 public class Agar {
 
+    // Number of food balls bouncing around at any time.
+    public static final int FOOD_COUNT = 2;
+
+    // Number of poison stars.
+    public static final int POISON_COUNT = 1;
+
+    // Most frames drawn per second. The game itself always runs at 50 ticks
+    // per second (see AgarWorld.TICK), on a thread of its own.
+    public static final int FRAME_RATE = 60;
+
+    // Whether eat(), poison() and respawn() report what happened to the
+    // event bus. Turned off when running without a window, where nobody
+    // would read the messages.
+    public static boolean verbose = true;
+
+    // Where events are reported. Unless another bus is set, one is made the
+    // first time it is needed, printing eat and poison messages on the
+    // console from a background thread, so the game never waits for the
+    // console.
+    private static volatile EventBus events;
+
     // Create a small ball with random position and velocity.
     public static Ball launchRandomBall() {
+        return respawn(new Ball());
+    }
+
+    // Turn an existing ball into a small ball with random position and
+    // velocity, just like a new one from launchRandomBall(), without
+    // creating any new objects. Returns the same ball.
+    public static Ball respawn(Ball b) {
+        return respawn(b, WorldBounds.UNIT);
+    }
+
+    // The same, but placing the ball anywhere in the given world.
+    public static Ball respawn(Ball b, WorldBounds world) {
+
+        b.setPosition(world.randomX(), world.randomY());
+        b.setRadius(StdRandom.uniform(0.03, 0.05));
+
+        b.setColor(HuePalette.color(StdRandom.uniform()));
 
-	Ball b = new Ball(StdRandom.uniform(0.0, 1.0), StdRandom.uniform(0.0, 1.0), StdRandom.uniform(0.03, 0.05));
+        b.aimTowards(world.randomX(), world.randomY(), 0.03);
+        if (verbose)
+            events().publish(EventBus.SPAWN, b);
+        return b;
+    }
 
-	b.setHue(Math.random());
+    // Create a small green star at a random position, to act as poison.
+    public static Star launchRandomStar() {
+        return launchRandomStar(WorldBounds.UNIT);
+    }
 
-	b.aimTowards(Math.random(), Math.random(), 0.03);
-        // TODO: add Code to create a small ball at a random position,
-        // aim it towards a random point, and give it a pretty color.
-        // Then return the ball.
-        return b; // Delete this line, it is just a placeholder.
+    // The same, but anywhere in the given world.
+    public static Star launchRandomStar(WorldBounds world) {
+        Star s = new Star(world.randomX(), world.randomY(), 0.03, 9);
+        s.setColor(StdDraw.GREEN);
+        return s;
     }
 
     // Make the player blob eat the food blob by growing larger.
     public static void eat(Ball player, Ball food) {
         player.grow(food.size()/2);
-        System.out.printf("Yum! Now I am %.5f big!\n", player.size());
+        if (verbose)
+            events().publish(EventBus.EAT, player);
     }
 
     // Poison the player blob by shrinking it.
     public static void poison(Ball player) {
         player.grow(-player.size()/4.0);
-        StdOut.printf("Ack! I shrank to %.5f small!\n", player.size());
+        if (verbose)
+            events().publish(EventBus.POISON, player);
     }
 
-    public static void main(String args[]) {
+    // Report that the ball bounced off an edge of the world.
+    public static void bounced(Ball b) {
+        if (verbose)
+            events().publish(EventBus.BOUNCE, b);
+    }
 
-        // Create a medium-sized ball for the player.
-        Ball player = new Ball(0.5, 0.5, 0.07);
-        // TODO: make the player red instead of a random color.
-        player.setColor(StdDraw.RED);
+    // Return the bus that game events are reported to, making the default
+    // one if there isn't one yet.
+    public static EventBus events() {
+        EventBus bus = events;
+        if (bus == null) {
+            synchronized (Agar.class) {
+                if (events == null) {
+                    bus = new EventBus(4096);
+                    bus.subscribe(new EventBus.ConsoleLog(System.out));
+                    bus.start();
+                    bus.closeAtExit();
+                    events = bus;
+                }
+                bus = events;
+            }
+        }
+        return bus;
+    }
 
-        // TODO: Create a small random ball to act as bouncing food.
+    // Report game events to the given bus instead, which the caller starts
+    // and closes.
+    public static void setEvents(EventBus bus) {
+        events = bus;
+    }
 
-	Ball food1 = launchRandomBall();
+    public static void main(String args[]) throws IOException {
 
-	Ball food2 = launchRandomBall();
+        // With an argument n, play in a world n times wider and taller than
+        // the screen, with a camera following the player. With the name of
+        // a scenario instead, play in the world it describes.
+        int n = 1;
+        if (args.length > 0) {
+            try {
+                n = Integer.parseInt(args[0]);
+            } catch (NumberFormatException e) {
+                playScenario(Scenario.load(args[0]));
+                return;
+            }
+        }
+        if (n > 1) {
+            playLarge(n);
+            return;
+        }
 
-        // TODO: Create a second small random bouncing food ball.
+        // Create the player, the food and the poison. With a second argument,
+        // also record the game in that file, to watch later with Replayer.
+        if (args.length > 1) {
+            Recorder recorder = new Recorder(new File(args[1]), FOOD_COUNT, POISON_COUNT,
+                    System.currentTimeMillis(), 100);
+            play(recorder.getWorld(), recorder::tick, null, "Agar", true, recorder);
+        } else {
+            AgarWorld world = new AgarWorld(FOOD_COUNT, POISON_COUNT);
+            play(world, world::tick, null, "Agar", true, null);
+        }
+    }
 
-        // TODO (extra): Create a star to act as poison.
+    // Play in a world n times the width and height of the screen, with the
+    // same amount of food and poison per screenful, showing only the part
+    // of it around the player.
+    public static void playLarge(int n) {
+        WorldBounds bounds = new WorldBounds(0.0, 0.0, n, n);
+        AgarWorld world = new AgarWorld(FOOD_COUNT * n * n, POISON_COUNT * n * n, bounds);
+        play(world, world::tick, null, "Agar " + n + "x" + n, false, null);
+    }
 
-        // Loop the animation forever.
-        while (true) {
+    // Play in the world the scenario describes, with its balls as food and
+    // its stars as poison, moving and spinning as the scenario says. The
+    // world starts empty and is filled in one chunk per batch of ticks, so
+    // play starts right away however big the scenario is.
+    public static void playScenario(Scenario scenario) {
+        AgarWorld world = new AgarWorld(0, 0, scenario.getBounds());
+        Scenario.Loader loader = scenario.loader();
+        play(world, world::tick, loader, "Agar " + scenario.getName(), false, null);
+    }
 
-            // Update player so it is aiming towards the mouse.
-            player.aimTowards(StdDraw.mouseX(), StdDraw.mouseY(), 1.0/6.0);
+    // Play in the given world, showing only the part of it around the
+    // player, and adding a chunk from the loader (if not null) until it is
+    // done. The game runs on its own thread, ticking with the given step
+    // (e.g. world::tick), so drawing a slow frame doesn't slow it down, and
+    // this thread draws whatever the game last finished. If the whole world
+    // fits on the screen (still), the camera never moves, so only the parts
+    // of the screen that changed are redrawn, with a DirtyRenderer. When the
+    // program ends, the game is stopped and then whatever is given to close
+    // (if not null), e.g. a Recorder, is closed.
+    private static void play(AgarWorld world, SimulationThread.Step step,
+            Scenario.Loader loader, String title, boolean still, Closeable close) {
+        WorldBounds bounds = world.getBounds();
+        Camera camera = new Camera(bounds, 1.0, 1.0);
+        RenderQueue queue = new RenderQueue();
+        DirtyRenderer renderer = still ? new DirtyRenderer(StdDraw.WHITE) : null;
+        StandIns standIns = new StandIns();
+        camera.apply();
 
-            // Make the player bounce off the edge of the screen.
-            player.bounce();
+        // Time the game and the drawing separately. Type 'p' to print both,
+        // with how often each runs; they are printed again when the program
+        // ends. The game's profiler belongs to its thread, so it is printed
+        // by that thread, or once it has stopped.
+        FrameProfiler simProfiler = new FrameProfiler(title + " simulation");
+        FrameProfiler profiler = new FrameProfiler(title + " rendering");
+        profiler.dumpAtExit();
 
-            // TODO: Make the food blobs bounce off the edge of the screen.
-	    food1.bounce();
-	    food2.bounce();
+        SnapshotBuffer buffer = new SnapshotBuffer();
+        SimulationThread sim = new SimulationThread(world, step, buffer, simProfiler);
+        if (loader != null) {
+            sim.load(loader, new Scenario.Sink() {
+                public void addBall(Ball b) {
+                    world.addFood(b);
+                }
 
-            // Move the player.
-            player.move(20);
+                public void addStar(Star s) {
+                    world.addPoison(s);
+                }
+            });
+        }
+        long start = System.nanoTime();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                sim.stop();
+                if (close != null)
+                    close.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                System.err.println("can't finish " + title + ": " + e);
+            }
+            sim.report(System.out);
+            reportRates(sim, profiler, start);
+        }));
+        sim.start();
 
-            // TODO: Move the food blobs.
-	    food1.move(20);
-	    food2.move(20);
+        // Draw at most FRAME_RATE frames per second.
+        FramePacer pacer = new FramePacer(1000 / FRAME_RATE);
 
-            // TODO: Check if the player has eaten either of the food balls. If
-            // so, call the eat() function above and replace that food ball by
-            // launching a newly created random food ball.
-	    if(player.covering(food1)) {
-		eat(player, food1);
-		food1 = launchRandomBall();
-	    }
+        while (true) {
 
-	    if(player.covering(food2)) {
-		eat(player, food2);
-		food2 = launchRandomBall();
-	    }
+            // Draw everything where it was at this moment in between the
+            // last two snapshots: either just what changed, or the edge of
+            // the world and whatever is on screen, with the camera following
+            // along.
+            long t = profiler.start(FrameProfiler.DRAW);
+            SnapshotBuffer.Snapshot snapshot = buffer.acquire();
+            double alpha = snapshot.alpha(System.nanoTime());
+            if (still) {
+                standIns.draw(snapshot, renderer, alpha);
+                buffer.release();
+                renderer.flush();
+                profiler.count(FrameProfiler.DRAWN, renderer.lastRedrawn());
+            } else {
+                camera.moveTo(snapshot.getPlayerX(alpha), snapshot.getPlayerY(alpha));
+                camera.apply();
+                StdDraw.clear(StdDraw.WHITE);
+                StdDraw.setPenColor(StdDraw.GRAY);
+                StdDraw.rectangle((bounds.getXMin() + bounds.getXMax()) / 2, (bounds.getYMin() + bounds.getYMax()) / 2,
+                        bounds.width() / 2, bounds.height() / 2);
+                snapshot.draw(queue, camera, alpha);
+                buffer.release();
+                queue.flush();
+                profiler.count(FrameProfiler.DRAWN, queue.drawCalls());
+            }
+            profiler.stop(FrameProfiler.DRAW, t);
 
-	    
+            // The mouse position is in world coordinates once the camera
+            // has set the scale.
+            sim.aim(StdDraw.mouseX(), StdDraw.mouseY());
 
-            // TODO (extra): Check if the player has touched the poison. If so,
-            // call the poison() function above.
+            t = profiler.start(FrameProfiler.PRESENT);
+            StdDraw.show(0);
+            profiler.stop(FrameProfiler.PRESENT, t);
+            pacer.sync();
+            profiler.count(FrameProfiler.OVERRUNS, pacer.overran() ? 1 : 0);
 
-            // Draw the scene on the StdDraw canvas.
-            StdDraw.clear(StdDraw.WHITE);
-            // TODO: Draw the two food balls.
-	    food1.draw();
-	    food2.draw();
-            // TODO (extra): Draw the poison.
-            // Draw the player.
-            player.draw();
+            profiler.endFrame();
+            while (StdDraw.hasNextKeyTyped()) {
+                if (StdDraw.nextKeyTyped() == 'p') {
+                    sim.report(System.out);
+                    synchronized (System.out) {
+                        profiler.report(System.out);
+                        reportRates(sim, profiler, start);
+                    }
+                }
+            }
+        }
+    }
+
+    // Balls and stars standing in for the sprites of a snapshot, kept from
+    // one frame to the next so that a DirtyRenderer, which tells sprites
+    // apart by identity, sees the same object for the same sprite each time.
+    private static class StandIns {
+        private Ball[] balls = new Ball[0];
+        private Star[] stars = new Star[0];
 
-            // Show the canvas on the screen.
-            StdDraw.show(20);
+        // Add every sprite in the snapshot to the renderer, the given
+        // fraction of the way from the snapshot before to this one: the food
+        // in layer 0, the poison in layer 1 and the player in layer 2.
+        void draw(SnapshotBuffer.Snapshot snapshot, DirtyRenderer renderer, double alpha) {
+            if (snapshot.getTick() < 0)
+                return;
+            int n = snapshot.size(), food = snapshot.foodCount();
+            if (balls.length < n) {
+                balls = Arrays.copyOf(balls, n);
+                stars = Arrays.copyOf(stars, n);
+            }
+            for (int i = 0; i < n; i++) {
+                double x = snapshot.getX(i, alpha), y = snapshot.getY(i, alpha);
+                double r = snapshot.getRadius(i, alpha);
+                int points = snapshot.getPoints(i);
+                if (points == 0) {
+                    if (balls[i] == null)
+                        balls[i] = new Ball();
+                    Ball b = balls[i];
+                    b.setPosition(x, y);
+                    b.setRadius(r);
+                    b.setColor(snapshot.getColor(i));
+                    renderer.add(b, i == n - 1 ? 2 : 0);
+                } else {
+                    if (stars[i] == null || stars[i].getPoints() != points)
+                        stars[i] = new Star(points);
+                    Star s = stars[i];
+                    s.setPosition(x, y);
+                    s.setRadius(r);
+                    s.setTurn(snapshot.getTurnCos(i - food, alpha), snapshot.getTurnSin(i - food, alpha));
+                    s.setColor(snapshot.getColor(i));
+                    renderer.add(s, 1);
+                }
+            }
         }
+    }
 
+    // Print how many ticks per second the game has run, and how many frames
+    // per second have been drawn, since the given time (System.nanoTime()).
+    private static void reportRates(SimulationThread sim, FrameProfiler profiler, long start) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        StdOut.printf("simulation: %.1f ticks/sec, rendering: %.1f frames/sec (%d snapshots, %d skipped)\n",
+                sim.ticksPerSecond(), profiler.frames() / seconds,
+                sim.getBuffer().published(), sim.getBuffer().skipped());
     }
 }
@@ -0,0 +1,316 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  A player for a game run by AgarServer: shows what the server
+ *  says is near the player's blob, and sends the mouse position as
+ *  the point to aim at. It can also pretend to be many players at
+ *  once, aiming at random, to see how many the server can handle.
+ *
+ *  Example: java AgarClient
+ *           (play in a window, on port 4444)
+ *           java AgarClient 1000 4444 30
+ *           (1000 pretend players for 30 seconds)
+ *----------------------------------------------------------------*/
+
+import java.awt.Color;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An AgarClient connects to an AgarServer and keeps its own copy of the
+ * sprites the server says the player can see:
+ *
+ *    AgarClient client = new AgarClient(4444);
+ *    while (client.readFrame()) {
+ *        client.aim(StdDraw.mouseX(), StdDraw.mouseY());
+ *        StdDraw.clear(StdDraw.WHITE);
+ *        client.draw();
+ *        StdDraw.show(0);
+ *    }
+ *
+ * Each frame from the server only has what changed, so the copy is only
+ * right if every frame is read, in order.
+ */
+public class AgarClient {
+
+    // The connection.
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+
+    // The blob this player controls.
+    private final int eater;
+
+    // What the player can see: whether each sprite id is visible, and its
+    // position, radius and color as sent by the server.
+    private final boolean[] visible;
+    private final int[] x, y, radius, color;
+    private int visibleCount;
+
+    // Used to draw the poison stars.
+    private final Star star = new Star(9);
+
+    // The tick of the last frame read, and how many frames and bytes have
+    // been read.
+    private long tick = -1;
+    private long frames, bytes;
+
+    /**
+     * Connect to a server on this computer, listening on the given port, and
+     * take over a blob.
+     */
+    public AgarClient(int port) throws IOException {
+        socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        socket.setTcpNoDelay(true);
+        in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        if (in.readInt() != AgarServer.MAGIC)
+            throw new IOException("not an Agar server");
+        eater = in.readInt();
+        int ids = in.readInt();
+        visible = new boolean[ids];
+        x = new int[ids];
+        y = new int[ids];
+        radius = new int[ids];
+        color = new int[ids];
+    }
+
+    /**
+     * Return a string representation of this client. Possibly useful for
+     * debugging.
+     */
+    public String toString() {
+        return "AgarClient(blob " + eater + ", tick " + tick + ", " + visibleCount + " visible, "
+            + frames + " frames, " + bytes + " bytes)";
+    }
+
+    /**
+     * Return the id of the player's blob.
+     */
+    public int getEater() {
+        return eater;
+    }
+
+    /**
+     * Return the tick of the last frame read.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Return the number of sprites the player can see.
+     */
+    public int visibleCount() {
+        return visibleCount;
+    }
+
+    /**
+     * Return the number of frames read so far.
+     */
+    public long frames() {
+        return frames;
+    }
+
+    /**
+     * Return the number of bytes of frames read so far.
+     */
+    public long bytes() {
+        return bytes;
+    }
+
+    /**
+     * Return the x coordinate of the player's blob.
+     */
+    public double getX() {
+        return x[eater] / (double)AgarServer.SCALE;
+    }
+
+    /**
+     * Return the y coordinate of the player's blob.
+     */
+    public double getY() {
+        return y[eater] / (double)AgarServer.SCALE;
+    }
+
+    /**
+     * Return the radius of the player's blob.
+     */
+    public double getRadius() {
+        return radius[eater] / (double)AgarServer.SCALE;
+    }
+
+    /**
+     * Wait for the next frame from the server and apply it. Returns false if
+     * the server has closed the connection.
+     */
+    public boolean readFrame() throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (java.io.EOFException e) {
+            return false;
+        }
+        tick = in.readLong();
+        int updates = in.readInt();
+        int id = 0;
+        for (int k = 0; k < updates; k++) {
+            id += readVarint();
+            int flags = in.readByte();
+            if ((flags & AgarServer.NUDGE) != 0) {
+                x[id] += in.readByte();
+                y[id] += in.readByte();
+            }
+            if ((flags & AgarServer.POSITION) != 0) {
+                x[id] = in.readUnsignedShort();
+                y[id] = in.readUnsignedShort();
+            }
+            if ((flags & AgarServer.RADIUS) != 0)
+                radius[id] = in.readUnsignedShort();
+            if ((flags & AgarServer.COLOR) != 0)
+                color[id] = in.readInt();
+            if (!visible[id]) {
+                visible[id] = true;
+                visibleCount++;
+            }
+        }
+        int removals = in.readInt();
+        id = 0;
+        for (int k = 0; k < removals; k++) {
+            id += readVarint();
+            if (visible[id]) {
+                visible[id] = false;
+                visibleCount--;
+            }
+        }
+        frames++;
+        bytes += 4 + length;
+        return true;
+    }
+
+    /**
+     * Read a number sent 7 bits at a time (see AgarServer).
+     */
+    private int readVarint() throws IOException {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if (b < 0x80)
+                return value;
+        }
+    }
+
+    /**
+     * Tell the server to aim the player's blob towards (ax, ay).
+     */
+    public void aim(double ax, double ay) throws IOException {
+        out.writeDouble(ax);
+        out.writeDouble(ay);
+        out.flush();
+    }
+
+    /**
+     * Disconnect from the server.
+     */
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    /**
+     * Draw what the player can see on the StdDraw canvas: food and other
+     * blobs, then poison, then the player's blob on top.
+     */
+    public void draw() {
+        for (int pass = 0; pass < 2; pass++) {
+            for (int id = 0; id < visible.length; id++) {
+                boolean isStar = (color[id] & AgarServer.STAR) != 0;
+                if (!visible[id] || id == eater || isStar != (pass == 1))
+                    continue;
+                double s = AgarServer.SCALE;
+                Color c = new Color(color[id] & 0xFFFFFF);
+                if (isStar) {
+                    star.setPosition(x[id] / s, y[id] / s);
+                    star.setRadius(radius[id] / s);
+                    star.setColor(c);
+                    star.draw();
+                } else {
+                    StdDraw.setPenColor(c);
+                    StdDraw.filledCircle(x[id] / s, y[id] / s, radius[id] / s);
+                }
+            }
+        }
+        StdDraw.setPenColor(new Color(color[eater] & 0xFFFFFF));
+        StdDraw.filledCircle(getX(), getY(), getRadius());
+    }
+
+    /**
+     * Pretend to be one player: aim at a new random point every so often,
+     * read frames for the given number of seconds, and add what happened to
+     * the totals.
+     */
+    private static void pretend(int port, long seconds, AtomicLong totalFrames,
+            AtomicLong totalBytes, AtomicLong totalVisible, AtomicLong failures) {
+        try {
+            AgarClient client = new AgarClient(port);
+            java.util.Random random = new java.util.Random(client.getEater());
+            long end = System.nanoTime() + seconds * 1000000000L;
+            while (System.nanoTime() < end && client.readFrame()) {
+                if (client.frames() % 50 == 1)
+                    client.aim(random.nextDouble(), random.nextDouble());
+                totalVisible.addAndGet(client.visibleCount());
+            }
+            totalFrames.addAndGet(client.frames());
+            totalBytes.addAndGet(client.bytes());
+            client.close();
+        } catch (IOException e) {
+            failures.incrementAndGet();
+        }
+    }
+
+    /**
+     * A main() function for testing purposes. With no number of players,
+     * plays in a window, aiming at the mouse. Otherwise runs that many
+     * pretend players for a while and reports how many frames they got.
+     */
+    public static void main(String args[]) throws Exception {
+        int players = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : AgarServer.PORT;
+        long seconds = args.length > 2 ? Long.parseLong(args[2]) : 30;
+
+        if (players == 0) {
+            AgarClient client = new AgarClient(port);
+            while (client.readFrame()) {
+                client.aim(StdDraw.mouseX(), StdDraw.mouseY());
+                StdDraw.clear(StdDraw.WHITE);
+                client.draw();
+                StdDraw.show(0);
+            }
+            return;
+        }
+
+        System.setProperty("java.awt.headless", "true");
+        AtomicLong frames = new AtomicLong(), bytes = new AtomicLong();
+        AtomicLong seen = new AtomicLong(), failures = new AtomicLong();
+        Thread[] threads = new Thread[players];
+        long start = System.nanoTime();
+        for (int i = 0; i < players; i++)
+            threads[i] = AgarServer.startThread("pretend player " + i,
+                    () -> pretend(port, seconds, frames, bytes, seen, failures));
+        for (Thread t : threads)
+            t.join();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        StdOut.printf("%d players for %.1f s: %d couldn't play\n", players, elapsed, failures.get());
+        StdOut.printf("  %.1f frames/sec per player (the game runs at %d)\n",
+                frames.get() / elapsed / players, 1000 / AgarWorld.TICK);
+        StdOut.printf("  %.1f KB/sec per player, %.0f bytes/frame, %.1f sprites visible\n",
+                bytes.get() / elapsed / players / 1e3, bytes.get() / (double)Math.max(1, frames.get()),
+                seen.get() / (double)Math.max(1, frames.get()));
+    }
+}
@@ -0,0 +1,662 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  Runs one Agar game for many players at once. Players connect
+ *  over TCP (see AgarClient), each takes over one of the blobs,
+ *  and sends the point they are aiming at instead of the game
+ *  reading the mouse. Blobs nobody has taken are steered by a
+ *  BotController. After every frame, each player is sent what
+ *  changed near their own blob.
+ *
+ *  Example: java AgarServer
+ *           (listen on port 4444 with room for 1100 players)
+ *           java AgarServer 4444 2000 4000 50
+ *           (port 4444, 2000 blobs to play, 4000 food, 50 poison)
+ *----------------------------------------------------------------*/
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An AgarServer owns a ParallelAgar game and runs it at 50 ticks per second
+ * (see FramePacer), whatever the players do. It only listens on the loopback
+ * address, so players must be on the same computer:
+ *
+ *    AgarServer server = new AgarServer(4444, 1100, 3000, 30);
+ *    server.start();
+ *    ...
+ *    server.close();
+ *
+ * Each connection is served by a thread of its own, which reads the
+ * player's aim and writes frames to them. On Java 21 or later these are
+ * virtual threads, so thousands of connections are cheap; on older versions
+ * they are ordinary threads with small stacks.
+ *
+ * The game thread never talks to the network. After each frame it publishes
+ * a snapshot: the position, size and color of every sprite, rounded to 16
+ * bits, plus a KdTree of them. Each connection thread then works out what its
+ * player can see (everything within VIEW of the edge of the player's blob),
+ * compares it with what it last sent that player, and sends only the
+ * differences. A player whose connection is slow skips snapshots rather
+ * than holding anyone else up, and the next frame they get is the
+ * difference from the last one they got.
+ *
+ * The messages (all numbers big-endian) are:
+ *
+ *    to the player, once:   magic, eater number, number of sprite ids
+ *    to the player, often:  frame length in bytes, tick,
+ *                           number of updates, then for each: sprite id,
+ *                             flags, x and y moved by (if NUDGE), x and
+ *                             y (if POSITION), radius (if RADIUS), color
+ *                             (if COLOR),
+ *                           number of removals, then their sprite ids
+ *    from the player:       x and y of the aim point, as doubles
+ *
+ * Updates and removals are in increasing order of sprite id, and each id is
+ * sent as the difference from the one before (from 0 for the first) in 7
+ * bit pieces, lowest first, with the top bit of each byte but the last set.
+ * A sprite that only moved a little is sent as how far it moved in x and y,
+ * each a signed byte, with flag NUDGE instead of POSITION.
+ *
+ * Sprite ids are ball numbers in the game's BallWorld, then poison stars.
+ * Positions are 0 to 65535 across the unit square, radii 0 to 65535 for 0
+ * to 1 (for stars, the radius given to the Star constructor), and colors
+ * are RGB with STAR set in the top byte for stars, which have 9 points.
+ */
+public class AgarServer {
+
+    // Default port to listen on.
+    public static final int PORT = 4444;
+
+    // Identifies the start of a connection ("AGS1").
+    static final int MAGIC = 0x41475331;
+
+    // Flags saying which parts of a sprite are in an update.
+    static final int POSITION = 1, RADIUS = 2, COLOR = 4, NUDGE = 8;
+
+    // Marks a star's color.
+    static final int STAR = 1 << 24;
+
+    // Largest rounded coordinate or radius.
+    static final int SCALE = 65535;
+
+    // How far past the edge of their own blob a player can see.
+    public static final double VIEW = 0.15;
+
+    // Speed of blobs steered by bots.
+    private static final double BOT_SPEED = 0.05;
+
+    // Ways to start a virtual thread, found by reflection since they only
+    // exist on Java 21 and later; null on older versions.
+    private static final Method OF_VIRTUAL, BUILDER_NAME, BUILDER_START;
+    static {
+        Method of = null, name = null, start = null;
+        try {
+            of = Thread.class.getMethod("ofVirtual");
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            name = builder.getMethod("name", String.class);
+            start = builder.getMethod("start", Runnable.class);
+        } catch (ReflectiveOperationException e) {
+            of = null;
+        }
+        OF_VIRTUAL = of;
+        BUILDER_NAME = name;
+        BUILDER_START = start;
+    }
+
+    /**
+     * Everything a connection needs to know about one frame. Never changed
+     * once published, so connection threads can read it without locking.
+     */
+    static class Snapshot {
+        final long tick;
+        final int[] x, y, radius, color;
+        final KdTree tree = new KdTree();
+
+        // The radius of the biggest sprite.
+        double biggest;
+
+        Snapshot(long tick, int size) {
+            this.tick = tick;
+            x = new int[size];
+            y = new int[size];
+            radius = new int[size];
+            color = new int[size];
+        }
+
+        /**
+         * Record sprite number id.
+         */
+        void set(int id, double px, double py, double r, int rgb) {
+            x[id] = round(px);
+            y[id] = round(py);
+            radius[id] = round(r);
+            color[id] = rgb;
+            tree.add(px, py, r);
+            biggest = Math.max(biggest, r);
+        }
+
+        private static int round(double v) {
+            return (int)Math.round(Math.max(0.0, Math.min(1.0, v)) * SCALE);
+        }
+    }
+
+    // The game, the number of blobs players can take, and who has taken
+    // each one (null for a bot).
+    private final ParallelAgar game;
+    private final int eaters;
+    private final AtomicReferenceArray<Connection> owners;
+
+    // Steers the blobs nobody has taken.
+    private final BotController brain = new BotController();
+
+    // Accepts connections.
+    private final ServerSocket listener;
+
+    // The latest snapshot, and the signal that a new one is ready.
+    private volatile Snapshot latest;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition published = lock.newCondition();
+    private volatile boolean running;
+
+    // Statistics: players connected now and ever, frames and bytes sent.
+    private final AtomicLong connected = new AtomicLong(), accepted = new AtomicLong();
+    private final AtomicLong framesSent = new AtomicLong(), bytesSent = new AtomicLong();
+
+    /**
+     * Initializes a server on the given port with room for the given number
+     * of players, and the given amount of food and poison. Blobs are steered
+     * by bots until players take them.
+     */
+    public AgarServer(int port, int eaterCount, int foodCount, int poisonCount) throws IOException {
+        game = new ParallelAgar(eaterCount, foodCount, poisonCount, 1);
+        eaters = eaterCount;
+        owners = new AtomicReferenceArray<Connection>(eaterCount);
+        listener = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+        publish();
+    }
+
+    /**
+     * Return a string representation of this server, with its statistics.
+     */
+    public String toString() {
+        return "AgarServer(port " + listener.getLocalPort() + ", " + connected + " players now, "
+            + accepted + " in all, " + framesSent + " frames and " + bytesSent + " bytes sent, tick "
+            + game.getTicks() + ")";
+    }
+
+    /**
+     * Return the number of ticks the game has run.
+     */
+    public long ticks() {
+        return game.getTicks();
+    }
+
+    /**
+     * Return the port the server is listening on.
+     */
+    public int getPort() {
+        return listener.getLocalPort();
+    }
+
+    /**
+     * Return the number of players connected.
+     */
+    public long players() {
+        return connected.get();
+    }
+
+    /**
+     * Return the number of frames sent to players so far.
+     */
+    public long framesSent() {
+        return framesSent.get();
+    }
+
+    /**
+     * Return the number of bytes sent to players so far.
+     */
+    public long bytesSent() {
+        return bytesSent.get();
+    }
+
+    /**
+     * Start the game and start accepting players, each on threads of their
+     * own. Returns straight away.
+     */
+    public void start() {
+        running = true;
+        Thread ticker = new Thread(this::runGame, "AgarServer game");
+        ticker.setDaemon(true);
+        ticker.start();
+        Thread acceptor = new Thread(this::runAccept, "AgarServer accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Stop the game, disconnect everyone and stop listening.
+     */
+    public void close() throws IOException {
+        running = false;
+        listener.close();
+        lock.lock();
+        try {
+            published.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (int i = 0; i < eaters; i++) {
+            Connection c = owners.get(i);
+            if (c != null)
+                c.close();
+        }
+        game.shutdown();
+    }
+
+    /**
+     * Start a thread running the given task: a virtual thread if this Java
+     * has them, otherwise a daemon thread with a small stack.
+     */
+    static Thread startThread(String name, Runnable task) {
+        if (OF_VIRTUAL != null) {
+            try {
+                Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), name);
+                return (Thread)BUILDER_START.invoke(builder, task);
+            } catch (ReflectiveOperationException e) {
+                // fall back to an ordinary thread
+            }
+        }
+        Thread t = new Thread(null, task, name, 256 * 1024);
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    /**
+     * The game thread: tick the game 50 times per second, publishing a
+     * snapshot after each frame.
+     */
+    private void runGame() {
+        FramePacer pacer = new FramePacer(AgarWorld.TICK);
+        while (running) {
+            int steps = pacer.steps();
+            for (int i = 0; i < steps; i++)
+                step();
+            if (steps > 0)
+                publish();
+            pacer.sync();
+        }
+    }
+
+    /**
+     * Aim every blob, at its player's aim point or wherever its bot decides,
+     * then advance the game by one tick.
+     */
+    private void step() {
+        BallWorld world = game.getWorld();
+        brain.clear();
+        for (int i = 0; i < eaters; i++)
+            brain.addEater(world.ball(i));
+        for (int i = eaters; i < world.size(); i++)
+            brain.add(world.ball(i));
+        for (int i = 0; i < game.poisonCount(); i++)
+            brain.add(game.getPoison(i));
+
+        for (int i = 0; i < eaters; i++) {
+            Connection c = owners.get(i);
+            if (c != null && c.aiming)
+                world.ball(i).aimTowards(c.aimX, c.aimY, AgarWorld.PLAYER_SPEED);
+            else if (c == null)
+                brain.steer(world.ball(i), BOT_SPEED);
+        }
+        game.tick();
+    }
+
+    /**
+     * Make a snapshot of the game as it is now, and wake up the connection
+     * threads to send it.
+     */
+    private void publish() {
+        BallWorld world = game.getWorld();
+        int balls = world.size();
+        Snapshot s = new Snapshot(game.getTicks(), balls + game.poisonCount());
+        for (int i = 0; i < balls; i++) {
+            Ball b = world.ball(i);
+            s.set(i, b.getX(), b.getY(), b.getRadius(), b.getColor().getRGB() & 0xFFFFFF);
+        }
+        for (int i = 0; i < game.poisonCount(); i++) {
+            Star p = game.getPoison(i);
+            s.set(balls + i, p.getX(), p.getY(), p.getRadius(),
+                    (p.getColor().getRGB() & 0xFFFFFF) | STAR);
+        }
+        s.tree.build();
+
+        lock.lock();
+        try {
+            latest = s;
+            published.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wait for a snapshot newer than the given tick, or until the server is
+     * closed (returning null).
+     */
+    private Snapshot awaitSnapshot(long tick) throws InterruptedException {
+        lock.lock();
+        try {
+            while (running && latest.tick <= tick)
+                published.await();
+            return running ? latest : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The accepting thread: give each new connection a thread of its own.
+     */
+    private void runAccept() {
+        while (running) {
+            try {
+                Socket socket = listener.accept();
+                socket.setTcpNoDelay(true);
+                Connection c = new Connection(socket);
+                startThread("AgarServer player", c);
+            } catch (IOException e) {
+                if (running)
+                    StdOut.println("accept failed: " + e);
+            }
+        }
+    }
+
+    /**
+     * Give the connection a blob nobody else has, or return -1 if there are
+     * none left.
+     */
+    private int claim(Connection c) {
+        for (int i = 0; i < eaters; i++) {
+            if (owners.compareAndSet(i, null, c))
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Hand the connection's blob back to the bots.
+     */
+    private void release(Connection c) {
+        if (c.eater >= 0)
+            owners.compareAndSet(c.eater, c, null);
+    }
+
+    /**
+     * One player's connection, and what they have been sent so far.
+     */
+    private class Connection implements Runnable {
+
+        private final Socket socket;
+
+        // The blob this player controls, and where they are aiming it.
+        // Written by this connection's thread, read by the game thread.
+        private volatile int eater = -1;
+        private volatile double aimX, aimY;
+        private volatile boolean aiming;
+
+        // What this player has been sent: the ids they know about, in
+        // increasing order, and what they know about each.
+        private int[] known = new int[64], knownX = new int[64], knownY = new int[64];
+        private int[] knownR = new int[64], knownColor = new int[64];
+        private int knownCount;
+
+        // The same for the frame being sent, swapped with the above after.
+        private int[] next = new int[64], nextX = new int[64], nextY = new int[64];
+        private int[] nextR = new int[64], nextColor = new int[64];
+
+        // Ids visible in the frame being sent, and the message being built.
+        private int[] visible = new int[64];
+        private ByteBuffer message = ByteBuffer.allocate(4096);
+
+        Connection(Socket socket) {
+            this.socket = socket;
+        }
+
+        public void run() {
+            connected.incrementAndGet();
+            accepted.incrementAndGet();
+            try {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                eater = claim(this);
+                if (eater < 0)
+                    return;   // the game is full
+                Snapshot s = latest;
+                out.writeInt(MAGIC);
+                out.writeInt(eater);
+                out.writeInt(s.x.length);
+                out.flush();
+
+                long tick = -1;
+                while ((s = awaitSnapshot(tick)) != null) {
+                    while (in.available() >= 16) {
+                        aimX = in.readDouble();
+                        aimY = in.readDouble();
+                        aiming = true;
+                    }
+                    encode(s);
+                    out.write(message.array(), 0, message.position());
+                    out.flush();
+                    framesSent.incrementAndGet();
+                    bytesSent.addAndGet(message.position());
+                    tick = s.tick;
+                }
+            } catch (IOException e) {
+                // the player went away
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                release(this);
+                close();
+                connected.decrementAndGet();
+            }
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // already closed
+            }
+        }
+
+        /**
+         * Build the message telling the player what changed near them since
+         * the last frame they were sent.
+         */
+        private void encode(Snapshot s) {
+            // Find what the player can see, in increasing order of id: the
+            // tree only knows about centres, so ask for everything whose
+            // centre could be near enough, then keep what has its edge
+            // within VIEW of the player's edge.
+            KdTree tree = s.tree;
+            double cx = tree.getX(eater), cy = tree.getY(eater);
+            double reach = tree.getRadius(eater) + VIEW;
+            int n = tree.within(cx, cy, reach + s.biggest, null, visible);
+            if (n > visible.length) {
+                visible = new int[Math.max(n, 2 * visible.length)];
+                n = tree.within(cx, cy, reach + s.biggest, null, visible);
+            }
+            int seen = 0;
+            for (int j = 0; j < n; j++) {
+                int id = visible[j];
+                double dx = tree.getX(id) - cx, dy = tree.getY(id) - cy;
+                double gap = reach + tree.getRadius(id);
+                if (dx*dx + dy*dy <= gap*gap)
+                    visible[seen++] = id;
+            }
+            n = seen;
+            Arrays.sort(visible, 0, n);
+            if (next.length < n) {
+                int size = Math.max(n, 2 * next.length);
+                next = new int[size];
+                nextX = new int[size];
+                nextY = new int[size];
+                nextR = new int[size];
+                nextColor = new int[size];
+            }
+
+            // Go through the old and new lists together, like a merge.
+            message.clear();
+            message.putInt(0);   // length, filled in at the end
+            message.putLong(s.tick);
+            int updatesAt = message.position();
+            message.putInt(0);
+            int updates = 0, removals = 0;
+            int i = 0, lastId = 0;
+            for (int j = 0; j < n; j++) {
+                int id = visible[j];
+                while (i < knownCount && known[i] < id)
+                    i++;   // skip those that went out of sight; removed below
+                int flags = POSITION | RADIUS | COLOR;
+                if (i < knownCount && known[i] == id) {
+                    flags = 0;
+                    if (knownX[i] != s.x[id] || knownY[i] != s.y[id]) flags |= POSITION;
+                    if (knownR[i] != s.radius[id]) flags |= RADIUS;
+                    if (knownColor[i] != s.color[id]) flags |= COLOR;
+                }
+                if (flags != 0) {
+                    int dx = 0, dy = 0;
+                    if (flags == POSITION) {
+                        dx = s.x[id] - knownX[i];
+                        dy = s.y[id] - knownY[i];
+                        if (dx >= Byte.MIN_VALUE && dx <= Byte.MAX_VALUE
+                                && dy >= Byte.MIN_VALUE && dy <= Byte.MAX_VALUE)
+                            flags = NUDGE;
+                    }
+                    room(16);
+                    putVarint(id - lastId);
+                    lastId = id;
+                    message.put((byte)flags);
+                    if ((flags & NUDGE) != 0) {
+                        message.put((byte)dx);
+                        message.put((byte)dy);
+                    }
+                    if ((flags & POSITION) != 0) {
+                        message.putShort((short)s.x[id]);
+                        message.putShort((short)s.y[id]);
+                    }
+                    if ((flags & RADIUS) != 0)
+                        message.putShort((short)s.radius[id]);
+                    if ((flags & COLOR) != 0)
+                        message.putInt(s.color[id]);
+                    updates++;
+                }
+                next[j] = id;
+                nextX[j] = s.x[id];
+                nextY[j] = s.y[id];
+                nextR[j] = s.radius[id];
+                nextColor[j] = s.color[id];
+            }
+            message.putInt(updatesAt, updates);
+
+            // Anything known before but not visible now is removed.
+            int removalsAt = message.position();
+            room(4);
+            message.putInt(0);
+            int j = 0;
+            lastId = 0;
+            for (i = 0; i < knownCount; i++) {
+                while (j < n && visible[j] < known[i])
+                    j++;
+                if (j == n || visible[j] != known[i]) {
+                    room(5);
+                    putVarint(known[i] - lastId);
+                    lastId = known[i];
+                    removals++;
+                }
+            }
+            message.putInt(removalsAt, removals);
+            message.putInt(0, message.position() - 4);
+
+            // What was sent becomes what the player knows.
+            int[] t;
+            t = known; known = next; next = t;
+            t = knownX; knownX = nextX; nextX = t;
+            t = knownY; knownY = nextY; nextY = t;
+            t = knownR; knownR = nextR; nextR = t;
+            t = knownColor; knownColor = nextColor; nextColor = t;
+            knownCount = n;
+        }
+
+        /**
+         * Write a number that isn't negative in as few bytes as it needs, 7
+         * bits at a time, lowest first, with the top bit set on all but the
+         * last byte.
+         */
+        private void putVarint(int value) {
+            while ((value & ~0x7F) != 0) {
+                message.put((byte)(value & 0x7F | 0x80));
+                value >>>= 7;
+            }
+            message.put((byte)value);
+        }
+
+        /**
+         * Make sure the message has room for the given number of bytes more.
+         */
+        private void room(int bytes) {
+            if (message.remaining() < bytes) {
+                ByteBuffer bigger = ByteBuffer.allocate(2 * message.capacity() + bytes);
+                message.flip();
+                bigger.put(message);
+                message = bigger;
+            }
+        }
+    }
+
+    /**
+     * A main() function for testing purposes. Runs a server until it is
+     * killed, printing its statistics every 5 seconds.
+     */
+    public static void main(String args[]) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        Agar.verbose = false;
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : PORT;
+        int eaters = args.length > 1 ? Integer.parseInt(args[1]) : 1100;
+        int food = args.length > 2 ? Integer.parseInt(args[2]) : 3000;
+        int poison = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+
+        AgarServer server = new AgarServer(port, eaters, food, poison);
+        server.start();
+        StdOut.println("listening on port " + server.getPort()
+            + (OF_VIRTUAL != null ? ", with virtual threads" : ", with platform threads"));
+        long lastFrames = 0, lastBytes = 0, lastTicks = 0;
+        while (true) {
+            Thread.sleep(5000);
+            long frames = server.framesSent(), bytes = server.bytesSent(), ticks = server.ticks();
+            StdOut.printf("%d players, %.1f ticks/sec, %.0f frames/sec, %.2f MB/sec, %.0f bytes/frame\n",
+                    server.players(), (ticks - lastTicks) / 5.0, (frames - lastFrames) / 5.0,
+                    (bytes - lastBytes) / 5e6,
+                    frames == lastFrames ? 0.0 : (bytes - lastBytes) / (double)(frames - lastFrames));
+            lastFrames = frames;
+            lastBytes = bytes;
+            lastTicks = ticks;
+        }
+    }
+}
@@ -0,0 +1,453 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  The state of an Agar game (the player, the food and the poison)
+ *  and the rules for advancing it by one frame. It does no drawing
+ *  or mouse handling of its own, so the same game can be run in a
+ *  window (see Agar) or without one (see Headless).
+ *
+ *  Example: java Agar
+ *----------------------------------------------------------------*/
+
+import java.awt.Color;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An AgarWorld holds one player blob, some bouncing food blobs and some poison
+ * stars. Each call to tick() advances the game by one 20 millisecond frame:
+ *
+ *    AgarWorld world = new AgarWorld(2, 1);
+ *    while (true) {
+ *        world.tick(StdDraw.mouseX(), StdDraw.mouseY());
+ *        StdDraw.clear(StdDraw.WHITE);
+ *        world.draw();
+ *        StdDraw.show(AgarWorld.TICK);
+ *    }
+ *
+ * Frames can also be longer than 20 milliseconds, e.g. world.tick(x, y, 100)
+ * to run fewer frames per second when the computer is busy. Collisions are
+ * found by following each blob along its path through the frame (see Swept),
+ * so fast blobs don't jump over food, poison or walls on long frames.
+ *
+ * The game only uses StdRandom for randomness, so calling StdRandom.setSeed()
+ * first makes the whole game repeatable.
+ */
+public class AgarWorld {
+
+    // Duration of one frame, in milliseconds.
+    public static final int TICK = 20;
+
+    // Speed of the player, in "meters" per second.
+    public static final double PLAYER_SPEED = 1.0/6.0;
+
+    // Bytes used to save one ball (position, velocity, radius and color) and
+    // one star (position and radius).
+    private static final int BALL_BYTES = 5 * 8 + 4;
+    private static final int STAR_BYTES = 8 * 8;
+
+    // The blob controlled by the user.
+    private Ball player;
+
+    // Small blobs the player can eat. Eaten food is reused in place as new
+    // food rather than replaced, so no food is ever created or thrown away
+    // after the start. Only the first foodCount are in use; the array has
+    // room for more to be added.
+    private Ball[] food;
+    private int foodCount;
+
+    // Number of times food was eaten and respawned in place.
+    private long respawned;
+
+    // Stars that shrink the player, the first poisonCount of them in use.
+    private Star[] poison;
+    private int poisonCount;
+
+    // The edges of the world, which the blobs bounce off.
+    private WorldBounds bounds;
+
+    // Used to find which food and poison the player is touching.
+    private SpatialHash hash;
+
+    // A ball big enough to contain the player's whole path through a frame,
+    // used to ask the hash for everything the player might run into, and
+    // the lists the hash fills in, reused every frame.
+    private Ball reach;
+    private List<Ball> nearbyFood = new ArrayList<Ball>();
+    private List<Star> nearbyPoison = new ArrayList<Star>();
+
+    // Number of frames so far.
+    private long ticks;
+
+    // Times the phases of each frame, and counts collision checks.
+    private FrameProfiler profiler = FrameProfiler.OFF;
+
+    /**
+     * Initializes a new game with the given amount of food and poison. The
+     * player starts in the middle of the canvas.
+     */
+    public AgarWorld(int foodCount, int poisonCount) {
+        this(foodCount, poisonCount, WorldBounds.UNIT);
+    }
+
+    /**
+     * Initializes a new game with the given amount of food and poison, in a
+     * world with the given bounds. The player starts in the middle.
+     */
+    public AgarWorld(int foodCount, int poisonCount, WorldBounds bounds) {
+        this.bounds = bounds;
+
+        // Create a medium-sized red ball for the player.
+        player = new Ball((bounds.getXMin() + bounds.getXMax()) / 2,
+                (bounds.getYMin() + bounds.getYMax()) / 2, 0.07);
+        player.setColor(StdDraw.RED);
+
+        this.foodCount = foodCount;
+        this.poisonCount = poisonCount;
+        food = new Ball[foodCount];
+        for (int i = 0; i < foodCount; i++)
+            food[i] = Agar.respawn(new Ball(), bounds);
+
+        poison = new Star[poisonCount];
+        for (int i = 0; i < poisonCount; i++)
+            poison[i] = Agar.launchRandomStar(bounds);
+
+        hash = new SpatialHash(0.1);
+        reach = new Ball();
+    }
+
+    /**
+     * Return a string representation of this game. Possibly useful for
+     * debugging.
+     */
+    public String toString() {
+        return "AgarWorld(" + foodCount + " food, " + poisonCount
+            + " poison) after " + ticks + " ticks, player " + player;
+    }
+
+    /**
+     * Return the edges of the world.
+     */
+    public WorldBounds getBounds() {
+        return bounds;
+    }
+
+    /**
+     * Return the player's blob.
+     */
+    public Ball getPlayer() {
+        return player;
+    }
+
+    /**
+     * Return the number of food blobs.
+     */
+    public int foodCount() {
+        return foodCount;
+    }
+
+    /**
+     * Return food blob number i.
+     */
+    public Ball getFood(int i) {
+        return food[i];
+    }
+
+    /**
+     * Return the number of times food has been eaten and respawned in place,
+     * reusing its Ball rather than making a new one.
+     */
+    public long respawned() {
+        return respawned;
+    }
+
+    /**
+     * Return the number of poison stars.
+     */
+    public int poisonCount() {
+        return poisonCount;
+    }
+
+    /**
+     * Return poison star number i.
+     */
+    public Star getPoison(int i) {
+        return poison[i];
+    }
+
+    /**
+     * Add a food blob, e.g. one made by a Scenario. It is used as it is, and
+     * when eaten it is respawned like any other food.
+     */
+    public void addFood(Ball b) {
+        if (foodCount == food.length)
+            food = Arrays.copyOf(food, Math.max(16, 2 * foodCount));
+        food[foodCount++] = b;
+    }
+
+    /**
+     * Add a poison star, e.g. one made by a Scenario.
+     */
+    public void addPoison(Star s) {
+        if (poisonCount == poison.length)
+            poison = Arrays.copyOf(poison, Math.max(16, 2 * poisonCount));
+        poison[poisonCount++] = s;
+    }
+
+    /**
+     * Return the total number of sprites (player, food and poison).
+     */
+    public int entityCount() {
+        return 1 + foodCount + poisonCount;
+    }
+
+    /**
+     * Return the number of frames simulated so far.
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Time the phases of each tick with the given profiler (or stop timing
+     * them, with FrameProfiler.OFF). The caller ends each profiler frame.
+     */
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Return the profiler timing this game, FrameProfiler.OFF if none.
+     */
+    public FrameProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * Advance the game by one 20 millisecond frame, with the player aiming
+     * towards the given point (normally the mouse position).
+     */
+    public void tick(double aimX, double aimY) {
+        tick(aimX, aimY, TICK);
+    }
+
+    /**
+     * Advance the game by one frame of the given duration (in milliseconds),
+     * with the player aiming towards the given point.
+     */
+    public void tick(double aimX, double aimY, int durationInMilliseconds) {
+        double seconds = durationInMilliseconds / 1000.0;
+
+        // Update player so it is aiming towards the point.
+        long t = profiler.start(FrameProfiler.INPUT);
+        player.aimTowards(aimX, aimY, PLAYER_SPEED);
+        profiler.stop(FrameProfiler.INPUT, t);
+
+        // Find the food and poison near the player's path for this frame.
+        // Food moves too, so allow for the fastest food as well.
+        t = profiler.start(FrameProfiler.COLLISION);
+        hash.clear();
+        double foodTravel = 0.0;
+        for (int i = 0; i < foodCount; i++) {
+            hash.add(food[i]);
+            foodTravel = Math.max(foodTravel, food[i].speed() * seconds);
+        }
+        for (int i = 0; i < poisonCount; i++)
+            hash.add(poison[i]);
+        double dx = player.getXVelocity() * seconds;
+        double dy = player.getYVelocity() * seconds;
+        reach.setPosition(player.getX() + dx/2, player.getY() + dy/2);
+        reach.setRadius(player.getRadius() + Math.sqrt(dx*dx + dy*dy)/2 + foodTravel);
+        nearbyFood.clear();
+        nearbyPoison.clear();
+        hash.queryTouching(reach, nearbyFood);
+        hash.queryTouchingStars(reach, nearbyPoison);
+        profiler.count(FrameProfiler.CHECKS, nearbyFood.size() + nearbyPoison.size());
+        profiler.stop(FrameProfiler.COLLISION, t);
+
+        // Eat any food the player covers at some point during the frame, and
+        // turn it into a new one somewhere else.
+        t = profiler.start(FrameProfiler.EAT);
+        for (int i = 0; i < nearbyFood.size(); i++) {
+            Ball nearby = nearbyFood.get(i);
+            if (Swept.coverTime(player, nearby) <= seconds) {
+                Agar.eat(player, nearby);
+                Agar.respawn(nearby, bounds);
+                respawned++;
+                profiler.count(FrameProfiler.EATEN, 1);
+            }
+        }
+
+        // Check the poison where the player passes closest to it, and where
+        // the player ends up.
+        for (int i = 0; i < nearbyPoison.size(); i++) {
+            Star star = nearbyPoison.get(i);
+            double closest = Swept.closestTime(player, star.getX(), star.getY(), seconds);
+            if (touchingAt(star, closest) || touchingAt(star, seconds)) {
+                // Shrink the player, and move the poison somewhere else so it
+                // only counts once.
+                Agar.poison(player);
+                star.setPosition(bounds.randomX(), bounds.randomY());
+                profiler.count(FrameProfiler.POISONED, 1);
+            }
+        }
+        profiler.stop(FrameProfiler.EAT, t);
+
+        // Move the player and food, bouncing off the edges of the world.
+        // Swept.move() does both at once, so it all counts as moving. Poison
+        // only moves and spins if it was given a velocity or spin, e.g. by a
+        // Scenario.
+        t = profiler.start(FrameProfiler.MOVE);
+        int bounces = move(player, durationInMilliseconds);
+        for (int i = 0; i < foodCount; i++)
+            bounces += move(food[i], durationInMilliseconds);
+        for (int i = 0; i < poisonCount; i++) {
+            poison[i].bounce(bounds);
+            poison[i].move(durationInMilliseconds);
+        }
+        profiler.count(FrameProfiler.BOUNCES, bounces);
+        profiler.stop(FrameProfiler.MOVE, t);
+
+        ticks++;
+    }
+
+    /**
+     * Move one blob, bouncing off the edges of the world, and report any
+     * bounce. Returns the number of bounces.
+     */
+    private int move(Ball b, int durationInMilliseconds) {
+        int bounces = Swept.move(b, durationInMilliseconds, bounds);
+        if (bounces > 0)
+            Agar.bounced(b);
+        return bounces;
+    }
+
+    /**
+     * Check whether the player, after moving in a straight line for the given
+     * number of seconds, would be touching the star.
+     */
+    private boolean touchingAt(Star star, double seconds) {
+        return star.touchingCircle(player.getX() + player.getXVelocity() * seconds,
+                player.getY() + player.getYVelocity() * seconds, player.getRadius());
+    }
+
+    /**
+     * Return the number of bytes writeState() uses for a game with the given
+     * amount of food and poison.
+     */
+    public static int stateBytes(int foodCount, int poisonCount) {
+        return 8 + (1 + foodCount) * BALL_BYTES + poisonCount * STAR_BYTES;
+    }
+
+    /**
+     * Save the exact state of this game (the frame count, and every blob and
+     * star) at the buffer's current position.
+     */
+    public void writeState(ByteBuffer out) {
+        out.putLong(ticks);
+        writeBall(out, player);
+        for (int i = 0; i < foodCount; i++)
+            writeBall(out, food[i]);
+        for (int i = 0; i < poisonCount; i++) {
+            Star s = poison[i];
+            out.putDouble(s.getX());
+            out.putDouble(s.getY());
+            out.putDouble(s.getRadius());
+            out.putDouble(s.getXVelocity());
+            out.putDouble(s.getYVelocity());
+            out.putDouble(s.getSpin());
+            out.putDouble(s.getTurnCos());
+            out.putDouble(s.getTurnSin());
+        }
+    }
+
+    /**
+     * Replace the state of this game with one saved by writeState(), read
+     * from the buffer's current position. The game must have the same amount
+     * of food and poison as the one that was saved.
+     */
+    public void readState(ByteBuffer in) {
+        ticks = in.getLong();
+        readBall(in, player);
+        for (int i = 0; i < foodCount; i++)
+            readBall(in, food[i]);
+        for (int i = 0; i < poisonCount; i++) {
+            Star s = poison[i];
+            double x = in.getDouble(), y = in.getDouble();
+            s.setPosition(x, y);
+            s.setRadius(in.getDouble());
+            double vx = in.getDouble(), vy = in.getDouble();
+            s.setVelocity(vx, vy);
+            s.setSpin(in.getDouble());
+            double cos = in.getDouble(), sin = in.getDouble();
+            s.setTurn(cos, sin);
+        }
+    }
+
+    /**
+     * Save one ball.
+     */
+    private static void writeBall(ByteBuffer out, Ball b) {
+        out.putDouble(b.getX());
+        out.putDouble(b.getY());
+        out.putDouble(b.getXVelocity());
+        out.putDouble(b.getYVelocity());
+        out.putDouble(b.getRadius());
+        out.putInt(b.getColor().getRGB());
+    }
+
+    /**
+     * Load one ball saved by writeBall().
+     */
+    private static void readBall(ByteBuffer in, Ball b) {
+        double x = in.getDouble(), y = in.getDouble();
+        double vx = in.getDouble(), vy = in.getDouble();
+        b.setPosition(x, y);
+        b.setVelocity(vx, vy);
+        b.setRadius(in.getDouble());
+        int rgb = in.getInt();
+        if (b.getColor().getRGB() != rgb)
+            b.setColor(new Color(rgb, true));
+    }
+
+    /**
+     * Draw the food, the poison and then the player on the StdDraw canvas.
+     * After calling this function, clients should call one of the
+     * StdDraw.show() functions so that the updated canvas appears on the
+     * screen.
+     */
+    public void draw() {
+        for (int i = 0; i < foodCount; i++)
+            food[i].draw();
+        for (int i = 0; i < poisonCount; i++)
+            poison[i].draw();
+        player.draw();
+    }
+
+    /**
+     * Add the food, the poison and then the player to the given render queue,
+     * in layers 0, 1 and 2, instead of drawing them one at a time. Call the
+     * queue's flush() to draw them.
+     */
+    public void draw(RenderQueue queue) {
+        for (int i = 0; i < foodCount; i++)
+            queue.add(food[i], 0);
+        for (int i = 0; i < poisonCount; i++)
+            queue.add(poison[i], 1);
+        queue.add(player, 2);
+    }
+
+    /**
+     * Add the food, the poison and then the player to the given render queue,
+     * like draw(queue), but leaving out anything the camera can't see.
+     */
+    public void draw(RenderQueue queue, Camera camera) {
+        for (int i = 0; i < foodCount; i++)
+            camera.draw(food[i], queue, 0);
+        for (int i = 0; i < poisonCount; i++)
+            camera.draw(poison[i], queue, 1);
+        camera.draw(player, queue, 2);
+    }
+}
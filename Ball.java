@@ -60,7 +60,7 @@ public class Ball {
         this.vx = 0.0;
         this.vy = 0.0;
         this.radius = radius;
-        this.color = StdDraw.BLACK;
+        this.color = Color.BLACK;
     }
 
     /**
@@ -74,7 +74,7 @@ public class Ball {
         this.vx = 0.0;
         this.vy = 0.0;
         this.radius = 0.1;
-        this.color = StdDraw.BLACK;
+        this.color = Color.BLACK;
     }
 
     /**
@@ -220,13 +220,13 @@ public class Ball {
         return Math.sqrt(vx*vx + vy*vy);
     }
 
-    /*
-     * Check whether this ball is touching a star.
+    /**
+     * Check whether this ball is touching a star. This uses the real shape of
+     * the star, so touching the tip of a point counts, but reaching into the
+     * gap between two points does not.
      */
     public boolean touching(Star star) {
-        // this ball is touching other if the distance
-        // is less than our combined sizes.
-        return (distanceTo(star) < radius + star.getRadius());
+        return star.touchingCircle(x, y, radius);
     }
 
     /**
@@ -251,9 +251,9 @@ public class Ball {
      * Check whether this ball is completely covering a star.
      */
     public boolean covering(Star star) {
-        // this ball is covering other if we are bigger than
-        // the distance plus their size.
-        return (radius > distanceTo(star) + star.getRadius());
+        // this ball is covering the star if every corner of
+        // the star is inside this ball.
+        return star.insideCircle(x, y, radius);
     }
 
     /**
@@ -277,10 +277,11 @@ public class Ball {
     /**
      * Set the hue (or "color") of a ball. The hue value parameter shoud be
      * between 0.0 and 1.0. The saturation and lightness will be set to provide
-     * a pleasant, solid medium-bright color.
+     * a pleasant, solid medium-bright color. The color is shared from the
+     * HuePalette, so this doesn't create a new Color each time.
      */
     public void setHue(double hue) {
-        color = Color.getHSBColor((float)hue, 0.7f, 0.6f);
+        color = HuePalette.color(hue);
     }
 
     /**
@@ -304,6 +305,27 @@ public class Ball {
         return radius;
     }
 
+    /**
+     * Return the x velocity of this ball. Units are "meters" per second.
+     */
+    public double getXVelocity() {
+        return vx;
+    }
+
+    /**
+     * Return the y velocity of this ball. Units are "meters" per second.
+     */
+    public double getYVelocity() {
+        return vy;
+    }
+
+    /**
+     * Return the color of this ball.
+     */
+    public Color getColor() {
+        return color;
+    }
+
     /**
      * Calculate the size (or "surface area") of this ball. Units are square
      * "meters".
@@ -387,12 +409,40 @@ public class Ball {
         }
     }
 
+    /**
+     * Like wrap(), but for a world with the given bounds instead of the
+     * StdDraw canvas.
+     */
+    public void wrap(WorldBounds world) {
+        double xmin = world.getXMin(), xmax = world.getXMax();
+        double ymin = world.getYMin(), ymax = world.getYMax();
+        while (x > xmax + radius) x -= (xmax - xmin + 2.0*radius);
+        while (y > ymax + radius) y -= (ymax - ymin + 2.0*radius);
+        while (x < xmin - radius) x += (xmax - xmin + 2.0*radius);
+        while (y < ymin - radius) y += (ymax - ymin + 2.0*radius);
+    }
+
+    /**
+     * Like bounce(), but for a world with the given bounds instead of the
+     * StdDraw canvas.
+     */
+    public void bounce(WorldBounds world) {
+        if ((vx > 0 && x + radius > world.getXMax()) || (vx < 0 && x - radius < world.getXMin())) {
+            vx *= -1;
+        }
+        if ((vy > 0 && y + radius > world.getYMax()) || (vy < 0 && y - radius < world.getYMin())) {
+            vy *= -1;
+        }
+    }
+
     /**
      * If this ball is touching the other ball, this ball will change it's
      * direction so that it is moving directly away from the other ball.
+     * The other ball is not changed. For collisions where both balls are
+     * pushed apart according to their sizes, see ImpulseSolver.
      */
     public void bounce(Ball other) {
-        if (distanceTo(other) < this.radius + other.radius) {
+        if (distanceTo(other) < this.radius + other.getRadius()) {
             aimAwayFrom(other.getX(), other.getY(), this.speed());
         }
     }
@@ -402,7 +452,7 @@ public class Ball {
      * direction so that it is moving directly away from the star.
      */
     public void bounce(Star other) {
-        if (distanceTo(other) < this.radius + other.getRadius()) {
+        if (touching(other)) {
             aimAwayFrom(other.getX(), other.getY(), this.speed());
         }
     }
@@ -0,0 +1,155 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  Bulk motion and collision loops over packed coordinate arrays,
+ *  as used by BallWorld. This class has the plain (scalar) loops;
+ *  VectorBallKernels has SIMD versions of the same loops, which are
+ *  used automatically when the jdk.incubator.vector module is
+ *  available.
+ *
+ *  Example: java --add-modules jdk.incubator.vector KernelBenchmark
+ *----------------------------------------------------------------*/
+
+/**
+ * A BallKernels object knows how to move, bounce and collision-test many balls
+ * at once, given their coordinates in parallel arrays (x[i], y[i], vx[i],
+ * vy[i], r[i] all describe ball number i). The arithmetic in each function is
+ * exactly the same as in the matching Ball function, so results are identical
+ * to calling that function on each ball in turn.
+ *
+ * Use get() to obtain the fastest available implementation:
+ *
+ *    BallKernels k = BallKernels.get();
+ *    k.move(x, y, vx, vy, n, 20);
+ *    k.bounce(x, y, vx, vy, r, n);
+ *
+ * If the program was started with "--add-modules jdk.incubator.vector", this
+ * returns a VectorBallKernels object that processes several balls per CPU
+ * instruction. Otherwise, or if the system property "kernels" is set to
+ * "scalar", it returns one of these plain loops.
+ */
+public class BallKernels {
+
+    // The implementation returned by get(), chosen the first time it is called.
+    private static BallKernels best;
+
+    /**
+     * Return the fastest available implementation of these kernels.
+     */
+    public static synchronized BallKernels get() {
+        if (best == null) {
+            best = new BallKernels();
+            if (!"scalar".equals(System.getProperty("kernels"))) {
+                try {
+                    // Look the class up next to this one, in case these
+                    // sources have been compiled into a package.
+                    String name = BallKernels.class.getName()
+                        .replace("BallKernels", "VectorBallKernels");
+                    best = (BallKernels)Class.forName(name)
+                        .getDeclaredConstructor().newInstance();
+                } catch (Exception | LinkageError e) {
+                    // Most likely the jdk.incubator.vector module was not
+                    // added, so stick with the scalar loops.
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Return the plain scalar implementation of these kernels.
+     */
+    public static BallKernels scalar() {
+        return new BallKernels();
+    }
+
+    /**
+     * Return a short name for this implementation. Possibly useful for
+     * debugging.
+     */
+    public String toString() {
+        return "scalar";
+    }
+
+    /**
+     * Update the positions of balls 0 to n-1, exactly as if Ball.move() had
+     * been called on each one.
+     */
+    public final void move(double[] x, double[] y, double[] vx, double[] vy,
+            int n, int durationInMilliseconds) {
+        move(x, y, vx, vy, 0, n, durationInMilliseconds);
+    }
+
+    /**
+     * Update the positions of balls from to to-1, exactly as if Ball.move()
+     * had been called on each one.
+     */
+    public void move(double[] x, double[] y, double[] vx, double[] vy,
+            int from, int to, int durationInMilliseconds) {
+        for (int i = from; i < to; i++) {
+            x[i] += vx[i] * durationInMilliseconds / 1000.0;
+            y[i] += vy[i] * durationInMilliseconds / 1000.0;
+        }
+    }
+
+    /**
+     * Update the velocities of balls 0 to n-1, exactly as if Ball.bounce() had
+     * been called on each one.
+     */
+    public final void bounce(double[] x, double[] y, double[] vx, double[] vy,
+            double[] r, int n) {
+        bounce(x, y, vx, vy, r, 0, n);
+    }
+
+    /**
+     * Update the velocities of balls from to to-1, exactly as if Ball.bounce()
+     * had been called on each one.
+     */
+    public void bounce(double[] x, double[] y, double[] vx, double[] vy,
+            double[] r, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if ((vx[i] > 0 && x[i] + r[i] > 1.0) || (vx[i] < 0 && x[i] - r[i] < 0.0)) {
+                vx[i] *= -1;
+            }
+            if ((vy[i] > 0 && y[i] + r[i] > 1.0) || (vy[i] < 0 && y[i] - r[i] < 0.0)) {
+                vy[i] *= -1;
+            }
+        }
+    }
+
+    /**
+     * Find which of balls 0 to n-1 are touching a ball at (bx, by) with radius
+     * br, i.e. for which Ball.touching() would be true. The numbers of those
+     * balls are stored in hits, in increasing order, and the count is
+     * returned. The hits array must have room for n entries.
+     */
+    public int touching(double bx, double by, double br,
+            double[] x, double[] y, double[] r, int n, int[] hits) {
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            double dx = bx - x[i];
+            double dy = by - y[i];
+            if (Math.sqrt(dx*dx + dy*dy) < br + r[i])
+                hits[count++] = i;
+        }
+        return count;
+    }
+
+    /**
+     * Find which of balls 0 to n-1 are completely covered by a ball at (bx, by)
+     * with radius br, i.e. for which Ball.covering() would be true. The
+     * numbers of those balls are stored in hits, in increasing order, and the
+     * count is returned. The hits array must have room for n entries.
+     */
+    public int covering(double bx, double by, double br,
+            double[] x, double[] y, double[] r, int n, int[] hits) {
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            double dx = bx - x[i];
+            double dy = by - y[i];
+            if (br > Math.sqrt(dx*dx + dy*dy) + r[i])
+                hits[count++] = i;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,168 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  A pool of Ball objects that are reused instead of thrown away, so
+ *  a game that keeps creating and removing blobs doesn't keep the
+ *  garbage collector busy.
+ *
+ *  Example: java BallPool
+ *----------------------------------------------------------------*/
+
+import java.util.Arrays;
+
+/**
+ * A BallPool hands out Ball objects and takes them back when they are no
+ * longer needed. Balls that are given back are kept on a "free list" and
+ * handed out again later, so new Ball objects are only created when the free
+ * list is empty:
+ *
+ *    BallPool pool = new BallPool();
+ *    Ball b = Agar.respawn(pool.acquire());   // set up a new blob
+ *    ...
+ *    pool.release(b);                         // b must not be used after this
+ *
+ * A ball handed out by acquire() still has whatever position, velocity, size
+ * and color it had when it was released, so the caller should set all of
+ * them. When a ball is finished with and a new one is wanted right away (as
+ * when Agar food is eaten), it is simpler still to set it up again where it
+ * is, without the pool.
+ *
+ * The pool also keeps statistics: how many balls are in use, the most that
+ * have ever been in use at once (the "high-water mark"), and how many were
+ * newly created versus reused.
+ */
+public class BallPool {
+
+    // Balls that are available to be handed out again. The first
+    // neverUsed of them were created ahead of time and haven't been handed
+    // out yet; released balls always go on top of them.
+    private Ball[] free;
+    private int freeCount;
+    private int neverUsed;
+
+    // Number of balls handed out and not yet released, and the most there
+    // have ever been.
+    private int inUse;
+    private int highWater;
+
+    // Number of balls created, and number of times a ball was reused.
+    private long created;
+    private long reused;
+
+    /**
+     * Initializes an empty pool.
+     */
+    public BallPool() {
+        this(0);
+    }
+
+    /**
+     * Initializes a pool with the given number of balls created ahead of
+     * time, so the first few calls to acquire() won't create any.
+     */
+    public BallPool(int initialSize) {
+        free = new Ball[Math.max(initialSize, 16)];
+        for (int i = 0; i < initialSize; i++) {
+            free[freeCount++] = new Ball();
+            created++;
+        }
+        neverUsed = initialSize;
+    }
+
+    /**
+     * Return a string representation of this pool. Possibly useful for
+     * debugging.
+     */
+    public String toString() {
+        return "BallPool(" + inUse + " in use, " + freeCount + " free, high-water mark "
+            + highWater + ", " + created + " created, " + reused + " reused)";
+    }
+
+    /**
+     * Return a ball that isn't in use, taking one from the free list if
+     * possible and creating a new one otherwise.
+     */
+    public Ball acquire() {
+        Ball b;
+        if (freeCount > 0) {
+            b = free[--freeCount];
+            free[freeCount] = null;
+            if (freeCount < neverUsed)
+                neverUsed--;
+            else
+                reused++;
+        } else {
+            b = new Ball();
+            created++;
+        }
+        inUse++;
+        highWater = Math.max(highWater, inUse);
+        return b;
+    }
+
+    /**
+     * Give back a ball that was handed out by acquire(), so it can be handed
+     * out again. The caller must not use it after this.
+     */
+    public void release(Ball b) {
+        if (inUse == 0)
+            throw new IllegalStateException("more balls released than acquired");
+        if (freeCount == free.length)
+            free = Arrays.copyOf(free, 2 * free.length);
+        free[freeCount++] = b;
+        inUse--;
+    }
+
+    /**
+     * Return the number of balls handed out and not yet released.
+     */
+    public int inUse() {
+        return inUse;
+    }
+
+    /**
+     * Return the number of balls on the free list.
+     */
+    public int available() {
+        return freeCount;
+    }
+
+    /**
+     * Return the most balls that have ever been in use at the same time.
+     */
+    public int highWaterMark() {
+        return highWater;
+    }
+
+    /**
+     * Return the number of Ball objects this pool has created.
+     */
+    public long created() {
+        return created;
+    }
+
+    /**
+     * Return the number of times acquire() handed out a ball that had been
+     * released, rather than a new one.
+     */
+    public long reused() {
+        return reused;
+    }
+
+    /**
+     * A main() function for testing purposes. Repeatedly adds and removes
+     * blobs, and shows that only a few Ball objects ever get created.
+     */
+    public static void main(String args[]) {
+        BallPool pool = new BallPool();
+        Ball[] live = new Ball[100];
+        int count = 0;
+        for (int step = 0; step < 100000; step++) {
+            if (count < live.length && (count == 0 || StdRandom.bernoulli(0.5)))
+                live[count++] = Agar.respawn(pool.acquire());
+            else
+                pool.release(live[--count]);
+        }
+        StdOut.println(pool);
+    }
+}
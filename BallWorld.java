@@ -0,0 +1,386 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  A container for animating a large number of balls at once. The
+ *  position, velocity, radius and color of every ball are kept in
+ *  parallel arrays, so moving all of the balls is one tight loop
+ *  instead of one method call per Ball object.
+ *
+ *  Example: java BallWorld
+ *----------------------------------------------------------------*/
+
+import java.awt.Color;
+import java.util.Arrays;
+
+/**
+ * A BallWorld holds many balls, stored "column by column": one array holds the
+ * x coordinate of every ball, another holds every y coordinate, and so on.
+ * For example, here is how to create 100,000 small balls and animate them:
+ *
+ *    BallWorld world = new BallWorld(100000);
+ *    for (int i = 0; i < 100000; i++) {
+ *        int b = world.add(StdRandom.uniform(), StdRandom.uniform(), 0.001);
+ *        world.ball(b).setVelocity(StdRandom.uniform(), StdRandom.uniform());
+ *    }
+ *    while (true) {
+ *        world.moveAll(20);
+ *        world.bounceAll();
+ *        ...
+ *    }
+ *
+ * The moveAll(), bounceAll() and wrapAll() functions do exactly the same
+ * arithmetic as calling move(), bounce() or wrap() on each ball, so the
+ * results are identical down to the last bit. They just do it without
+ * touching a separate object for every ball, and without allocating anything.
+ *
+ * The loops themselves come from BallKernels.get(), so they use SIMD
+ * instructions when the jdk.incubator.vector module is available.
+ *
+ * Individual balls can still be used like ordinary Ball objects: ball(i)
+ * returns a Ball whose functions read and write the arrays in this world. So
+ * code written for Ball, like Agar.eat(), works unchanged on balls stored here.
+ */
+public class BallWorld {
+
+    // Number of balls in this world. Balls are numbered 0 to n-1.
+    private int n;
+
+    // Position of each ball. Units are "meters".
+    private double[] x, y;
+
+    // Velocity of each ball. Units are "meters" per second.
+    private double[] vx, vy;
+
+    // Radius of each ball. Units are "meters".
+    private double[] radius;
+
+    // Color of each ball.
+    private Color[] color;
+
+    // Ball views handed out by ball(), created the first time each is needed.
+    private Ball[] views;
+
+    // Loops used by moveAll(), bounceAll(), etc.
+    private BallKernels kernels;
+
+    /**
+     * Initializes a new, empty world with room for the given number of balls.
+     * The world grows automatically if more balls than this are added.
+     */
+    public BallWorld(int capacity) {
+        capacity = Math.max(capacity, 1);
+        x = new double[capacity];
+        y = new double[capacity];
+        vx = new double[capacity];
+        vy = new double[capacity];
+        radius = new double[capacity];
+        color = new Color[capacity];
+        views = new Ball[capacity];
+        kernels = BallKernels.get();
+    }
+
+    /**
+     * Return a string representation of this world. Possibly useful for
+     * debugging.
+     */
+    public String toString() {
+        return "BallWorld with " + n + " balls";
+    }
+
+    /**
+     * Return the number of balls in this world.
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Add a new ball at the given (x, y) coordinates and with the given radius.
+     * As with new Ball(x, y, radius), the color is BLACK initially and the
+     * velocity is zero. Returns the number of the new ball.
+     */
+    public int add(double x, double y, double radius) {
+        if (n == this.x.length)
+            resize(2 * n);
+        int i = n++;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.vx[i] = 0.0;
+        this.vy[i] = 0.0;
+        this.radius[i] = radius;
+        this.color[i] = Color.BLACK;
+        return i;
+    }
+
+    /**
+     * Add a copy of the given ball, with the same position, velocity, radius
+     * and color. Returns the number of the new ball.
+     */
+    public int add(Ball b) {
+        int i = add(b.getX(), b.getY(), b.getRadius());
+        set(i, b);
+        return i;
+    }
+
+    /**
+     * Replace ball number i with a copy of the given ball, with the same
+     * position, velocity, radius and color.
+     */
+    public void set(int i, Ball b) {
+        check(i);
+        x[i] = b.getX();
+        y[i] = b.getY();
+        vx[i] = b.getXVelocity();
+        vy[i] = b.getYVelocity();
+        radius[i] = b.getRadius();
+        color[i] = b.getColor();
+    }
+
+    /**
+     * Return ball number i. The result behaves like any other Ball, but its
+     * state lives in this world: changing it changes the world, and moveAll()
+     * etc. change it. The same object is returned every time for a given i.
+     */
+    public Ball ball(int i) {
+        check(i);
+        if (views[i] == null)
+            views[i] = new View(i);
+        return views[i];
+    }
+
+    /**
+     * Update the position of every ball, exactly as if move() had been called
+     * on each one.
+     */
+    public void moveAll(int durationInMilliseconds) {
+        kernels.move(x, y, vx, vy, n, durationInMilliseconds);
+    }
+
+    /**
+     * Make every ball bounce off the edges of the canvas, exactly as if
+     * bounce() had been called on each one.
+     */
+    public void bounceAll() {
+        kernels.bounce(x, y, vx, vy, radius, n);
+    }
+
+    /**
+     * Update the position of balls from to to-1, exactly as if move() had
+     * been called on each one. Different ranges may be updated by different
+     * threads at the same time.
+     */
+    public void moveRange(int from, int to, int durationInMilliseconds) {
+        kernels.move(x, y, vx, vy, from, to, durationInMilliseconds);
+    }
+
+    /**
+     * Make balls from to to-1 bounce off the edges of the canvas, exactly as
+     * if bounce() had been called on each one. Different ranges may be
+     * updated by different threads at the same time.
+     */
+    public void bounceRange(int from, int to) {
+        kernels.bounce(x, y, vx, vy, radius, from, to);
+    }
+
+    /**
+     * Return the number of the given ball in this world, if it is one of the
+     * balls returned by ball(), or -1 otherwise.
+     */
+    public int indexOf(Ball b) {
+        if (b instanceof View && ((View)b).world() == this)
+            return ((View)b).i;
+        return -1;
+    }
+
+    /**
+     * Find which balls are touching b, i.e. for which b.touching() would be
+     * true. The numbers of those balls are stored in hits, in increasing
+     * order, and the count is returned. The hits array must have room for
+     * size() entries. If b is itself in this world, it will be one of the hits.
+     */
+    public int touching(Ball b, int[] hits) {
+        return kernels.touching(b.getX(), b.getY(), b.getRadius(), x, y, radius, n, hits);
+    }
+
+    /**
+     * Find which balls are completely covered by b, i.e. for which
+     * b.covering() would be true. The numbers of those balls are stored in
+     * hits, in increasing order, and the count is returned. The hits array
+     * must have room for size() entries.
+     */
+    public int covering(Ball b, int[] hits) {
+        return kernels.covering(b.getX(), b.getY(), b.getRadius(), x, y, radius, n, hits);
+    }
+
+    /**
+     * Make every ball wrap around the edges of the canvas, exactly as if
+     * wrap() had been called on each one.
+     */
+    public void wrapAll() {
+        double[] x = this.x, y = this.y, radius = this.radius;
+        for (int i = 0; i < n; i++) {
+            double r = radius[i];
+            while (x[i] > 1.0 + r) x[i] -= (1.0 + 2.0*r);
+            while (y[i] > 1.0 + r) y[i] -= (1.0 + 2.0*r);
+            while (x[i] < 0.0 - r) x[i] += (1.0 + 2.0*r);
+            while (y[i] < 0.0 - r) y[i] += (1.0 + 2.0*r);
+        }
+    }
+
+    /**
+     * Draw every ball on the StdDraw canvas, in order from ball 0 to ball n-1.
+     */
+    public void drawAll() {
+        for (int i = 0; i < n; i++) {
+            StdDraw.setPenColor(color[i]);
+            StdDraw.filledCircle(x[i], y[i], radius[i]);
+        }
+    }
+
+    /**
+     * Make sure i is a valid ball number.
+     */
+    private void check(int i) {
+        if (i < 0 || i >= n)
+            throw new IndexOutOfBoundsException("no ball " + i + " in " + this);
+    }
+
+    /**
+     * Grow (or shrink) all the arrays to the given capacity.
+     */
+    private void resize(int capacity) {
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        vx = Arrays.copyOf(vx, capacity);
+        vy = Arrays.copyOf(vy, capacity);
+        radius = Arrays.copyOf(radius, capacity);
+        color = Arrays.copyOf(color, capacity);
+        views = Arrays.copyOf(views, capacity);
+    }
+
+    /**
+     * A Ball whose state lives in the arrays of the enclosing world. Each
+     * function copies ball number i into the inherited Ball fields, lets the
+     * ordinary Ball code do the work, and then copies any changes back. That
+     * way the behavior is always identical to a plain Ball.
+     */
+    private class View extends Ball {
+
+        // Which ball in the world this is.
+        private final int i;
+
+        View(int i) {
+            super(0.0, 0.0, 0.0);
+            this.i = i;
+        }
+
+        // The world this ball lives in.
+        private BallWorld world() {
+            return BallWorld.this;
+        }
+
+        // Copy ball number i from the world into this object.
+        private void load() {
+            super.setPosition(x[i], y[i]);
+            super.setVelocity(vx[i], vy[i]);
+            super.setRadius(radius[i]);
+            super.setColor(color[i]);
+        }
+
+        // Copy this object back into ball number i in the world.
+        private void store() {
+            x[i] = super.getX();
+            y[i] = super.getY();
+            vx[i] = super.getXVelocity();
+            vy[i] = super.getYVelocity();
+            radius[i] = super.getRadius();
+            color[i] = super.getColor();
+        }
+
+        public String toString() { load(); return super.toString(); }
+        public double getX() { return x[i]; }
+        public double getY() { return y[i]; }
+        public double getRadius() { return radius[i]; }
+        public double getXVelocity() { return vx[i]; }
+        public double getYVelocity() { return vy[i]; }
+        public Color getColor() { return color[i]; }
+
+        public void setXPosition(double x) { BallWorld.this.x[i] = x; }
+        public void setYPosition(double y) { BallWorld.this.y[i] = y; }
+        public void setPosition(double x, double y) { BallWorld.this.x[i] = x; BallWorld.this.y[i] = y; }
+        public void setVelocity(double vx, double vy) { BallWorld.this.vx[i] = vx; BallWorld.this.vy[i] = vy; }
+        public void setRadius(double r) { radius[i] = r; }
+        public void setColor(Color c) { color[i] = c; }
+
+        public void setSpeed(double s) { load(); super.setSpeed(s); store(); }
+        public void aimTowards(double x, double y, double s) { load(); super.aimTowards(x, y, s); store(); }
+        public void aimAwayFrom(double x, double y, double s) { load(); super.aimAwayFrom(x, y, s); store(); }
+        public void setHue(double hue) { load(); super.setHue(hue); store(); }
+        public void grow(double amount) { load(); super.grow(amount); store(); }
+        public void setSize(double newSize) { load(); super.setSize(newSize); store(); }
+        public void move(int ms) { load(); super.move(ms); store(); }
+        public void wrap() { load(); super.wrap(); store(); }
+        public void bounce() { load(); super.bounce(); store(); }
+        public void wrap(WorldBounds w) { load(); super.wrap(w); store(); }
+        public void bounce(WorldBounds w) { load(); super.bounce(w); store(); }
+        public void bounce(Ball other) { load(); super.bounce(other); store(); }
+        public void bounce(Star other) { load(); super.bounce(other); store(); }
+
+        public double distanceTo(double x, double y) { load(); return super.distanceTo(x, y); }
+        public double speed() { load(); return super.speed(); }
+        public double size() { load(); return super.size(); }
+        public boolean touching(Ball other) { load(); return super.touching(other); }
+        public boolean touching(Star other) { load(); return super.touching(other); }
+        public boolean covering(Ball other) { load(); return super.covering(other); }
+        public boolean covering(Star other) { load(); return super.covering(other); }
+        public void draw() { load(); super.draw(); }
+    }
+
+    /**
+     * A main() function for testing purposes. It animates the same random
+     * balls both as ordinary Ball objects and inside a BallWorld, and checks
+     * that they end up in exactly the same places.
+     */
+    public static void main(String args[]) {
+        int count = 100000;
+        int frames = 500;
+        Ball[] balls = new Ball[count];
+        BallWorld world = new BallWorld(count);
+        for (int i = 0; i < count; i++) {
+            balls[i] = new Ball(StdRandom.uniform(), StdRandom.uniform(),
+                    StdRandom.uniform(0.001, 0.01));
+            balls[i].setVelocity(StdRandom.uniform(-1.0, 1.0), StdRandom.uniform(-1.0, 1.0));
+            world.add(balls[i]);
+        }
+
+        long objectTime = 0, worldTime = 0;
+        for (int f = 0; f < frames; f++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                balls[i].move(20);
+                balls[i].bounce();
+                balls[i].wrap();
+            }
+            objectTime += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            world.moveAll(20);
+            world.bounceAll();
+            world.wrapAll();
+            worldTime += System.nanoTime() - start;
+        }
+
+        int mismatches = 0;
+        for (int i = 0; i < count; i++) {
+            Ball b = world.ball(i);
+            if (b.getX() != balls[i].getX() || b.getY() != balls[i].getY()
+                    || b.getXVelocity() != balls[i].getXVelocity()
+                    || b.getYVelocity() != balls[i].getYVelocity())
+                mismatches++;
+        }
+        StdOut.printf("%s: %d mismatches\n", world, mismatches);
+        StdOut.printf("Ball objects: %.2f ns/ball, BallWorld: %.2f ns/ball\n",
+                objectTime / (double)count / frames,
+                worldTime / (double)count / frames);
+    }
+}
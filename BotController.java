@@ -0,0 +1,181 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  Steers computer-controlled blobs ("bots"): each one chases the
+ *  nearest food it can eat, and runs away from the nearest bigger
+ *  blob or poison star if one gets too close. Uses a KdTree, so
+ *  hundreds of bots don't each have to check every other blob.
+ *
+ *  Example: java BotController
+ *----------------------------------------------------------------*/
+
+/**
+ * A BotController is given every blob and star once per frame, then asked
+ * to steer each bot:
+ *
+ *    BotController brain = new BotController();
+ *    while (true) {
+ *        brain.clear();
+ *        for (...each food ball f...)
+ *            brain.add(f);
+ *        for (...each ball b that eats, bots included...)
+ *            brain.addEater(b);
+ *        for (...each star s...)
+ *            brain.add(s);
+ *        for (...each bot...)
+ *            brain.steer(bot, speed);
+ *        ...move everything...
+ *    }
+ *
+ * A bot flees (see Ball.aimAwayFrom()) from the nearest star, or eater more
+ * than BIGGER times its size, whose edge is within DANGER of its own edge.
+ * Otherwise it chases
+ * (see Ball.aimTowards()) the nearest food smaller than itself within SIGHT.
+ * If there is nothing to chase either, it carries on the way it was going.
+ */
+public class BotController {
+
+    // How close, in "meters" between their edges, something dangerous has to
+    // be before a bot flees from it.
+    public static final double DANGER = 0.03;
+
+    // How much bigger than a bot (in radius) another eater has to be to be
+    // dangerous.
+    public static final double BIGGER = 1.1;
+
+    // How far a bot can see food.
+    public static final double SIGHT = 0.4;
+
+    // What steer() decided.
+    public static final int WANDER = 0, CHASE = 1, FLEE = 2;
+
+    // Every blob and star this frame, which entries are eaters, and the
+    // radius of the biggest eater or star, so the search for danger can
+    // reach anything whose edge is near even if its centre is far away.
+    private final KdTree tree = new KdTree();
+    private boolean[] eater = new boolean[16];
+    private double biggest;
+
+    // The bot being steered, and the filters used to search for it. They are
+    // kept here so that steering doesn't create any objects besides the
+    // tree's own.
+    private Ball bot;
+    private final KdTree.Filter smaller = e -> !eater[e] && tree.getBall(e) != null
+        && tree.getRadius(e) < bot.getRadius();
+    private final KdTree.Filter dangerous = e -> (tree.getStar(e) != null
+            || (eater[e] && tree.getRadius(e) > BIGGER * bot.getRadius()))
+        && bot.distanceTo(tree.getX(e), tree.getY(e)) - tree.getRadius(e) - bot.getRadius() < DANGER;
+
+    // Number of bots that chased, fled and wandered since the last clear().
+    private int chased, fled, wandered;
+
+    /**
+     * Return a string representation of this controller, with what the bots
+     * did in the last frame.
+     */
+    public String toString() {
+        return "BotController(" + tree.size() + " sprites; " + chased + " chasing, "
+            + fled + " fleeing, " + wandered + " wandering)";
+    }
+
+    /**
+     * Forget all the blobs and stars, ready for the next frame.
+     */
+    public void clear() {
+        tree.clear();
+        biggest = 0.0;
+        chased = 0;
+        fled = 0;
+        wandered = 0;
+    }
+
+    /**
+     * Add a food ball for the bots to chase.
+     */
+    public void add(Ball food) {
+        mark(tree.add(food), false);
+    }
+
+    /**
+     * Add a ball that eats, for smaller bots to flee from. Bots should be
+     * added this way too; they ignore themselves.
+     */
+    public void addEater(Ball b) {
+        mark(tree.add(b), true);
+        biggest = Math.max(biggest, b.getRadius());
+    }
+
+    /**
+     * Add a star for the bots to flee from.
+     */
+    public void add(Star s) {
+        int entry = tree.add(s);
+        mark(entry, false);
+        biggest = Math.max(biggest, tree.getRadius(entry));
+    }
+
+    /**
+     * Record whether the given entry is an eater.
+     */
+    private void mark(int entry, boolean isEater) {
+        if (entry == eater.length)
+            eater = java.util.Arrays.copyOf(eater, 2 * entry);
+        eater[entry] = isEater;
+    }
+
+    /**
+     * Aim the bot at the given speed: away from danger, towards food, or
+     * neither. Returns FLEE, CHASE or WANDER to say which.
+     */
+    public int steer(Ball b, double speed) {
+        bot = b;
+        double x = b.getX(), y = b.getY();
+        int threat = tree.nearest(x, y, b.getRadius() + DANGER + biggest, dangerous);
+        if (threat >= 0) {
+            b.aimAwayFrom(tree.getX(threat), tree.getY(threat), speed);
+            fled++;
+            return FLEE;
+        }
+        int food = tree.nearest(x, y, SIGHT, smaller);
+        if (food >= 0) {
+            b.aimTowards(tree.getX(food), tree.getY(food), speed);
+            chased++;
+            return CHASE;
+        }
+        wandered++;
+        return WANDER;
+    }
+
+    /**
+     * A main() function for testing purposes. Lets a few hundred bots loose
+     * in a ParallelAgar game and shows them eating.
+     */
+    public static void main(String args[]) {
+        Agar.verbose = false;
+        int bots = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        ParallelAgar game = new ParallelAgar(bots, 4 * bots, bots / 20, 1);
+        BallWorld world = game.getWorld();
+        BotController brain = new BotController();
+        for (int t = 0; t < 2000; t++) {
+            brain.clear();
+            for (int i = 0; i < bots; i++)
+                brain.addEater(world.ball(i));
+            for (int i = bots; i < world.size(); i++)
+                brain.add(world.ball(i));
+            for (int i = 0; i < game.poisonCount(); i++)
+                brain.add(game.getPoison(i));
+            long start = System.nanoTime();
+            for (int i = 0; i < bots; i++)
+                brain.steer(world.ball(i), AgarWorld.PLAYER_SPEED);
+            long nanos = System.nanoTime() - start;
+            game.tick();
+            if (t % 500 == 0)
+                StdOut.printf("tick %d: %s, %.1f us to steer\n", t, brain, nanos / 1e3);
+
+            StdDraw.clear(StdDraw.WHITE);
+            game.draw();
+            StdDraw.show(0);
+        }
+        game.shutdown();
+    }
+}
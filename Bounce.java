@@ -5,47 +5,146 @@
  *  Animation of two stars, one bouncing left and right.
  *
  *  Example: java Bounce
+ *           java Bounce crowd   (everything in scenarios/crowd.scenario)
  *----------------------------------------------------------------*/
 
 public class Bounce {
 
-    public static void main(String args[]) {
+    // Duration of one frame, in milliseconds.
+    public static final int TICK = 20;
 
-        // TODO: Allocate a new Star object and make it a pretty color.
-        //
-	Star s = new Star(0.5, 0.5, 0.05, 7);
-	s.setColor(StdDraw.BLUE);
-        // TODO: Allocate a second Star object and make it a pretty color.
-	Star a = new Star(0.0, 0.8, 0.05, 9);
-	a.setColor(StdDraw.RED);
+    // Advance a star that has its own velocity and spin by one frame,
+    // bouncing it off the edges of the canvas, and time it with the given
+    // profiler.
+    public static void tick(Star a, FrameProfiler profiler) {
+        long t = profiler.start(FrameProfiler.BOUNCE);
+        double vx = a.getXVelocity(), vy = a.getYVelocity();
+        a.bounce();
+        if (a.getXVelocity() != vx || a.getYVelocity() != vy)
+            profiler.count(FrameProfiler.BOUNCES, 1);
+        profiler.stop(FrameProfiler.BOUNCE, t);
 
-        // TODO: Declare and initialize a variable for the x velocity.
-	double  vx = 0.3;
+        t = profiler.start(FrameProfiler.MOVE);
+        a.move(TICK);
+        profiler.stop(FrameProfiler.MOVE, t);
+    }
+
+    // Animate the balls and stars of a scenario, showing the whole world.
+    // The scene is built one chunk per frame, so the animation starts right
+    // away however big the scenario is, and kept in a SpriteStore rather than
+    // as Ball and Star objects, so even the huge preset fits in memory.
+    public static void playScenario(Scenario scenario) {
+        WorldBounds bounds = scenario.getBounds();
+        SpriteStore scene = new SpriteStore(bounds);
+        Scenario.Loader loader = scenario.loader();
+        Camera camera = new Camera(bounds, bounds.width(), bounds.height());
+        RenderQueue queue = new RenderQueue();
+        FrameProfiler profiler = new FrameProfiler("Bounce " + scenario.getName());
+        profiler.dumpAtExit();
+        FramePacer pacer = new FramePacer(TICK);
+
+        while (true) {
+            if (!loader.done())
+                loader.next(scene);
+
+            int steps = pacer.steps();
+            long t = profiler.start(FrameProfiler.MOVE);
+            for (int i = 0; i < steps; i++)
+                profiler.count(FrameProfiler.BOUNCES, scene.tick(TICK));
+            profiler.stop(FrameProfiler.MOVE, t);
+            profiler.count(FrameProfiler.TICKS, steps);
+
+            t = profiler.start(FrameProfiler.DRAW);
+            camera.apply();
+            StdDraw.clear(StdDraw.WHITE);
+            scene.draw(queue, camera, 0, 1);
+            queue.flush();
+            profiler.stop(FrameProfiler.DRAW, t);
+            profiler.count(FrameProfiler.DRAWN, queue.drawCalls());
+
+            t = profiler.start(FrameProfiler.PRESENT);
+            StdDraw.show(0);
+            profiler.stop(FrameProfiler.PRESENT, t);
+            pacer.sync();
+            profiler.count(FrameProfiler.OVERRUNS, pacer.overran() ? 1 : 0);
+
+            profiler.endFrame();
+            profiler.dumpOnKey();
+        }
+    }
+
+    public static void main(String args[]) throws java.io.IOException {
+
+        // With the name of a scenario, animate that instead.
+        if (args.length > 0) {
+            playScenario(Scenario.load(args[0]));
+            return;
+        }
+
+        // A stationary blue star, and a red star that moves and spins.
+        Star s = new Star(0.5, 0.5, 0.05, 7);
+        s.setColor(StdDraw.BLUE);
+        Star a = new Star(0.06, 0.8, 0.05, 9);
+        a.setColor(StdDraw.RED);
+        a.setVelocity(0.3, 0.0);
+        a.setSpin(-Math.PI);
+
+        // Only the area around the moving star needs drawing each frame.
+        DirtyRenderer renderer = new DirtyRenderer(StdDraw.WHITE);
+
+        // Time each part of every frame. Type 'p' to print the timings so
+        // far; they are printed again when the program ends.
+        FrameProfiler profiler = new FrameProfiler("Bounce");
+        profiler.dumpAtExit();
+
+        // Run 50 ticks per second, however long drawing takes, and remember
+        // where the red star was and how it was turned before the last tick.
+        FramePacer pacer = new FramePacer(TICK);
+        double lastX = a.getX(), lastY = a.getY();
+        double lastCos = a.getTurnCos(), lastSin = a.getTurnSin();
 
         // Loop the animation forever.
         while (true) {
 
-            // TODO: Update one star's x position, by adding the x velocity to
-            // it. Actually, only add (velocity * 0.020) since this loop will
-            // run every 20 milliseconds, i.e. 50 times per second.
-	    double x = a.getX();
-	    a.setXPosition(x + (vx * 0.02));
-	    
+            // Move the red star, bouncing off the edges, as many times as
+            // needed to keep up with the clock.
+            int steps = pacer.steps();
+            for (int i = 0; i < steps; i++) {
+                lastX = a.getX();
+                lastY = a.getY();
+                lastCos = a.getTurnCos();
+                lastSin = a.getTurnSin();
+                tick(a, profiler);
+            }
+            profiler.count(FrameProfiler.TICKS, steps);
 
-            // TODO: If the star's x position is less than 0.0 or greater than
-            // 1.0, negate the x velocity.
-	    if( a.getX() > 1.0 || a.getX() < 0.0) {
-		vx = vx * -1;
-	    }
+            // Redraw the parts of the scene that changed, with the red star
+            // where it is and how it is turned at this moment in between two
+            // ticks. The turn is blended and scaled back to length 1, which
+            // is close enough for the small angle of one tick.
+            long t = profiler.start(FrameProfiler.DRAW);
+            double alpha = pacer.alpha();
+            double x = lastX + alpha * (a.getX() - lastX);
+            double y = lastY + alpha * (a.getY() - lastY);
+            double cos = lastCos + alpha * (a.getTurnCos() - lastCos);
+            double sin = lastSin + alpha * (a.getTurnSin() - lastSin);
+            double length = Math.hypot(cos, sin);
+            renderer.add(s, 0);
+            renderer.add(a, 1, x, y, cos / length, sin / length);
+            renderer.flush();
+            profiler.stop(FrameProfiler.DRAW, t);
+            profiler.count(FrameProfiler.DRAWN, renderer.lastRedrawn());
 
-            // Draw the scene on the StdDraw canvas.
-            StdDraw.clear(StdDraw.WHITE);
-            // TODO: call each star's draw() function.
-	    s.draw();
-	    a.draw();
+            // Show the canvas on the screen, and wait until it's time for
+            // the next frame.
+            t = profiler.start(FrameProfiler.PRESENT);
+            StdDraw.show(0);
+            profiler.stop(FrameProfiler.PRESENT, t);
+            pacer.sync();
+            profiler.count(FrameProfiler.OVERRUNS, pacer.overran() ? 1 : 0);
 
-            // Show the canvas on the screen.
-            StdDraw.show(20);
+            profiler.endFrame();
+            profiler.dumpOnKey();
         }
 
     }
@@ -0,0 +1,227 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  A view onto part of a world that is bigger than the screen. The
+ *  camera follows the player around, and sprites it can't see are
+ *  skipped instead of drawn.
+ *
+ *  Example: java Agar 10
+ *----------------------------------------------------------------*/
+
+/**
+ * A Camera looks at a rectangle of the world (the "viewport") and makes the
+ * StdDraw canvas show just that rectangle:
+ *
+ *    Camera camera = new Camera(world, 1.0, 1.0);   // see 1 x 1 meters
+ *    while (true) {
+ *        camera.follow(player);
+ *        camera.apply();
+ *        StdDraw.clear(StdDraw.WHITE);
+ *        for (Ball b : food)
+ *            camera.draw(b);      // skipped if it is off screen
+ *        camera.draw(player);
+ *        StdDraw.show(20);
+ *    }
+ *
+ * After apply(), StdDraw.mouseX() and StdDraw.mouseY() are in world
+ * coordinates too, so they can be used to aim the player as usual.
+ *
+ * A sprite is culled (not drawn) when its bounding circle doesn't overlap the
+ * viewport at all. The camera counts how many sprites it drew and culled.
+ */
+public class Camera {
+
+    // The world being looked at. The viewport never goes outside it, unless
+    // the world is smaller than the viewport.
+    private final WorldBounds world;
+
+    // Center of the viewport.
+    private double x, y;
+
+    // Size of the viewport. Units are "meters".
+    private double width, height;
+
+    // Number of sprites drawn and culled by draw().
+    private long drawn, culled;
+
+    /**
+     * Initializes a camera showing a viewport of the given size, in the
+     * middle of the given world.
+     */
+    public Camera(WorldBounds world, double width, double height) {
+        this.world = world;
+        this.width = width;
+        this.height = height;
+        moveTo((world.getXMin() + world.getXMax()) / 2, (world.getYMin() + world.getYMax()) / 2);
+    }
+
+    /**
+     * Return a string representation of this camera. Possibly useful for
+     * debugging.
+     */
+    public String toString() {
+        return "Camera(" + width + " x " + height + " at " + x + ", " + y + "; "
+            + drawn + " drawn, " + culled + " culled)";
+    }
+
+    /**
+     * Return the x coordinate of the center of the viewport.
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * Return the y coordinate of the center of the viewport.
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * Change the size of the viewport, e.g. to zoom out as the player grows.
+     */
+    public void setSize(double width, double height) {
+        this.width = width;
+        this.height = height;
+        moveTo(x, y);
+    }
+
+    /**
+     * Center the viewport as close as possible to (x, y) without showing
+     * anything outside the world.
+     */
+    public void moveTo(double x, double y) {
+        this.x = world.clampX(x, width / 2);
+        this.y = world.clampY(y, height / 2);
+    }
+
+    /**
+     * Center the viewport on the ball, as far as the edges of the world
+     * allow.
+     */
+    public void follow(Ball b) {
+        moveTo(b.getX(), b.getY());
+    }
+
+    /**
+     * Set the StdDraw scale so the canvas shows the viewport.
+     */
+    public void apply() {
+        StdDraw.setXscale(x - width / 2, x + width / 2);
+        StdDraw.setYscale(y - height / 2, y + height / 2);
+    }
+
+    /**
+     * Check whether any part of the circle centered at (cx, cy) with radius r
+     * is in the viewport.
+     */
+    public boolean visible(double cx, double cy, double r) {
+        return Math.abs(cx - x) < width / 2 + r && Math.abs(cy - y) < height / 2 + r;
+    }
+
+    /**
+     * Check whether any part of the ball might be in the viewport.
+     */
+    public boolean visible(Ball b) {
+        return visible(b.getX(), b.getY(), b.getRadius());
+    }
+
+    /**
+     * Check whether any part of the star might be in the viewport.
+     */
+    public boolean visible(Star s) {
+        return visible(s.getX(), s.getY(), s.getOuterRadius());
+    }
+
+    /**
+     * Draw the ball if it might be in the viewport.
+     */
+    public void draw(Ball b) {
+        if (visible(b)) {
+            b.draw();
+            drawn++;
+        } else {
+            culled++;
+        }
+    }
+
+    /**
+     * Draw the star if it might be in the viewport.
+     */
+    public void draw(Star s) {
+        if (visible(s)) {
+            s.draw();
+            drawn++;
+        } else {
+            culled++;
+        }
+    }
+
+    /**
+     * Add the ball to the render queue, in the given layer, if it might be
+     * in the viewport.
+     */
+    public void draw(Ball b, RenderQueue queue, int layer) {
+        if (visible(b)) {
+            queue.add(b, layer);
+            drawn++;
+        } else {
+            culled++;
+        }
+    }
+
+    /**
+     * Add the star to the render queue, in the given layer, if it might be
+     * in the viewport.
+     */
+    public void draw(Star s, RenderQueue queue, int layer) {
+        if (visible(s)) {
+            queue.add(s, layer);
+            drawn++;
+        } else {
+            culled++;
+        }
+    }
+
+    /**
+     * Return the number of sprites drawn so far.
+     */
+    public long drawn() {
+        return drawn;
+    }
+
+    /**
+     * Return the number of sprites culled so far.
+     */
+    public long culled() {
+        return culled;
+    }
+
+    /**
+     * A main() function for testing purposes. Sweeps the camera across a
+     * world 100 times the size of the screen, full of food, and reports how
+     * much of it was culled.
+     */
+    public static void main(String args[]) {
+        WorldBounds world = new WorldBounds(0.0, 0.0, 10.0, 10.0);
+        Ball[] food = new Ball[args.length > 0 ? Integer.parseInt(args[0]) : 20000];
+        for (int i = 0; i < food.length; i++)
+            food[i] = Agar.respawn(new Ball(), world);
+
+        Camera camera = new Camera(world, 1.0, 1.0);
+        RenderQueue queue = new RenderQueue();
+        for (int frame = 0; frame < 500; frame++) {
+            camera.moveTo(5.0 + 4.0 * Math.cos(frame * 0.01), 5.0 + 4.0 * Math.sin(frame * 0.013));
+            camera.apply();
+            StdDraw.clear(StdDraw.WHITE);
+            for (int i = 0; i < food.length; i++)
+                camera.draw(food[i], queue, 0);
+            queue.flush();
+            StdDraw.show();
+        }
+        StdOut.println(camera);
+        StdOut.printf("%.1f%% of the sprites were culled\n",
+                100.0 * camera.culled() / (camera.culled() + camera.drawn()));
+    }
+}
@@ -0,0 +1,451 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  Redraws only the parts of the canvas that changed since the last
+ *  frame, instead of clearing the whole canvas and drawing every
+ *  sprite again.
+ *
+ *  Example: java Bounce
+ *----------------------------------------------------------------*/
+
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * A DirtyRenderer is used instead of clearing the canvas and calling draw()
+ * on each sprite. Every frame, add every sprite that should be on screen, in
+ * layers like a RenderQueue, then call flush():
+ *
+ *    DirtyRenderer renderer = new DirtyRenderer(StdDraw.WHITE);
+ *    while (true) {
+ *        ...move things...
+ *        renderer.add(stillStar, 0);
+ *        renderer.add(movingStar, 1);
+ *        renderer.flush();
+ *        StdDraw.show(20);
+ *    }
+ *
+ * The renderer remembers the bounding box, color and angle each sprite had
+ * in the last frame. Sprites that moved, changed size, color or angle (a star
+ * spinning in place), appeared or disappeared make their old and new boxes
+ * "dirty". Only the dirty boxes are painted over with the background color,
+ * and then only the sprites touching them are drawn again. Drawing a sprite
+ * again can cover part of a sprite that wasn't going to be redrawn, so its box
+ * becomes dirty too, and so on until nothing more needs redrawing.
+ *
+ * When the dirty boxes, including those of sprites drawn again because they
+ * touched one, cover more than a set fraction of the canvas (see
+ * setThreshold()), it is quicker to just clear everything and draw every
+ * sprite, so that is what happens. Where boxes overlap, the area is only
+ * counted once. The first frame is always drawn in full.
+ *
+ * Nothing else should draw on the canvas between frames, since the renderer
+ * assumes the canvas still shows exactly what it drew last time. Sprites are
+ * remembered by identity, so the same Ball or Star object should be added each
+ * frame.
+ *
+ * A star can also be added at a place and angle other than its own, e.g. in
+ * between two ticks of the animation, without changing the star itself.
+ */
+public class DirtyRenderer {
+
+    // Extra space around each bounding box, for the smoothed edges of shapes.
+    // About 2 pixels on StdDraw's standard 512 pixel canvas.
+    private static final double MARGIN = 2.0 / 512;
+
+    // Color of the empty canvas.
+    private final Color background;
+
+    // Fraction of the canvas that can be dirty before it is cheaper to
+    // redraw everything.
+    private double threshold;
+
+    // Used to draw the sprites that need redrawing.
+    private final RenderQueue queue;
+
+    // The sprites added this frame, with their layers, colors, bounding
+    // boxes (xmin, ymin, xmax, ymax for each, one after another), centers
+    // (x and y for each) and turns (cos and sin of the angle for each; a
+    // ball's is always 0 degrees), and the number of each sprite in this
+    // frame.
+    private int count;
+    private Object[] sprites;
+    private int[] layers;
+    private Color[] colors;
+    private double[] boxes;
+    private double[] centers;
+    private double[] turns;
+    private IdentityHashMap<Object, Integer> index;
+
+    // The same for the last frame.
+    private int lastCount;
+    private Object[] lastSprites;
+    private Color[] lastColors;
+    private double[] lastBoxes;
+    private double[] lastTurns;
+    private IdentityHashMap<Object, Integer> lastIndex;
+
+    // Whether the next frame must be drawn in full.
+    private boolean invalid;
+
+    // Scratch space: which sprites are being redrawn this frame and which of
+    // the last frame's sprites are still here, and the dirty boxes.
+    private boolean[] redraw, present;
+    private double[] dirty;
+    private int dirtyCount;
+
+    // Scratch space for unionArea(): the left and right edges of the dirty
+    // boxes.
+    private double[] edges = new double[32];
+
+    // Statistics about the last frame, and overall.
+    private int lastRedrawn;
+    private double lastDirtyArea;
+    private long frames, fullRedraws;
+
+    /**
+     * Initializes a renderer for a canvas with the given background color.
+     * Up to half of the canvas can be redrawn before it switches to a full
+     * redraw.
+     */
+    public DirtyRenderer(Color background) {
+        this.background = background;
+        this.threshold = 0.5;
+        this.queue = new RenderQueue();
+        this.sprites = new Object[16];
+        this.layers = new int[16];
+        this.colors = new Color[16];
+        this.boxes = new double[4 * 16];
+        this.centers = new double[2 * 16];
+        this.turns = new double[2 * 16];
+        this.index = new IdentityHashMap<Object, Integer>();
+        this.lastSprites = new Object[16];
+        this.lastColors = new Color[16];
+        this.lastBoxes = new double[4 * 16];
+        this.lastTurns = new double[2 * 16];
+        this.lastIndex = new IdentityHashMap<Object, Integer>();
+        this.redraw = new boolean[16];
+        this.present = new boolean[16];
+        this.dirty = new double[4 * 16];
+        this.invalid = true;
+    }
+
+    /**
+     * Return a string representation of this renderer. Possibly useful for
+     * debugging.
+     */
+    public String toString() {
+        return "DirtyRenderer(" + frames + " frames, " + fullRedraws + " full; last frame redrew "
+            + lastRedrawn + " sprites, " + String.format("%.1f", 100 * lastDirtyArea)
+            + "% of the canvas)";
+    }
+
+    /**
+     * Set the fraction of the canvas (between 0.0 and 1.0) that can need
+     * redrawing before the renderer gives up and redraws everything.
+     */
+    public void setThreshold(double fraction) {
+        threshold = fraction;
+    }
+
+    /**
+     * Make the next flush() redraw everything, e.g. after something else has
+     * drawn on the canvas.
+     */
+    public void invalidate() {
+        invalid = true;
+    }
+
+    /**
+     * Return the number of sprites drawn by the last flush().
+     */
+    public int lastRedrawn() {
+        return lastRedrawn;
+    }
+
+    /**
+     * Return the fraction of the canvas that was dirty in the last flush(),
+     * or 1.0 if it was redrawn in full.
+     */
+    public double lastDirtyArea() {
+        return lastDirtyArea;
+    }
+
+    /**
+     * Return the number of frames that were redrawn in full.
+     */
+    public long fullRedraws() {
+        return fullRedraws;
+    }
+
+    /**
+     * Add a ball to this frame, in the given layer (see RenderQueue).
+     */
+    public void add(Ball ball, int layer) {
+        double r = ball.getRadius();
+        add(ball, layer, ball.getColor(), ball.getX(), ball.getY(), r, 1.0, 0.0);
+    }
+
+    /**
+     * Add a star to this frame, in the given layer (see RenderQueue).
+     */
+    public void add(Star star, int layer) {
+        add(star, layer, star.getColor(), star.getX(), star.getY(), star.getOuterRadius(),
+                star.getTurnCos(), star.getTurnSin());
+    }
+
+    /**
+     * Add a star to this frame, in the given layer, but centered at (x, y)
+     * and turned counterclockwise by the angle with the given cosine and sine
+     * instead of where and how it really is. The star itself is not changed.
+     */
+    public void add(Star star, int layer, double x, double y, double cos, double sin) {
+        add(star, layer, star.getColor(), x, y, star.getOuterRadius(), cos, sin);
+    }
+
+    /**
+     * Record a sprite whose bounding box is the square around (x, y) with the
+     * given half-width, turned by the angle with the given cos and sin.
+     */
+    private void add(Object sprite, int layer, Color color, double x, double y, double half,
+            double cos, double sin) {
+        if (count == sprites.length) {
+            int size = 2 * count;
+            sprites = Arrays.copyOf(sprites, size);
+            layers = Arrays.copyOf(layers, size);
+            colors = Arrays.copyOf(colors, size);
+            boxes = Arrays.copyOf(boxes, 4 * size);
+            centers = Arrays.copyOf(centers, 2 * size);
+            turns = Arrays.copyOf(turns, 2 * size);
+        }
+        int i = count++;
+        sprites[i] = sprite;
+        layers[i] = layer;
+        colors[i] = color;
+        half += MARGIN;
+        boxes[4*i] = x - half;
+        boxes[4*i + 1] = y - half;
+        boxes[4*i + 2] = x + half;
+        boxes[4*i + 3] = y + half;
+        centers[2*i] = x;
+        centers[2*i + 1] = y;
+        turns[2*i] = cos;
+        turns[2*i + 1] = sin;
+        index.put(sprite, i);
+    }
+
+    /**
+     * Bring the canvas up to date with the sprites added since the last
+     * flush(). After calling this function, clients should call one of the
+     * StdDraw.show() functions so that the updated canvas appears on the
+     * screen.
+     */
+    public void flush() {
+        if (redraw.length < count)
+            redraw = new boolean[sprites.length];
+        if (present.length < lastCount)
+            present = new boolean[lastSprites.length];
+        Arrays.fill(redraw, 0, count, false);
+        Arrays.fill(present, 0, lastCount, false);
+        dirtyCount = 0;
+
+        // Find the sprites that changed, and mark their old and new boxes.
+        for (int i = 0; i < count; i++) {
+            Integer was = lastIndex.get(sprites[i]);
+            if (was == null) {
+                markDirty(boxes, i);
+                redraw[i] = true;
+                continue;
+            }
+            int j = was;
+            present[j] = true;
+            if (colors[i] != lastColors[j] || !sameBox(i, j) || !sameTurn(i, j)) {
+                markDirty(lastBoxes, j);
+                markDirty(boxes, i);
+                redraw[i] = true;
+            }
+        }
+        for (int j = 0; j < lastCount; j++) {
+            if (!present[j])
+                markDirty(lastBoxes, j);
+        }
+
+        // Anything touching a dirty box gets covered up when the box is
+        // cleared, so must be redrawn, which makes its box dirty too. The
+        // area is checked again once nothing more needs redrawing, since
+        // that can make it much bigger.
+        double area = invalid ? 1.0 : unionArea();
+        if (area <= threshold) {
+            boolean grew = true;
+            while (grew) {
+                grew = false;
+                for (int i = 0; i < count; i++) {
+                    if (!redraw[i] && touchesDirty(i)) {
+                        redraw[i] = true;
+                        markDirty(boxes, i);
+                        grew = true;
+                    }
+                }
+            }
+            area = unionArea();
+        }
+
+        if (invalid || area > threshold) {
+            StdDraw.clear(background);
+            Arrays.fill(redraw, 0, count, true);
+            lastDirtyArea = 1.0;
+            fullRedraws++;
+            invalid = false;
+        } else {
+            StdDraw.setPenColor(background);
+            for (int k = 0; k < dirtyCount; k++) {
+                double x0 = dirty[4*k], y0 = dirty[4*k + 1];
+                double x1 = dirty[4*k + 2], y1 = dirty[4*k + 3];
+                StdDraw.filledRectangle((x0 + x1) / 2, (y0 + y1) / 2, (x1 - x0) / 2, (y1 - y0) / 2);
+            }
+            lastDirtyArea = area;
+        }
+
+        lastRedrawn = 0;
+        for (int i = 0; i < count; i++) {
+            if (redraw[i]) {
+                double x = centers[2*i], y = centers[2*i + 1];
+                if (sprites[i] instanceof Ball) {
+                    Ball ball = (Ball)sprites[i];
+                    queue.circle(x, y, ball.getRadius(), colors[i], layers[i]);
+                } else {
+                    Star star = (Star)sprites[i];
+                    queue.star(x, y, star.getRadius(), turns[2*i], turns[2*i + 1],
+                            StarShape.of(star.getPoints()), colors[i], layers[i]);
+                }
+                lastRedrawn++;
+            }
+        }
+        queue.flush();
+        frames++;
+
+        // This frame becomes the last frame.
+        Object[] s = lastSprites; lastSprites = sprites; sprites = s;
+        Color[] c = lastColors; lastColors = colors; colors = c;
+        double[] b = lastBoxes; lastBoxes = boxes; boxes = b;
+        double[] t = lastTurns; lastTurns = turns; turns = t;
+        IdentityHashMap<Object, Integer> m = lastIndex; lastIndex = index; index = m;
+        if (layers.length < sprites.length) {
+            layers = Arrays.copyOf(layers, sprites.length);
+            centers = Arrays.copyOf(centers, 2 * sprites.length);
+        }
+        lastCount = count;
+        count = 0;
+        Arrays.fill(sprites, null);
+        index.clear();
+    }
+
+    /**
+     * Check whether sprite i has exactly the same box as sprite j did in the
+     * last frame.
+     */
+    private boolean sameBox(int i, int j) {
+        return boxes[4*i] == lastBoxes[4*j] && boxes[4*i + 1] == lastBoxes[4*j + 1]
+            && boxes[4*i + 2] == lastBoxes[4*j + 2] && boxes[4*i + 3] == lastBoxes[4*j + 3];
+    }
+
+    /**
+     * Check whether sprite i is turned exactly as sprite j was in the last
+     * frame.
+     */
+    private boolean sameTurn(int i, int j) {
+        return turns[2*i] == lastTurns[2*j] && turns[2*i + 1] == lastTurns[2*j + 1];
+    }
+
+    /**
+     * Add box i of the given array to the list of dirty boxes.
+     */
+    private void markDirty(double[] from, int i) {
+        if (4 * dirtyCount == dirty.length)
+            dirty = Arrays.copyOf(dirty, 2 * dirty.length);
+        System.arraycopy(from, 4*i, dirty, 4*dirtyCount, 4);
+        dirtyCount++;
+    }
+
+    /**
+     * Check whether sprite i's box overlaps any dirty box.
+     */
+    private boolean touchesDirty(int i) {
+        double x0 = boxes[4*i], y0 = boxes[4*i + 1];
+        double x1 = boxes[4*i + 2], y1 = boxes[4*i + 3];
+        for (int k = 0; k < dirtyCount; k++) {
+            if (x0 < dirty[4*k + 2] && dirty[4*k] < x1 && y0 < dirty[4*k + 3] && dirty[4*k + 1] < y1)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Return the fraction of the canvas covered by the dirty boxes, counting
+     * places where they overlap only once. The canvas is cut into vertical
+     * strips at the left and right edges of the boxes; in each strip, the
+     * boxes crossing it are merged from the bottom up, so this takes time
+     * proportional to the square of the number of boxes.
+     */
+    private double unionArea() {
+        sortDirty();
+        if (edges.length < 2 * dirtyCount)
+            edges = new double[4 * dirtyCount];
+        int n = 0;
+        for (int k = 0; k < dirtyCount; k++) {
+            edges[n++] = Math.max(0.0, Math.min(1.0, dirty[4*k]));
+            edges[n++] = Math.max(0.0, Math.min(1.0, dirty[4*k + 2]));
+        }
+        Arrays.sort(edges, 0, n);
+
+        double area = 0.0;
+        for (int e = 0; e + 1 < n; e++) {
+            double left = edges[e], right = edges[e + 1];
+            if (right <= left)
+                continue;
+            double covered = 0.0, lo = 0.0, hi = 0.0;
+            boolean open = false;
+            for (int k = 0; k < dirtyCount; k++) {
+                if (dirty[4*k] > left || dirty[4*k + 2] < right)
+                    continue;
+                double y0 = Math.max(0.0, dirty[4*k + 1]), y1 = Math.min(1.0, dirty[4*k + 3]);
+                if (y1 <= y0)
+                    continue;
+                if (open && y0 <= hi) {
+                    hi = Math.max(hi, y1);
+                } else {
+                    if (open)
+                        covered += hi - lo;
+                    lo = y0;
+                    hi = y1;
+                    open = true;
+                }
+            }
+            if (open)
+                covered += hi - lo;
+            area += covered * (right - left);
+        }
+        return area;
+    }
+
+    /**
+     * Sort the dirty boxes by their bottom edges. They are usually nearly in
+     * order already, from the last call, so this is an insertion sort.
+     */
+    private void sortDirty() {
+        for (int k = 1; k < dirtyCount; k++) {
+            double x0 = dirty[4*k], y0 = dirty[4*k + 1];
+            double x1 = dirty[4*k + 2], y1 = dirty[4*k + 3];
+            int j = k;
+            while (j > 0 && dirty[4*(j - 1) + 1] > y0) {
+                System.arraycopy(dirty, 4*(j - 1), dirty, 4*j, 4);
+                j--;
+            }
+            dirty[4*j] = x0;
+            dirty[4*j + 1] = y0;
+            dirty[4*j + 2] = x1;
+            dirty[4*j + 3] = y1;
+        }
+    }
+}
@@ -0,0 +1,488 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  Carries game events (something was eaten, poisoned, spawned or
+ *  bounced) from the game loop to whatever wants to hear about
+ *  them, such as a console log, a file or some statistics. The
+ *  game loop only stores each event in memory; a background thread
+ *  does the slow part, like printing, a batch at a time.
+ *
+ *  Example: java EventBus
+ *----------------------------------------------------------------*/
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An EventBus passes game events from any number of game threads to a set
+ * of listeners, all called from one background thread:
+ *
+ *    EventBus bus = new EventBus(1024);
+ *    bus.subscribe(new EventBus.ConsoleLog(System.out));
+ *    bus.start();
+ *    ...
+ *    bus.publish(EventBus.EAT, player);   // in the game loop
+ *    ...
+ *    bus.close();                         // deliver the rest, and stop
+ *
+ * Events wait in a ring buffer of fixed size. publish() never waits and
+ * never creates any objects: it claims the next free slot, copies the event
+ * into it, and returns. If the buffer is full because the listeners can't
+ * keep up, the event is thrown away and counted (see dropped()), rather than
+ * slowing the game down.
+ *
+ * The background thread checks for new events about once a millisecond and
+ * hands everything waiting to the listeners in one batch, calling
+ * endBatch() on each listener afterwards, so output can be written all at
+ * once.
+ *
+ * An event is its type, the time it happened (System.nanoTime()), and the
+ * position and size of the blob it happened to.
+ *
+ * A listener that throws an exception, e.g. a FileLog whose disk is full, is
+ * reported on System.err and gets no more events, but the other listeners
+ * carry on as before.
+ */
+public class EventBus {
+
+    // Types of event.
+    public static final int EAT = 0;      // the blob ate some food
+    public static final int POISON = 1;   // the blob hit some poison
+    public static final int SPAWN = 2;    // the blob was (re)created
+    public static final int BOUNCE = 3;   // the blob bounced off an edge
+    private static final String[] TYPES = { "eat", "poison", "spawn", "bounce" };
+
+    // How long the background thread sleeps when there is nothing to do, in
+    // nanoseconds.
+    private static final long IDLE = 1000000;
+
+    /**
+     * Something that wants to hear about game events. Listeners are only ever
+     * called from the bus's background thread, one at a time.
+     */
+    public interface Listener {
+
+        /**
+         * Handle one event.
+         */
+        void event(int type, long time, double x, double y, double size);
+
+        /**
+         * Called after each batch of events, e.g. to write out what was
+         * collected.
+         */
+        default void endBatch() {
+        }
+
+        /**
+         * Called once when the bus is closed, after the last batch.
+         */
+        default void close() {
+        }
+    }
+
+    // The ring buffer. Slot i holds the event published with sequence
+    // number s, where s & mask == i, once sequence[i] == s + 1; after it
+    // has been delivered, sequence[i] becomes s + capacity, marking it free
+    // for the event that will go there next.
+    private final int mask;
+    private final AtomicLongArray sequence;
+    private final int[] types;
+    private final long[] times;
+    private final double[] xs, ys, sizes;
+
+    // The next sequence number to give a publisher, and the next one to
+    // deliver.
+    private final AtomicLong claimed = new AtomicLong();
+    private long delivered;
+
+    // Number of events published and thrown away.
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    // Who to deliver to, which of them have thrown an exception and get
+    // nothing more, and the thread delivering.
+    private final List<Listener> listeners = new ArrayList<Listener>();
+    private boolean[] failed;
+    private volatile int failures;
+    private Thread thread;
+    private volatile boolean closing;
+
+    /**
+     * Initializes a bus that can hold the given number of undelivered events,
+     * rounded up to a power of two.
+     */
+    public EventBus(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity)
+            size *= 2;
+        mask = size - 1;
+        sequence = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++)
+            sequence.set(i, i);
+        types = new int[size];
+        times = new long[size];
+        xs = new double[size];
+        ys = new double[size];
+        sizes = new double[size];
+    }
+
+    /**
+     * Return a string representation of this bus, with its statistics.
+     */
+    public String toString() {
+        return "EventBus(" + (mask + 1) + " slots, " + published + " published, "
+            + dropped + " dropped, " + listeners.size() + " listeners, " + failures + " failed)";
+    }
+
+    /**
+     * Return the name of the given type of event.
+     */
+    public static String typeName(int type) {
+        return TYPES[type];
+    }
+
+    /**
+     * Add a listener. Must be called before start().
+     */
+    public void subscribe(Listener listener) {
+        if (thread != null)
+            throw new IllegalStateException("subscribe() called after start()");
+        listeners.add(listener);
+    }
+
+    /**
+     * Start delivering events on a background thread, which doesn't stop the
+     * program from ending.
+     */
+    public void start() {
+        if (thread != null)
+            throw new IllegalStateException("already started");
+        failed = new boolean[listeners.size()];
+        thread = new Thread(this::run, "EventBus");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Publish an event about the given ball. Returns false if the event was
+     * thrown away because the buffer was full.
+     */
+    public boolean publish(int type, Ball b) {
+        return publish(type, b.getX(), b.getY(), b.size());
+    }
+
+    /**
+     * Publish an event about a blob of the given size at (x, y). Returns
+     * false if the event was thrown away because the buffer was full. Safe to
+     * call from any number of threads at once; never waits.
+     */
+    public boolean publish(int type, double x, double y, double size) {
+        if (type < 0 || type >= TYPES.length)
+            throw new IllegalArgumentException("unknown event type: " + type);
+        long s = claimed.get();
+        while (true) {
+            int i = (int)s & mask;
+            long ready = sequence.get(i);
+            if (ready == s) {
+                if (claimed.compareAndSet(s, s + 1)) {
+                    types[i] = type;
+                    times[i] = System.nanoTime();
+                    xs[i] = x;
+                    ys[i] = y;
+                    sizes[i] = size;
+                    sequence.lazySet(i, s + 1);
+                    published.incrementAndGet();
+                    return true;
+                }
+                s = claimed.get();   // another thread got this slot first
+            } else if (ready < s) {
+                dropped.incrementAndGet();   // the slot hasn't been delivered yet
+                return false;
+            } else {
+                s = claimed.get();   // another thread got this slot first
+            }
+        }
+    }
+
+    /**
+     * Return the number of events published so far.
+     */
+    public long published() {
+        return published.get();
+    }
+
+    /**
+     * Return the number of events thrown away because the buffer was full.
+     */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Return the number of listeners that threw an exception and were
+     * dropped.
+     */
+    public int failures() {
+        return failures;
+    }
+
+    /**
+     * Deliver every event published so far, then stop the background thread
+     * and close the listeners. Events published afterwards are never
+     * delivered.
+     */
+    public void close() {
+        if (thread == null)
+            return;
+        closing = true;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Deliver the rest of the events and close the listeners when the
+     * program ends.
+     */
+    public void closeAtExit() {
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close));
+    }
+
+    /**
+     * The background thread: deliver batches of events until closed.
+     */
+    private void run() {
+        while (!closing) {
+            if (deliver() == 0)
+                LockSupport.parkNanos(IDLE);
+        }
+        deliver();
+        for (int k = 0; k < listeners.size(); k++) {
+            try {
+                listeners.get(k).close();
+            } catch (RuntimeException e) {
+                fail(k, e);
+            }
+        }
+    }
+
+    /**
+     * Deliver every event that is ready, as one batch. Returns the number
+     * delivered.
+     */
+    private int deliver() {
+        int n = 0;
+        while (true) {
+            int i = (int)delivered & mask;
+            if (sequence.get(i) != delivered + 1)
+                break;
+            for (int k = 0; k < listeners.size(); k++) {
+                if (failed[k])
+                    continue;
+                try {
+                    listeners.get(k).event(types[i], times[i], xs[i], ys[i], sizes[i]);
+                } catch (RuntimeException e) {
+                    fail(k, e);
+                }
+            }
+            sequence.lazySet(i, delivered + mask + 1);
+            delivered++;
+            n++;
+        }
+        if (n > 0) {
+            for (int k = 0; k < listeners.size(); k++) {
+                if (failed[k])
+                    continue;
+                try {
+                    listeners.get(k).endBatch();
+                } catch (RuntimeException e) {
+                    fail(k, e);
+                }
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Report that listener k threw the given exception, and stop sending it
+     * events.
+     */
+    private void fail(int k, RuntimeException e) {
+        if (!failed[k]) {
+            failed[k] = true;
+            failures++;
+        }
+        System.err.println("EventBus: " + listeners.get(k).getClass().getName()
+            + " failed and gets no more events: " + e);
+    }
+
+    /**
+     * Prints the messages the player sees when eating food and hitting
+     * poison, a batch at a time.
+     */
+    public static class ConsoleLog implements Listener {
+
+        // Where to print, and the messages waiting to be printed.
+        private final PrintStream out;
+        private final StringBuilder text = new StringBuilder();
+
+        public ConsoleLog(PrintStream out) {
+            this.out = out;
+        }
+
+        public void event(int type, long time, double x, double y, double size) {
+            if (type == EAT)
+                text.append(String.format("Yum! Now I am %.5f big!\n", size));
+            else if (type == POISON)
+                text.append(String.format("Ack! I shrank to %.5f small!\n", size));
+        }
+
+        public void endBatch() {
+            if (text.length() > 0) {
+                out.print(text);
+                out.flush();
+                text.setLength(0);
+            }
+        }
+    }
+
+    /**
+     * Counts the events of each type, and keeps track of the biggest blob
+     * seen.
+     */
+    public static class Stats implements Listener {
+
+        // Number of events of each type, and the largest size seen. Only
+        // written by the bus's thread, but read by anyone.
+        private final AtomicLongArray counts = new AtomicLongArray(TYPES.length);
+        private volatile double biggest;
+
+        public void event(int type, long time, double x, double y, double size) {
+            counts.incrementAndGet(type);
+            if (size > biggest)
+                biggest = size;
+        }
+
+        /**
+         * Return the number of events of the given type so far.
+         */
+        public long count(int type) {
+            return counts.get(type);
+        }
+
+        /**
+         * Return the size of the biggest blob any event was about.
+         */
+        public double biggest() {
+            return biggest;
+        }
+
+        public String toString() {
+            StringBuilder s = new StringBuilder("Stats(");
+            for (int t = 0; t < TYPES.length; t++)
+                s.append(TYPES[t]).append(' ').append(counts.get(t)).append(", ");
+            return s.append("biggest ").append(biggest).append(')').toString();
+        }
+    }
+
+    /**
+     * Writes every event to a text file, one per line: time in milliseconds
+     * since the first event, type, x, y and size.
+     */
+    public static class FileLog implements Listener {
+
+        private final BufferedWriter out;
+        private final StringBuilder line = new StringBuilder();
+        private long start = -1;
+
+        /**
+         * Start a new log in the named file, replacing it if it exists.
+         */
+        public FileLog(String name) throws IOException {
+            out = new BufferedWriter(new FileWriter(name));
+        }
+
+        public void event(int type, long time, double x, double y, double size) {
+            if (start < 0)
+                start = time;
+            line.setLength(0);
+            line.append((time - start) / 1000000.0).append(' ').append(TYPES[type]).append(' ')
+                .append(x).append(' ').append(y).append(' ').append(size).append('\n');
+            try {
+                out.append(line);
+            } catch (IOException e) {
+                throw new RuntimeException("can't write event log", e);
+            }
+        }
+
+        public void endBatch() {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                throw new RuntimeException("can't write event log", e);
+            }
+        }
+
+        public void close() {
+            try {
+                out.close();
+            } catch (IOException e) {
+                throw new RuntimeException("can't close event log", e);
+            }
+        }
+    }
+
+    /**
+     * A main() function for testing purposes. Publishes a million events from
+     * four threads at once into a small buffer, and checks that every event
+     * was either delivered or counted as dropped, even though one of the
+     * listeners fails part way through.
+     */
+    public static void main(String args[]) throws InterruptedException {
+        EventBus bus = new EventBus(1024);
+        Stats stats = new Stats();
+        bus.subscribe(stats);
+        bus.subscribe(new Listener() {
+            private int seen;
+
+            public void event(int type, long time, double x, double y, double size) {
+                if (++seen == 1000)
+                    throw new RuntimeException("disk full");
+            }
+        });
+        bus.start();
+
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int type = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 250000; i++)
+                    bus.publish(type, i, i, i);
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads)
+            t.join();
+        bus.close();
+
+        long delivered = 0;
+        for (int t = 0; t < TYPES.length; t++)
+            delivered += stats.count(t);
+        StdOut.println(bus);
+        StdOut.println(stats);
+        StdOut.println("delivered + dropped = " + (delivered + bus.dropped()) + " of 1000000");
+    }
+}
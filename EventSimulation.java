@@ -0,0 +1,281 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  An event-driven simulation of bouncing balls. Instead of moving
+ *  every ball a little bit every 20 milliseconds and then checking
+ *  for overlaps, it predicts exactly when the next wall bounce or
+ *  ball-ball collision will happen and jumps straight to it.
+ *
+ *  Example: java EventSimulation 200
+ *----------------------------------------------------------------*/
+
+import java.util.PriorityQueue;
+
+/**
+ * An EventSimulation animates some balls bouncing off the edges of the canvas
+ * and off each other. For example:
+ *
+ *    EventSimulation sim = new EventSimulation(balls);
+ *    for (int frame = 1; ; frame++) {
+ *        sim.advanceTo(frame * 0.020);   // 20 milliseconds per frame
+ *        StdDraw.clear();
+ *        sim.draw();
+ *        StdDraw.show(20);
+ *    }
+ *
+ * For each ball, the simulation predicts when it will next hit a wall (the
+ * same cases Ball.bounce() handles) and when it will next touch each other
+ * ball, and keeps those predictions in a priority queue ordered by time. It
+ * then repeatedly takes the earliest prediction, moves the balls involved up
+ * to that moment, changes their velocities, and predicts again for just those
+ * balls. When a ball's velocity changes, older predictions involving it are
+ * not removed from the queue; they are recognized as out of date (by a count
+ * of how many times each ball has changed direction) and skipped when they
+ * come up.
+ *
+ * When balls collide, each one changes direction to head straight away from
+ * the other at the same speed, just like Ball.bounce(Ball). Balls that
+ * already overlap when the simulation starts pass through each other.
+ *
+ * Balls not involved in an event are left alone, so each Ball object's
+ * position may lag behind the simulation's clock. advanceTo() brings them all
+ * up to date before returning, so they can be drawn or examined. Balls should
+ * not be moved or resized by other code while the simulation is running.
+ */
+public class EventSimulation {
+
+    // Kinds of event.
+    private static final int WALL_X = 0, WALL_Y = 1, BALLS = 2;
+
+    // Predictions further in the future than this many seconds are not
+    // queued; the ball is re-predicted when this much time has passed.
+    private static final double HORIZON = 2.0;
+
+    // The balls being animated.
+    private Ball[] balls;
+
+    // The time, in seconds, that each Ball object's position corresponds to.
+    private double[] when;
+
+    // Number of times each ball has changed velocity. Predictions made before
+    // the latest change are out of date.
+    private int[] changes;
+
+    // Upcoming events, earliest first.
+    private PriorityQueue<Event> queue;
+
+    // Current simulation time, in seconds.
+    private double time;
+
+    // Number of events handled so far (not counting out of date ones).
+    private long events;
+
+    /**
+     * Initializes a simulation of the given balls, starting at time zero. The
+     * balls will bounce off the edges of the canvas and off each other.
+     */
+    public EventSimulation(Ball[] balls) {
+        this.balls = balls.clone();
+        this.when = new double[balls.length];
+        this.changes = new int[balls.length];
+        this.queue = new PriorityQueue<Event>();
+        this.time = 0.0;
+        for (int i = 0; i < balls.length; i++)
+            predict(i, -1);
+    }
+
+    /**
+     * Return a string representation of this simulation. Possibly useful for
+     * debugging.
+     */
+    public String toString() {
+        return "EventSimulation(" + balls.length + " balls) at " + time
+            + " seconds, " + events + " events";
+    }
+
+    /**
+     * Return the current simulation time, in seconds.
+     */
+    public double time() {
+        return time;
+    }
+
+    /**
+     * Return the number of wall bounces and ball collisions handled so far.
+     */
+    public long eventCount() {
+        return events;
+    }
+
+    /**
+     * Run the simulation up to the given time (in seconds), handling every
+     * event before then, and then move every ball to where it is at that time.
+     */
+    public void advanceTo(double t) {
+        while (!queue.isEmpty() && queue.peek().time <= t) {
+            Event e = queue.remove();
+            if (!e.isCurrent(changes))
+                continue;
+            time = e.time;
+            handle(e);
+        }
+        time = Math.max(time, t);
+        for (int i = 0; i < balls.length; i++)
+            sync(i);
+    }
+
+    /**
+     * Draw all of the balls on the StdDraw canvas, at their positions as of
+     * the last call to advanceTo().
+     */
+    public void draw() {
+        for (int i = 0; i < balls.length; i++)
+            balls[i].draw();
+    }
+
+    /**
+     * Handle an event that is due now: bounce off a wall, bounce two balls
+     * off each other, or just re-predict a ball whose predictions ran out.
+     */
+    private void handle(Event e) {
+        int a = e.a, b = e.b;
+        sync(a);
+        Ball ba = balls[a];
+        if (e.kind == WALL_X) {
+            ba.setVelocity(-ba.getXVelocity(), ba.getYVelocity());
+            events++;
+        } else if (e.kind == WALL_Y) {
+            ba.setVelocity(ba.getXVelocity(), -ba.getYVelocity());
+            events++;
+        } else if (b >= 0) {
+            sync(b);
+            Ball bb = balls[b];
+            double ax = ba.getX(), ay = ba.getY();
+            ba.aimAwayFrom(bb.getX(), bb.getY(), ba.speed());
+            bb.aimAwayFrom(ax, ay, bb.speed());
+            changes[b]++;
+            events++;
+        }
+        changes[a]++;
+        predict(a, b);
+        if (b >= 0)
+            predict(b, a);
+    }
+
+    /**
+     * Move ball i to where it is at the current simulation time.
+     */
+    private void sync(int i) {
+        double dt = time - when[i];
+        if (dt != 0.0) {
+            Ball b = balls[i];
+            b.setPosition(b.getX() + b.getXVelocity() * dt, b.getY() + b.getYVelocity() * dt);
+            when[i] = time;
+        }
+    }
+
+    /**
+     * Queue up the next events for ball i: its next wall bounce, and its next
+     * collision with every other ball (except the one numbered skip, which it
+     * has just bounced off). If it won't reach a wall within the horizon,
+     * queue a reminder to predict again then. A collision prediction can be
+     * made out of date by the other ball changing direction, so every ball
+     * always needs one event of its own (a wall or a reminder) to make sure
+     * it is looked at again.
+     */
+    private void predict(int i, int skip) {
+        sync(i);
+        Ball b = balls[i];
+        double limit = time + HORIZON;
+        boolean wall = false;
+
+        double dt = Swept.wallTime(b.getX(), b.getXVelocity(), b.getRadius());
+        if (time + dt <= limit) {
+            queue.add(new Event(time + dt, WALL_X, i, -1, changes));
+            wall = true;
+        }
+        dt = Swept.wallTime(b.getY(), b.getYVelocity(), b.getRadius());
+        if (time + dt <= limit) {
+            queue.add(new Event(time + dt, WALL_Y, i, -1, changes));
+            wall = true;
+        }
+
+        for (int j = 0; j < balls.length; j++) {
+            if (j == i || j == skip)
+                continue;
+            sync(j);
+            dt = contactTime(b, balls[j]);
+            if (time + dt <= limit)
+                queue.add(new Event(time + dt, BALLS, i, j, changes));
+        }
+        if (!wall)
+            queue.add(new Event(limit, BALLS, i, -1, changes));
+    }
+
+    /**
+     * Return how many seconds until balls a and b, moving at their current
+     * velocities, first touch, or infinity if they never will. Balls that
+     * already overlap are treated as never touching: bouncing them could send
+     * one back and forth between two others forever without time moving on,
+     * so they are left to drift apart instead.
+     */
+    static double contactTime(Ball a, Ball b) {
+        double dx = b.getX() - a.getX();
+        double dy = b.getY() - a.getY();
+        double sigma = a.getRadius() + b.getRadius();
+        if (dx*dx + dy*dy < sigma*sigma)
+            return Double.POSITIVE_INFINITY;
+        return Swept.touchTime(a, b);
+    }
+
+    /**
+     * A predicted event: ball a hits a wall, or balls a and b collide, at the
+     * given time. It also remembers how many times a and b had changed
+     * velocity when it was predicted, to tell whether it is still current.
+     */
+    private static class Event implements Comparable<Event> {
+        final double time;
+        final int kind, a, b;
+        final int changesA, changesB;
+
+        Event(double time, int kind, int a, int b, int[] changes) {
+            this.time = time;
+            this.kind = kind;
+            this.a = a;
+            this.b = b;
+            this.changesA = changes[a];
+            this.changesB = b >= 0 ? changes[b] : 0;
+        }
+
+        boolean isCurrent(int[] changes) {
+            return changes[a] == changesA && (b < 0 || changes[b] == changesB);
+        }
+
+        public int compareTo(Event other) {
+            return Double.compare(time, other.time);
+        }
+    }
+
+    /**
+     * A main() function for testing purposes. Animates some small balls with
+     * random positions and velocities at 50 frames per second.
+     */
+    public static void main(String args[]) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        Ball[] balls = new Ball[n];
+        for (int i = 0; i < n; i++) {
+            balls[i] = new Ball(StdRandom.uniform(0.1, 0.9), StdRandom.uniform(0.1, 0.9), 0.01);
+            balls[i].setHue(StdRandom.uniform());
+            balls[i].setVelocity(StdRandom.uniform(-0.3, 0.3), StdRandom.uniform(-0.3, 0.3));
+        }
+        EventSimulation sim = new EventSimulation(balls);
+
+        int duration = 1000/50;
+        for (int frame = 1; true; frame++) {
+            sim.advanceTo(frame * duration / 1000.0);
+            StdDraw.clear(StdDraw.WHITE);
+            sim.draw();
+            StdDraw.show(duration);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  Keeps a game running at a steady 50 ticks per second, however
+ *  long drawing takes. StdDraw.show(20) pauses for 20 milliseconds
+ *  after all the work of a frame, so a frame really takes the work
+ *  plus 20 milliseconds, and the game slows down whenever the
+ *  computer is busy. The pacer instead waits until a fixed deadline,
+ *  and runs extra ticks to catch up when it falls behind.
+ *
+ *  Example: java FramePacer
+ *----------------------------------------------------------------*/
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A FramePacer decides how many fixed-length ticks to simulate before each
+ * frame is drawn, and waits for the right moment to start the next frame:
+ *
+ *    FramePacer pacer = new FramePacer(AgarWorld.TICK);
+ *    while (true) {
+ *        int steps = pacer.steps();          // ticks due since last frame
+ *        for (int i = 0; i < steps; i++)
+ *            world.tick(StdDraw.mouseX(), StdDraw.mouseY());
+ *        ...draw, with sprites pacer.alpha() of the way from
+ *           where they were before the last tick to where they are...
+ *        StdDraw.show(0);                    // show without pausing
+ *        pacer.sync();                       // wait for the next frame
+ *    }
+ *
+ * The pacer adds up the real time that has passed (the "accumulator") and
+ * hands it out in whole ticks, so the game always advances by exactly 20
+ * milliseconds per tick and keeps up with the clock on average. What is left
+ * over, less than one tick, is given by alpha() as a fraction of a tick, for
+ * drawing sprites part of the way between the last two ticks. Without that,
+ * the leftover would make motion look uneven.
+ *
+ * If the computer falls far behind (e.g. while the window is dragged), at
+ * most maxSteps ticks are run in one frame and the rest are dropped, so the
+ * game slows down for a moment instead of freezing to catch up.
+ *
+ * A frame that isn't finished by its deadline is counted as an overrun. The
+ * pacer doesn't wait at all after an overrun, and if it is more than a whole
+ * frame late, it starts counting deadlines again from now.
+ */
+public class FramePacer {
+
+    // Length of one tick, and the time between frames, in nanoseconds.
+    private final long step;
+
+    // Most ticks to run in one frame.
+    private final int maxSteps;
+
+    // Time not yet handed out as ticks, when it was last updated, and when
+    // the next frame should start.
+    private long accumulator;
+    private long last;
+    private long deadline;
+
+    // Number of frames and ticks so far, ticks dropped, frames that missed
+    // their deadline, and the latest any frame was, in nanoseconds.
+    private long frames, totalSteps, dropped, overruns, worstOverrun;
+
+    // Whether an overrun happened in the last call to sync().
+    private boolean overran;
+
+    /**
+     * Initializes a pacer for ticks of the given length in milliseconds,
+     * running at most 5 ticks per frame.
+     */
+    public FramePacer(int stepInMilliseconds) {
+        this(stepInMilliseconds, 5);
+    }
+
+    /**
+     * Initializes a pacer for ticks of the given length in milliseconds,
+     * running at most maxSteps ticks per frame.
+     */
+    public FramePacer(int stepInMilliseconds, int maxSteps) {
+        if (stepInMilliseconds <= 0)
+            throw new IllegalArgumentException("tick length must be positive: " + stepInMilliseconds);
+        if (maxSteps < 1)
+            throw new IllegalArgumentException("must allow at least one tick per frame: " + maxSteps);
+        this.step = stepInMilliseconds * 1000000L;
+        this.maxSteps = maxSteps;
+        reset();
+    }
+
+    /**
+     * Return a string representation of this pacer, with its statistics.
+     */
+    public String toString() {
+        return "FramePacer(" + frames + " frames, " + totalSteps + " ticks, " + dropped
+            + " dropped, " + overruns + " overruns, worst " + worstOverrun / 1000000.0 + " ms late)";
+    }
+
+    /**
+     * Start timing from now, as if the game had just started, e.g. after a
+     * pause.
+     */
+    public void reset() {
+        last = System.nanoTime();
+        deadline = last + step;
+        accumulator = 0;
+    }
+
+    /**
+     * Return the number of ticks to simulate before drawing this frame: one
+     * for each tick length of time since they were last handed out, but no
+     * more than maxSteps. Call once per frame.
+     */
+    public int steps() {
+        long now = System.nanoTime();
+        accumulator += now - last;
+        last = now;
+        long n = accumulator / step;
+        if (n > maxSteps) {
+            dropped += n - maxSteps;
+            n = maxSteps;
+        }
+        accumulator = Math.min(accumulator - n * step, step - 1);
+        frames++;
+        totalSteps += n;
+        return (int)n;
+    }
+
+    /**
+     * Return how far, between 0 and 1, the time now is between the last tick
+     * and the next one, for drawing sprites in between.
+     */
+    public double alpha() {
+        return (double)accumulator / step;
+    }
+
+    /**
+     * Wait until it is time to start the next frame. Call once per frame,
+     * after showing it.
+     */
+    public void sync() {
+        long now = System.nanoTime();
+        overran = now > deadline;
+        if (overran) {
+            overruns++;
+            worstOverrun = Math.max(worstOverrun, now - deadline);
+            if (now - deadline > step)
+                deadline = now;   // too far behind to catch up, so start again
+        } else {
+            while (now < deadline) {
+                LockSupport.parkNanos(deadline - now);
+                now = System.nanoTime();
+            }
+        }
+        deadline += step;
+    }
+
+    /**
+     * Return whether the frame before the last call to sync() missed its
+     * deadline.
+     */
+    public boolean overran() {
+        return overran;
+    }
+
+    /**
+     * Return the number of frames so far.
+     */
+    public long frames() {
+        return frames;
+    }
+
+    /**
+     * Return the number of ticks handed out so far.
+     */
+    public long totalSteps() {
+        return totalSteps;
+    }
+
+    /**
+     * Return the number of ticks dropped because the game fell too far
+     * behind.
+     */
+    public long dropped() {
+        return dropped;
+    }
+
+    /**
+     * Return the number of frames that missed their deadline.
+     */
+    public long overruns() {
+        return overruns;
+    }
+
+    /**
+     * A main() function for testing purposes. Runs 3 seconds of frames that
+     * pretend to take a random 5 to 30 milliseconds of work each, and checks
+     * that the game still got its 150 ticks.
+     */
+    public static void main(String args[]) {
+        FramePacer pacer = new FramePacer(20);
+        long start = System.nanoTime();
+        while (System.nanoTime() - start < 3000000000L) {
+            pacer.steps();
+            LockSupport.parkNanos(StdRandom.uniform(5, 30) * 1000000L);
+            pacer.sync();
+        }
+        StdOut.println(pacer);
+        StdOut.printf("%.1f ticks per second\n",
+                pacer.totalSteps() / ((System.nanoTime() - start) / 1e9));
+    }
+}
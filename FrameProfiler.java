@@ -0,0 +1,407 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  Measures how long each part of a frame takes (aiming, moving,
+ *  bouncing, collision checks, eating, drawing and showing the
+ *  canvas), so that a slow frame can be blamed on the right part.
+ *  The timings can be printed from inside the game, and are also
+ *  sent to Java Flight Recorder (JFR) when it is recording.
+ *
+ *  Example: java FrameProfiler
+ *           java -XX:StartFlightRecording=filename=agar.jfr Agar
+ *           (then: jfr print --events agar.Phase agar.jfr)
+ *----------------------------------------------------------------*/
+
+import java.io.PrintStream;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A FrameProfiler times the phases of a game loop and counts things that
+ * happen in each frame:
+ *
+ *    FrameProfiler profiler = new FrameProfiler("Agar");
+ *    profiler.dumpAtExit();
+ *    while (true) {
+ *        long t = profiler.start(FrameProfiler.DRAW);
+ *        ...draw...
+ *        profiler.stop(FrameProfiler.DRAW, t);
+ *        profiler.count(FrameProfiler.DRAWN, sprites);
+ *        ...
+ *        profiler.endFrame();
+ *    }
+ *
+ * For each phase it keeps a histogram of how long the phase took in each
+ * frame, and for each counter a histogram of its total in each frame, so the
+ * report shows the median (p50), 99th percentile (p99) and maximum of both.
+ *
+ * When a JFR recording is running, each phase is also recorded as an
+ * "agar.Phase" event, and each frame as an "agar.Frame" event with the
+ * counters, so slow frames can be lined up with garbage collections and
+ * everything else JFR sees.
+ *
+ * FrameProfiler.OFF is a profiler that does nothing at all, not even reading
+ * the clock, for code that is only sometimes profiled.
+ */
+public class FrameProfiler {
+
+    // The phases of a frame.
+    public static final int INPUT = 0;      // reading the mouse and aiming
+    public static final int MOVE = 1;       // moving blobs and stars
+    public static final int BOUNCE = 2;     // bouncing off the edges
+    public static final int COLLISION = 3;  // finding what is near the player
+    public static final int EAT = 4;        // eating food and hitting poison
+    public static final int DRAW = 5;       // drawing the scene
+    public static final int PRESENT = 6;    // showing the canvas on the screen
+    private static final String[] PHASES = {
+        "input", "move", "bounce", "collision", "eat/poison", "draw", "present"
+    };
+
+    // The counters kept for each frame.
+    public static final int CHECKS = 0;     // possible collisions tested
+    public static final int EATEN = 1;      // food eaten
+    public static final int POISONED = 2;   // poison hit
+    public static final int BOUNCES = 3;    // bounces off the edges
+    public static final int DRAWN = 4;      // sprites drawn
+    public static final int TICKS = 5;      // simulation ticks run
+    public static final int OVERRUNS = 6;   // deadlines missed (see FramePacer)
+    private static final String[] COUNTERS = {
+        "collision checks", "eaten", "poisoned", "bounces", "drawn", "ticks", "overruns"
+    };
+
+    /**
+     * A profiler that ignores everything it is given.
+     */
+    public static final FrameProfiler OFF = new FrameProfiler("off", false);
+
+    /**
+     * The JFR event recorded for each phase of each frame.
+     */
+    @Name("agar.Phase")
+    @Label("Frame Phase")
+    @Category("Agar")
+    @Description("One phase of a frame of the game loop")
+    static class PhaseEvent extends Event {
+        @Label("Game")
+        String game;
+
+        @Label("Phase")
+        String phase;
+
+        @Label("Frame")
+        long frame;
+    }
+
+    /**
+     * The JFR event recorded for each whole frame, with its counters.
+     */
+    @Name("agar.Frame")
+    @Label("Frame")
+    @Category("Agar")
+    @Description("One frame of the game loop")
+    static class FrameEvent extends Event {
+        @Label("Game")
+        String game;
+
+        @Label("Frame")
+        long frame;
+
+        @Label("Collision Checks")
+        long checks;
+
+        @Label("Eaten")
+        long eaten;
+
+        @Label("Poisoned")
+        long poisoned;
+
+        @Label("Bounces")
+        long bounces;
+
+        @Label("Drawn")
+        long drawn;
+
+        @Label("Ticks")
+        long ticks;
+
+        @Label("Overrun")
+        boolean overrun;
+    }
+
+    private static final EventType PHASE_TYPE = EventType.getEventType(PhaseEvent.class);
+    private static final EventType FRAME_TYPE = EventType.getEventType(FrameEvent.class);
+
+    // Name of the game being profiled, used in the report and JFR events.
+    private final String name;
+
+    // Whether this profiler does anything.
+    private final boolean enabled;
+
+    // How long each phase took in each frame, and how long whole frames
+    // took, in nanoseconds.
+    private final LatencyHistogram[] phaseTimes = new LatencyHistogram[PHASES.length];
+    private final LatencyHistogram frameTimes = new LatencyHistogram();
+
+    // Time spent in each phase so far this frame, since a phase can be
+    // started and stopped more than once per frame.
+    private final long[] phaseNanos = new long[PHASES.length];
+
+    // Each counter so far this frame, and its total in each frame.
+    private final long[] counts = new long[COUNTERS.length];
+    private final LatencyHistogram[] countsPerFrame = new LatencyHistogram[COUNTERS.length];
+
+    // When the current frame started, or 0 if no phase has started yet.
+    private long frameStart;
+
+    // Number of frames finished.
+    private long frames;
+
+    // Whether JFR is recording our events, checked once per frame, and the
+    // events in progress.
+    private boolean recordPhases, recordFrames;
+    private final PhaseEvent[] phaseEvents = new PhaseEvent[PHASES.length];
+    private FrameEvent frameEvent;
+
+    /**
+     * Initializes a profiler for the game with the given name.
+     */
+    public FrameProfiler(String name) {
+        this(name, true);
+    }
+
+    private FrameProfiler(String name, boolean enabled) {
+        this.name = name;
+        this.enabled = enabled;
+        for (int i = 0; i < PHASES.length; i++)
+            phaseTimes[i] = new LatencyHistogram();
+        for (int i = 0; i < COUNTERS.length; i++)
+            countsPerFrame[i] = new LatencyHistogram();
+        checkRecording();
+    }
+
+    /**
+     * Return a string representation of this profiler. Possibly useful for
+     * debugging.
+     */
+    public String toString() {
+        return "FrameProfiler(" + name + ", " + frames + " frames)";
+    }
+
+    /**
+     * Return the number of frames finished so far.
+     */
+    public long frames() {
+        return frames;
+    }
+
+    /**
+     * Return the histogram of how long the given phase took in each frame,
+     * in nanoseconds.
+     */
+    public LatencyHistogram phase(int phase) {
+        return phaseTimes[phase];
+    }
+
+    /**
+     * Return the histogram of how long whole frames took, in nanoseconds.
+     */
+    public LatencyHistogram frame() {
+        return frameTimes;
+    }
+
+    /**
+     * Return the histogram of the given counter's total in each frame.
+     */
+    public LatencyHistogram counter(int counter) {
+        return countsPerFrame[counter];
+    }
+
+    /**
+     * Start timing the given phase. Returns the time to pass to stop().
+     */
+    public long start(int phase) {
+        if (!enabled)
+            return 0;
+        if (recordPhases) {
+            PhaseEvent event = new PhaseEvent();
+            event.begin();
+            phaseEvents[phase] = event;
+        }
+        long now = System.nanoTime();
+        if (frameStart == 0) {
+            frameStart = now;
+            if (recordFrames) {
+                frameEvent = new FrameEvent();
+                frameEvent.begin();
+            }
+        }
+        return now;
+    }
+
+    /**
+     * Stop timing the given phase, which was started at the given time.
+     */
+    public void stop(int phase, long startTime) {
+        if (!enabled)
+            return;
+        phaseNanos[phase] += System.nanoTime() - startTime;
+        PhaseEvent event = phaseEvents[phase];
+        if (event != null) {
+            phaseEvents[phase] = null;
+            event.end();
+            if (event.shouldCommit()) {
+                event.game = name;
+                event.phase = PHASES[phase];
+                event.frame = frames;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Add n to the given counter for this frame.
+     */
+    public void count(int counter, long n) {
+        if (enabled)
+            counts[counter] += n;
+    }
+
+    /**
+     * Finish the current frame, adding its timings and counters to the
+     * histograms.
+     */
+    public void endFrame() {
+        if (!enabled)
+            return;
+        long now = System.nanoTime();
+        if (frameStart != 0)
+            frameTimes.record(now - frameStart);
+        frameStart = 0;
+
+        for (int i = 0; i < PHASES.length; i++) {
+            phaseTimes[i].record(phaseNanos[i]);
+            phaseNanos[i] = 0;
+        }
+
+        FrameEvent event = frameEvent;
+        if (event != null) {
+            frameEvent = null;
+            event.end();
+            if (event.shouldCommit()) {
+                event.game = name;
+                event.frame = frames;
+                event.checks = counts[CHECKS];
+                event.eaten = counts[EATEN];
+                event.poisoned = counts[POISONED];
+                event.bounces = counts[BOUNCES];
+                event.drawn = counts[DRAWN];
+                event.ticks = counts[TICKS];
+                event.overrun = counts[OVERRUNS] > 0;
+                event.commit();
+            }
+        }
+        for (int i = 0; i < COUNTERS.length; i++) {
+            countsPerFrame[i].record(counts[i]);
+            counts[i] = 0;
+        }
+
+        frames++;
+        checkRecording();
+    }
+
+    /**
+     * Find out whether JFR is recording our events, so no events are created
+     * when it isn't.
+     */
+    private void checkRecording() {
+        recordPhases = enabled && PHASE_TYPE.isEnabled();
+        recordFrames = enabled && FRAME_TYPE.isEnabled();
+    }
+
+    /**
+     * Forget all the timings and counters so far, e.g. after warming up.
+     */
+    public void reset() {
+        frameTimes.clear();
+        for (int i = 0; i < PHASES.length; i++)
+            phaseTimes[i].clear();
+        for (int i = 0; i < COUNTERS.length; i++)
+            countsPerFrame[i].clear();
+        frames = 0;
+    }
+
+    /**
+     * Print a table of the timings and counters so far. Phases that never
+     * took any time, and counters that were never used, are left out.
+     */
+    public void report(PrintStream out) {
+        out.printf("%s: %d frames\n", name, frames);
+        out.printf("  %-18s %10s %10s %10s %10s\n", "phase (ms)", "mean", "p50", "p99", "max");
+        for (int i = 0; i < PHASES.length; i++) {
+            if (phaseTimes[i].max() > 0)
+                printTimes(out, PHASES[i], phaseTimes[i]);
+        }
+        printTimes(out, "whole frame", frameTimes);
+        out.printf("  %-18s %10s %10s %10s %10s\n", "per frame", "mean", "p50", "p99", "max");
+        for (int i = 0; i < COUNTERS.length; i++) {
+            LatencyHistogram h = countsPerFrame[i];
+            if (h.max() > 0) {
+                out.printf("  %-18s %10.1f %10d %10d %10d\n", COUNTERS[i],
+                        h.mean(), h.percentile(0.50), h.percentile(0.99), h.max());
+            }
+        }
+    }
+
+    private static void printTimes(PrintStream out, String label, LatencyHistogram h) {
+        out.printf("  %-18s %10.3f %10.3f %10.3f %10.3f\n", label, h.mean() / 1e6,
+                h.percentile(0.50) / 1e6, h.percentile(0.99) / 1e6, h.max() / 1e6);
+    }
+
+    /**
+     * Print the report to standard output when the program ends, including
+     * when the window is closed or Ctrl-C is pressed.
+     */
+    public void dumpAtExit() {
+        if (enabled)
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> report(System.out)));
+    }
+
+    /**
+     * Print the report to standard output if the user has typed 'p' in the
+     * StdDraw window since the last call. Call once per frame.
+     */
+    public void dumpOnKey() {
+        while (StdDraw.hasNextKeyTyped()) {
+            if (StdDraw.nextKeyTyped() == 'p')
+                report(System.out);
+        }
+    }
+
+    /**
+     * A main() function for testing purposes. Profiles the Agar game without
+     * a window, with the player following the same path as in Headless.
+     */
+    public static void main(String args[]) {
+        System.setProperty("java.awt.headless", "true");
+        Agar.verbose = false;
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int food = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+
+        StdRandom.setSeed(42);
+        AgarWorld world = new AgarWorld(food, 20);
+        FrameProfiler profiler = new FrameProfiler("Agar");
+        world.setProfiler(profiler);
+        for (int t = 0; t < ticks; t++) {
+            if (t == ticks / 10)
+                profiler.reset();   // ignore the JIT compiler warming up
+            world.tick(Headless.aimX(t), Headless.aimY(t));
+            profiler.endFrame();
+        }
+        profiler.report(System.out);
+    }
+}
@@ -0,0 +1,195 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  Runs the Agar or Bounce simulation without a window, as fast as
+ *  possible, and reports how fast it went. The "mouse" is replaced
+ *  by a fixed path, and the random seed is fixed, so every run with
+ *  the same arguments does exactly the same work.
+ *
+ *  Example: java Headless agar 10000 500 20 42
+ *           (10000 ticks, 500 food balls, 20 poison stars, seed 42)
+ *           java Headless agar 2000 500 20 42 100
+ *           (the same, but with 100 millisecond ticks)
+ *           java Headless bounce 10000 1000 42
+ *           (10000 ticks, 1000 moving stars, seed 42)
+ *           java Headless scenario huge 100
+ *           (100 ticks of Agar in the world from scenarios/huge.scenario)
+ *----------------------------------------------------------------*/
+
+import java.lang.management.ManagementFactory;
+
+public class Headless {
+
+    // Number of ticks to run before measuring, so the JIT compiler has a
+    // chance to optimize the simulation code.
+    private static final int WARMUP = 1000;
+
+    /**
+     * The point the player aims at on the given tick. It traces a slow
+     * figure-eight around the canvas, standing in for the mouse.
+     */
+    public static double aimX(long tick) {
+        return 0.5 + 0.4 * Math.sin(tick * 0.011);
+    }
+
+    public static double aimY(long tick) {
+        return 0.5 + 0.4 * Math.sin(tick * 0.017);
+    }
+
+    /**
+     * Return the number of bytes allocated so far by the current thread, or
+     * -1 if the JVM can't tell us.
+     */
+    public static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean)bean;
+            if (sun.isThreadAllocatedMemorySupported() && sun.isThreadAllocatedMemoryEnabled())
+                return sun.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * Print the measurements for a run of the given number of ticks over the
+     * given number of entities.
+     */
+    private static void report(String what, long ticks, int entities,
+            long nanos, long bytes) {
+        double seconds = nanos / 1e9;
+        StdOut.printf("%s: %d ticks, %d entities, %.3f s\n", what, ticks, entities, seconds);
+        StdOut.printf("  %.1f ticks/sec\n", ticks / seconds);
+        StdOut.printf("  %.2f ns per entity-tick\n", nanos / (double)ticks / entities);
+        if (bytes >= 0) {
+            StdOut.printf("  %.1f MB/sec allocated (%.1f bytes/tick)\n",
+                    bytes / seconds / 1e6, bytes / (double)ticks);
+        } else {
+            StdOut.printf("  allocation rate not available on this JVM\n");
+        }
+    }
+
+    /**
+     * Run the Agar game for the given number of ticks, each lasting the given
+     * number of milliseconds.
+     */
+    private static void runAgar(long ticks, int foodCount, int poisonCount, int tick) {
+        Agar.verbose = false;
+        AgarWorld world = new AgarWorld(foodCount, poisonCount);
+        for (long t = 0; t < WARMUP; t++)
+            world.tick(aimX(t), aimY(t), tick);
+
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        for (long t = WARMUP; t < WARMUP + ticks; t++)
+            world.tick(aimX(t), aimY(t), tick);
+        long elapsed = System.nanoTime() - start;
+        if (bytes >= 0)
+            bytes = allocatedBytes() - bytes;
+
+        report("agar", ticks, world.entityCount(), elapsed, bytes);
+        StdOut.println("  final state: " + world);
+        StdOut.println("  food respawned in place " + world.respawned() + " times");
+    }
+
+    /**
+     * Run the Bounce animation, with the given number of moving stars, for
+     * the given number of ticks.
+     */
+    private static void runBounce(long ticks, int starCount) {
+        Star[] stars = new Star[starCount];
+        for (int i = 0; i < starCount; i++) {
+            stars[i] = new Star(StdRandom.uniform(), StdRandom.uniform(), 0.05, 9);
+            stars[i].setVelocity(StdRandom.uniform(-0.5, 0.5), StdRandom.uniform(-0.5, 0.5));
+            stars[i].setSpin(StdRandom.uniform(-Math.PI, Math.PI));
+        }
+        for (long t = 0; t < WARMUP; t++) {
+            for (int i = 0; i < starCount; i++)
+                Bounce.tick(stars[i], FrameProfiler.OFF);
+        }
+
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        for (long t = 0; t < ticks; t++) {
+            for (int i = 0; i < starCount; i++)
+                Bounce.tick(stars[i], FrameProfiler.OFF);
+        }
+        long elapsed = System.nanoTime() - start;
+        if (bytes >= 0)
+            bytes = allocatedBytes() - bytes;
+
+        report("bounce", ticks, starCount, elapsed, bytes);
+    }
+
+    /**
+     * Run the Agar game in the world a scenario describes for the given
+     * number of ticks, after loading it in chunks and warming up for a tenth
+     * as many ticks. Reports how long loading took as well.
+     */
+    private static void runScenario(Scenario scenario, long ticks) {
+        Agar.verbose = false;
+        AgarWorld world = new AgarWorld(0, 0, scenario.getBounds());
+        Scenario.Sink sink = new Scenario.Sink() {
+            public void addBall(Ball b) {
+                world.addFood(b);
+            }
+
+            public void addStar(Star s) {
+                world.addPoison(s);
+            }
+        };
+        long start = System.nanoTime();
+        Scenario.Loader loader = scenario.loader();
+        int chunks = 0;
+        while (loader.next(sink) > 0)
+            chunks++;
+        StdOut.printf("loaded %s: %d sprites in %d chunks, %.3f s\n", scenario.getName(),
+                loader.loaded(), chunks, (System.nanoTime() - start) / 1e9);
+
+        // The figure-eight aim is for the unit square; stretch it to fit.
+        WorldBounds bounds = scenario.getBounds();
+        long warmup = Math.max(1, ticks / 10);
+        for (long t = 0; t < warmup; t++)
+            world.tick(bounds.getXMin() + aimX(t) * bounds.width(), bounds.getYMin() + aimY(t) * bounds.height());
+
+        long bytes = allocatedBytes();
+        start = System.nanoTime();
+        for (long t = warmup; t < warmup + ticks; t++)
+            world.tick(bounds.getXMin() + aimX(t) * bounds.width(), bounds.getYMin() + aimY(t) * bounds.height());
+        long elapsed = System.nanoTime() - start;
+        if (bytes >= 0)
+            bytes = allocatedBytes() - bytes;
+
+        report("scenario " + scenario.getName(), ticks, world.entityCount(), elapsed, bytes);
+        StdOut.println("  final state: " + world);
+    }
+
+    public static void main(String args[]) throws java.io.IOException {
+        // Make sure nothing tries to open a window.
+        System.setProperty("java.awt.headless", "true");
+
+        String mode = args.length > 0 ? args[0] : "agar";
+        if (mode.equals("agar")) {
+            long ticks = args.length > 1 ? Long.parseLong(args[1]) : 10000;
+            int food = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+            int poison = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+            long seed = args.length > 4 ? Long.parseLong(args[4]) : 42;
+            int tick = args.length > 5 ? Integer.parseInt(args[5]) : AgarWorld.TICK;
+            StdRandom.setSeed(seed);
+            runAgar(ticks, food, poison, tick);
+        } else if (mode.equals("bounce")) {
+            long ticks = args.length > 1 ? Long.parseLong(args[1]) : 10000;
+            int stars = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+            long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+            StdRandom.setSeed(seed);
+            runBounce(ticks, stars);
+        } else if (mode.equals("scenario")) {
+            String name = args.length > 1 ? args[1] : "medium";
+            long ticks = args.length > 2 ? Long.parseLong(args[2]) : 1000;
+            runScenario(Scenario.load(name), ticks);
+        } else {
+            StdOut.println("usage: java Headless agar [ticks] [food] [poison] [seed] [tick ms]");
+            StdOut.println("       java Headless bounce [ticks] [stars] [seed]");
+            StdOut.println("       java Headless scenario [name or file] [ticks]");
+        }
+    }
+}
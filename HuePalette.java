@@ -0,0 +1,76 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  A fixed set of pre-made colors, one for each of 360 evenly spaced
+ *  hues, so that giving a blob a random color doesn't have to create
+ *  a new Color object every time.
+ *
+ *  Example: java HuePalette
+ *----------------------------------------------------------------*/
+
+import java.awt.Color;
+
+/**
+ * HuePalette holds the colors Ball.setHue() would produce for hues 0/360,
+ * 1/360, 2/360 and so on, created once and then shared. Rounding a hue to the
+ * nearest 1/360 is not a difference anyone can see:
+ *
+ *    ball.setColor(HuePalette.color(StdRandom.uniform()));
+ *
+ * Each color also has a small number (its index) which can be stored instead
+ * of the Color itself.
+ */
+public class HuePalette {
+
+    // Number of hues in the palette.
+    public static final int SIZE = 360;
+
+    // The colors, indexed by hue number.
+    private static final Color[] colors = new Color[SIZE];
+
+    static {
+        for (int i = 0; i < SIZE; i++)
+            colors[i] = Color.getHSBColor((float)i / SIZE, 0.7f, 0.6f);
+    }
+
+    /**
+     * Return the index of the palette color closest to the given hue, which
+     * should be between 0.0 and 1.0 (1.0 is the same as 0.0, red).
+     */
+    public static int index(double hue) {
+        int i = (int)Math.round(hue * SIZE) % SIZE;
+        return i < 0 ? i + SIZE : i;
+    }
+
+    /**
+     * Return the palette color with the given index.
+     */
+    public static Color get(int index) {
+        return colors[index];
+    }
+
+    /**
+     * Return the palette color closest to the given hue. This is the same
+     * pleasant, medium-bright color that Ball.setHue() uses.
+     */
+    public static Color color(double hue) {
+        return colors[index(hue)];
+    }
+
+    /**
+     * A main() function for testing purposes. Shows how far the palette
+     * colors are from the exact ones, in RGB steps (0 to 255).
+     */
+    public static void main(String args[]) {
+        int worst = 0;
+        for (int k = 0; k <= 100000; k++) {
+            double hue = k / 100000.0;
+            Color exact = Color.getHSBColor((float)hue, 0.7f, 0.6f);
+            Color near = color(hue);
+            worst = Math.max(worst, Math.abs(exact.getRed() - near.getRed()));
+            worst = Math.max(worst, Math.abs(exact.getGreen() - near.getGreen()));
+            worst = Math.max(worst, Math.abs(exact.getBlue() - near.getBlue()));
+        }
+        StdOut.println("largest difference from the exact color: " + worst + " RGB steps");
+    }
+}
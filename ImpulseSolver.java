@@ -0,0 +1,680 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  Physics for balls that push each other around: when two balls
+ *  collide, each gets a kick (an "impulse") along the line between
+ *  their centres, heavier balls moving less, and balls that overlap
+ *  are pushed apart. Balls that have come to rest are put to sleep
+ *  and skipped until something hits them, so a settled pile costs
+ *  almost nothing.
+ *
+ *  Example: java ImpulseSolver 500
+ *----------------------------------------------------------------*/
+
+import java.util.Arrays;
+
+/**
+ * An ImpulseSolver moves some balls, bounces them off the edges of the world
+ * and off each other, and keeps them from overlapping. For example, to drop a
+ * pile of balls onto the bottom of the canvas:
+ *
+ *    ImpulseSolver solver = new ImpulseSolver(balls, WorldBounds.UNIT);
+ *    solver.setGravity(1.0);
+ *    solver.setRestitution(0.5);
+ *    while (true) {
+ *        solver.step(20);
+ *        StdDraw.clear();
+ *        solver.draw();
+ *        StdDraw.show(20);
+ *    }
+ *
+ * The edges of the world are treated like balls that can't be moved: a
+ * ball is never allowed past one, and bounces off it the same way.
+ *
+ * Unlike Ball.bounce(Ball), which sends each ball straight away from the
+ * other at its old speed, a collision here conserves momentum: a ball's mass
+ * is its size(), so a small ball hitting a big one bounces off and barely
+ * moves it. The restitution says how much of the speed at which two balls
+ * (or a ball and a wall) come together is kept as they move apart: 1 for
+ * perfectly bouncy, 0 for not at all. Each step, the velocities of all the
+ * touching pairs are corrected together a few times over, so a ball resting
+ * in a pile is held up by all of the balls beneath it. Then any overlap left
+ * is mostly removed by moving the balls apart, heavier ones less.
+ *
+ * A ball that moves slower than SLEEP_SPEED for SLEEP_TICKS steps in a row
+ * falls asleep: its velocity is set to zero, and it is neither moved nor
+ * checked for collisions until it is woken up. A sleeping ball acts like a
+ * wall to awake balls that touch it gently. A ball that hits it faster than
+ * WAKE_SPEED wakes it, and it can then wake the sleeping balls it hits hard
+ * enough in turn, so a knock spreads through a pile only as far as it is
+ * felt. A ball can't stay asleep once what holds it up is gone, though:
+ * when a ball wakes, the sleeping balls resting on it (touching it where it
+ * fell asleep, on the side away from gravity) wake too, and so do those
+ * resting on a ball that is moving faster than SLEEP_SPEED. Call wake()
+ * after changing a sleeping ball's position or velocity, so that the change
+ * isn't ignored.
+ *
+ * Sleeping balls don't move, so they are kept in a k-d tree of their own
+ * that is only rebuilt once enough balls have fallen asleep or woken up
+ * since the last time. Each step, only the awake balls (and any that fell
+ * asleep since that rebuild) go into a fresh tree, so a step costs about the
+ * same however big the sleeping pile is.
+ */
+public class ImpulseSolver {
+
+    // A ball slower than this, in "meters" per second, is resting.
+    public static final double SLEEP_SPEED = 0.05;
+
+    // Number of steps in a row a ball must rest before it falls asleep.
+    public static final int SLEEP_TICKS = 25;
+
+    // A ball hitting a sleeping one faster than this, in "meters" per second,
+    // wakes it.
+    public static final double WAKE_SPEED = 0.1;
+
+    // Balls (or a ball and a wall) coming together slower than this, in
+    // "meters" per second, don't bounce at all, so resting balls don't
+    // jitter.
+    private static final double BOUNCE_SPEED = 0.05;
+
+    // The edges of the world. In a contact, edge e is stored as ball number
+    // ~e, which is negative; the order of the numbers keeps contacts sorted.
+    private static final int LEFT = 0, RIGHT = 1, BOTTOM = 2, TOP = 3;
+
+    // Number of passes made over the touching pairs each step.
+    private static final int ITERATIONS = 10;
+
+    // How much overlap, in "meters", is left alone, and the fraction of the
+    // rest removed each step. Leaving a little keeps resting balls touching,
+    // and removing it gradually keeps them from being flung apart.
+    private static final double SLOP = 0.0005;
+    private static final double CORRECTION = 0.6;
+
+    // The balls, and the edges of the world.
+    private final Ball[] balls;
+    private final WorldBounds bounds;
+
+    // Settings.
+    private double restitution = 1.0;
+    private double gravity = 0.0;
+
+    // Whether each ball is asleep, how many steps in a row it has been
+    // resting, and where it fell asleep.
+    private final boolean[] asleep;
+    private final int[] resting;
+    private final double[] restX, restY;
+    private int awake;
+
+    // Balls that have just woken, whose sleeping neighbours resting on them
+    // still need waking.
+    private int[] woken = new int[16];
+    private int wokenCount;
+
+    // Where the awake balls are, rebuilt each step, along with sleeping
+    // balls that aren't in the sleepers tree yet, and the ball number of
+    // each entry.
+    private final KdTree tree = new KdTree();
+    private int[] treeBalls = new int[64];
+
+    // Where the sleeping balls are, rebuilt only now and then, and the ball
+    // number of each entry. Whether each ball is in it where it is now: a
+    // ball that has woken and moved since is left in the tree but skipped.
+    private final KdTree sleepers = new KdTree();
+    private int[] sleeperBalls = new int[64];
+    private final boolean[] indexed;
+    private int indexedCount;
+    private final KdTree.Filter stillThere;
+
+    // The largest radius, and room for query results: ball numbers in near,
+    // entry numbers in found.
+    private double largest;
+    private int[] near = new int[64], found = new int[64];
+
+    // The touching pairs found this step: ball numbers (or an edge, for b),
+    // the unit vector from a to b, the inverse masses used (0 for a sleeping
+    // ball or an edge), the relative speed along that vector the solver aims
+    // for, and the total impulse applied so far, which is never allowed to
+    // pull the balls together.
+    private int contactCount;
+    private int[] contactA = new int[64], contactB = new int[64];
+    private double[] normalX = new double[64], normalY = new double[64];
+    private double[] inverseA = new double[64], inverseB = new double[64];
+    private double[] target = new double[64], impulse = new double[64];
+
+    // Number of steps taken, and pairs of balls checked in the last step.
+    private long steps;
+    private int checks;
+
+    /**
+     * Initializes a solver for the given balls, which are kept inside the
+     * given bounds. All the balls start awake.
+     */
+    public ImpulseSolver(Ball[] balls, WorldBounds bounds) {
+        this.balls = balls.clone();
+        this.bounds = bounds;
+        this.asleep = new boolean[balls.length];
+        this.resting = new int[balls.length];
+        this.restX = new double[balls.length];
+        this.restY = new double[balls.length];
+        this.indexed = new boolean[balls.length];
+        this.stillThere = e -> indexed[sleeperBalls[e]];
+        this.awake = balls.length;
+    }
+
+    /**
+     * Return a string representation of this solver. Possibly useful for
+     * debugging.
+     */
+    public String toString() {
+        return "ImpulseSolver(" + balls.length + " balls, " + awake + " awake) after " + steps
+            + " steps, " + contactCount + " contacts and " + checks + " checks last step";
+    }
+
+    /**
+     * Set how bouncy collisions are, from 0 (not at all) to 1 (perfectly).
+     * The default is 1.
+     */
+    public void setRestitution(double e) {
+        if (e < 0.0 || e > 1.0)
+            throw new IllegalArgumentException("restitution must be between 0 and 1: " + e);
+        restitution = e;
+    }
+
+    /**
+     * Set the downward acceleration on every awake ball. Units are "meters"
+     * per second per second. The default is 0.
+     */
+    public void setGravity(double g) {
+        gravity = g;
+    }
+
+    /**
+     * Return the number of balls that are awake.
+     */
+    public int awakeCount() {
+        return awake;
+    }
+
+    /**
+     * Return whether ball number i is asleep.
+     */
+    public boolean isAsleep(int i) {
+        return asleep[i];
+    }
+
+    /**
+     * Return the number of touching pairs found in the last step.
+     */
+    public int contactCount() {
+        return contactCount;
+    }
+
+    /**
+     * Return the number of pairs of balls checked for touching in the last
+     * step.
+     */
+    public int checkCount() {
+        return checks;
+    }
+
+    /**
+     * Wake ball number i, and the sleeping balls resting on it. Sleeping
+     * balls it then hits hard enough wake too.
+     */
+    public void wake(int i) {
+        rouse(i);
+        unsupport();
+    }
+
+    /**
+     * Advance every awake ball by the given time, in milliseconds: fall,
+     * move, bounce off the edges of the world and off each other, and fall
+     * asleep if resting.
+     */
+    public void step(int durationInMilliseconds) {
+        steps++;
+        checks = 0;
+        contactCount = 0;
+        if (awake == 0)
+            return;
+        double dt = durationInMilliseconds / 1000.0;
+
+        // Anything asleep on a ball about to move away has to fall. The trees
+        // from the last step still show where every sleeping ball is.
+        for (int i = 0; i < balls.length; i++) {
+            Ball b = balls[i];
+            if (!asleep[i] && b.speed() >= SLEEP_SPEED)
+                wakeResting(b.getX(), b.getY(), b.getRadius());
+        }
+        unsupport();
+
+        for (int i = 0; i < balls.length; i++) {
+            if (!asleep[i]) {
+                unindex(i);
+                integrate(balls[i], dt);
+            }
+        }
+        index();
+
+        for (int i = 0; i < balls.length; i++) {
+            if (!asleep[i])
+                findContacts(i);
+        }
+        unsupport();
+        for (int k = 0; k < contactCount; k++)
+            prepare(k);
+        for (int pass = 0; pass < ITERATIONS; pass++) {
+            for (int k = 0; k < contactCount; k++)
+                solve(k);
+        }
+        for (int pass = 0; pass < ITERATIONS; pass++) {
+            for (int k = 0; k < contactCount; k++)
+                separate(k);
+        }
+
+        for (int i = 0; i < balls.length; i++) {
+            if (!asleep[i])
+                rest(i);
+        }
+    }
+
+    /**
+     * Draw all of the balls on the StdDraw canvas.
+     */
+    public void draw() {
+        for (int i = 0; i < balls.length; i++)
+            balls[i].draw();
+    }
+
+    /**
+     * Accelerate and move one ball, stopping at the edges of the world. The
+     * solver bounces it off them afterwards.
+     */
+    private void integrate(Ball b, double dt) {
+        double vx = b.getXVelocity(), vy = b.getYVelocity() - gravity * dt;
+        b.setVelocity(vx, vy);
+        place(b, b.getX() + vx * dt, b.getY() + vy * dt);
+    }
+
+    /**
+     * Record every edge of the world and every ball touching awake ball
+     * number i. A pair of awake balls is only recorded once, by the
+     * lower-numbered one. A sleeping ball hit hard enough is woken.
+     */
+    private void findContacts(int i) {
+        Ball a = balls[i];
+        double r = a.getRadius() + SLOP;
+        if (a.getY() + r > bounds.getYMax())
+            addContact(i, ~TOP, 0.0, 1.0);
+        if (a.getY() - r < bounds.getYMin())
+            addContact(i, ~BOTTOM, 0.0, -1.0);
+        if (a.getX() + r > bounds.getXMax())
+            addContact(i, ~RIGHT, 1.0, 0.0);
+        if (a.getX() - r < bounds.getXMin())
+            addContact(i, ~LEFT, -1.0, 0.0);
+
+        int n = neighbours(a.getX(), a.getY(), a.getRadius());
+        for (int k = 0; k < n; k++) {
+            int j = near[k];
+            if (j == i || (!asleep[j] && j < i))
+                continue;
+            checks++;
+            Ball b = balls[j];
+            double dx = b.getX() - a.getX(), dy = b.getY() - a.getY();
+            double sigma = a.getRadius() + b.getRadius();
+            double d2 = dx*dx + dy*dy;
+            if (d2 >= sigma*sigma)
+                continue;
+            double d = Math.sqrt(d2);
+            if (d > 0.0) {
+                dx /= d;
+                dy /= d;
+            } else {
+                dx = 1.0;   // exactly on top of each other: pick a direction
+                dy = 0.0;
+            }
+            if (asleep[j]) {
+                double closing = a.getXVelocity() * dx + a.getYVelocity() * dy;
+                if (closing > WAKE_SPEED)
+                    rouse(j);
+            }
+            addContact(i, j, dx, dy);
+        }
+    }
+
+    /**
+     * Record that balls i and j are touching, with (nx, ny) the unit vector
+     * from i to j.
+     */
+    private void addContact(int i, int j, double nx, double ny) {
+        if (contactCount == contactA.length) {
+            int size = 2 * contactCount;
+            contactA = Arrays.copyOf(contactA, size);
+            contactB = Arrays.copyOf(contactB, size);
+            normalX = Arrays.copyOf(normalX, size);
+            normalY = Arrays.copyOf(normalY, size);
+            inverseA = Arrays.copyOf(inverseA, size);
+            inverseB = Arrays.copyOf(inverseB, size);
+            target = Arrays.copyOf(target, size);
+            impulse = Arrays.copyOf(impulse, size);
+        }
+        contactA[contactCount] = i;
+        contactB[contactCount] = j;
+        normalX[contactCount] = nx;
+        normalY[contactCount] = ny;
+        contactCount++;
+    }
+
+    /**
+     * Work out the masses and the speed apart to aim for in contact k. A
+     * ball still asleep can't be moved, as if it were infinitely heavy.
+     */
+    private void prepare(int k) {
+        inverseA[k] = inverseMass(contactA[k]);
+        inverseB[k] = inverseMass(contactB[k]);
+        double closing = -relativeSpeed(k);
+        target[k] = closing > BOUNCE_SPEED ? restitution * closing : 0.0;
+        impulse[k] = 0.0;
+    }
+
+    /**
+     * Return 1 / mass for ball number i, or 0 if it is asleep, an edge of the
+     * world, or has no size at all.
+     */
+    private double inverseMass(int i) {
+        if (i < 0)
+            return 0.0;
+        double mass = balls[i].size();
+        return asleep[i] || mass == 0.0 ? 0.0 : 1.0 / mass;
+    }
+
+    /**
+     * Return how fast the balls in contact k are moving apart along the line
+     * between them (negative if they are coming together).
+     */
+    private double relativeSpeed(int k) {
+        Ball a = balls[contactA[k]];
+        double vx = -a.getXVelocity(), vy = -a.getYVelocity();
+        if (contactB[k] >= 0) {
+            Ball b = balls[contactB[k]];
+            vx += b.getXVelocity();
+            vy += b.getYVelocity();
+        }
+        return vx * normalX[k] + vy * normalY[k];
+    }
+
+    /**
+     * Push the balls in contact k towards moving apart at the target speed,
+     * without ever having pulled them together over the whole step.
+     */
+    private void solve(int k) {
+        double mass = inverseA[k] + inverseB[k];
+        if (mass == 0.0)
+            return;
+        double j = (target[k] - relativeSpeed(k)) / mass;
+        double total = Math.max(0.0, impulse[k] + j);
+        j = total - impulse[k];
+        impulse[k] = total;
+        push(k, j);
+    }
+
+    /**
+     * Apply an impulse of size j to the balls in contact k, pushing them
+     * apart.
+     */
+    private void push(int k, double j) {
+        if (j == 0.0)
+            return;
+        double jx = j * normalX[k], jy = j * normalY[k];
+        Ball a = balls[contactA[k]];
+        a.setVelocity(a.getXVelocity() - jx * inverseA[k], a.getYVelocity() - jy * inverseA[k]);
+        if (contactB[k] >= 0) {
+            Ball b = balls[contactB[k]];
+            b.setVelocity(b.getXVelocity() + jx * inverseB[k], b.getYVelocity() + jy * inverseB[k]);
+        }
+    }
+
+    /**
+     * Move the balls in contact k apart, to remove most of their overlap.
+     * Balls never overlap the edges of the world (see place()).
+     */
+    private void separate(int k) {
+        double mass = inverseA[k] + inverseB[k];
+        if (mass == 0.0 || contactB[k] < 0)
+            return;
+        Ball a = balls[contactA[k]], b = balls[contactB[k]];
+        double dx = b.getX() - a.getX(), dy = b.getY() - a.getY();
+        double overlap = a.getRadius() + b.getRadius() - Math.sqrt(dx*dx + dy*dy);
+        if (overlap <= SLOP)
+            return;
+        double push = CORRECTION * (overlap - SLOP) / mass;
+        double px = push * normalX[k], py = push * normalY[k];
+        place(a, a.getX() - px * inverseA[k], a.getY() - py * inverseA[k]);
+        place(b, b.getX() + px * inverseB[k], b.getY() + py * inverseB[k]);
+    }
+
+    /**
+     * Move a ball to (x, y), or as near as it can get without going past an
+     * edge of the world, since the edges can't be pushed back.
+     */
+    private void place(Ball b, double x, double y) {
+        double r = b.getRadius();
+        b.setPosition(bounds.clampX(x, r), bounds.clampY(y, r));
+    }
+
+    /**
+     * Count ball number i as resting if it is slow, and put it to sleep if
+     * it has rested long enough.
+     */
+    private void rest(int i) {
+        Ball b = balls[i];
+        if (b.speed() >= SLEEP_SPEED) {
+            resting[i] = 0;
+            return;
+        }
+        if (++resting[i] >= SLEEP_TICKS) {
+            b.setVelocity(0.0, 0.0);
+            restX[i] = b.getX();
+            restY[i] = b.getY();
+            asleep[i] = true;
+            awake--;
+        }
+    }
+
+    /**
+     * Wake ball number i if it is asleep, and remember to wake the sleeping
+     * balls resting on it. It stays in the sleepers tree until it next moves.
+     */
+    private void rouse(int i) {
+        resting[i] = 0;
+        if (!asleep[i])
+            return;
+        asleep[i] = false;
+        awake++;
+        if (wokenCount == woken.length)
+            woken = Arrays.copyOf(woken, 2 * wokenCount);
+        woken[wokenCount++] = i;
+    }
+
+    /**
+     * Wake the sleeping balls resting on each ball that has just woken, where
+     * it fell asleep, and so on up the pile.
+     */
+    private void unsupport() {
+        while (wokenCount > 0) {
+            int i = woken[--wokenCount];
+            wakeResting(restX[i], restY[i], balls[i].getRadius());
+        }
+    }
+
+    /**
+     * Wake every sleeping ball resting on a ball of radius r at (x, y): one
+     * touching it on the side away from gravity.
+     */
+    private void wakeResting(double x, double y, double r) {
+        if (gravity == 0.0)
+            return;
+        int n = neighbours(x, y, r);
+        for (int k = 0; k < n; k++) {
+            int j = near[k];
+            Ball b = balls[j];
+            if (!asleep[j] || (b.getY() - y) * gravity <= 0.0)
+                continue;
+            double dx = b.getX() - x, dy = b.getY() - y;
+            double sigma = r + b.getRadius() + SLOP;
+            if (dx*dx + dy*dy < sigma*sigma)
+                rouse(j);
+        }
+    }
+
+    /**
+     * Note that ball number i is about to move, so its entry in the sleepers
+     * tree, if it has one, is out of date.
+     */
+    private void unindex(int i) {
+        if (indexed[i]) {
+            indexed[i] = false;
+            indexedCount--;
+        }
+    }
+
+    /**
+     * Put the awake balls, and the sleeping balls not in the sleepers tree,
+     * into this step's tree. First rebuild the sleepers tree if too many
+     * sleeping balls would have to go in this tree instead, or too many of
+     * its entries are out of date.
+     */
+    private void index() {
+        int missing = balls.length - awake - indexedCount;
+        int stale = sleepers.size() - indexedCount;
+        if (missing + stale > Math.max(64, indexedCount / 4)) {
+            sleepers.clear();
+            for (int i = 0; i < balls.length; i++) {
+                indexed[i] = asleep[i];
+                if (asleep[i])
+                    sleeperBalls = put(sleepers, sleeperBalls, i);
+            }
+            indexedCount = sleepers.size();
+            sleepers.build();
+        }
+
+        tree.clear();
+        largest = 0.0;
+        for (int i = 0; i < balls.length; i++) {
+            largest = Math.max(largest, balls[i].getRadius());
+            if (!indexed[i])
+                treeBalls = put(tree, treeBalls, i);
+        }
+        tree.build();
+    }
+
+    /**
+     * Add ball number i to the given tree, and record its number in the
+     * given array under its entry number, making the array bigger if need
+     * be. Returns the array.
+     */
+    private int[] put(KdTree t, int[] numbers, int i) {
+        int e = t.add(balls[i]);
+        if (e == numbers.length)
+            numbers = Arrays.copyOf(numbers, 2 * numbers.length);
+        numbers[e] = i;
+        return numbers;
+    }
+
+    /**
+     * Find every ball that could be touching a ball of radius r at (x, y)
+     * (including that ball itself), awake or asleep, storing their numbers in
+     * near. Returns how many there are.
+     */
+    private int neighbours(double x, double y, double r) {
+        double reach = r + largest + SLOP;
+        int n = neighbours(tree, null, treeBalls, x, y, reach, 0);
+        return neighbours(sleepers, stillThere, sleeperBalls, x, y, reach, n);
+    }
+
+    /**
+     * Add the numbers of the balls in the given tree within reach of (x, y),
+     * that the filter accepts, to the n already in near. Returns the new
+     * number.
+     */
+    private int neighbours(KdTree t, KdTree.Filter filter, int[] numbers,
+            double x, double y, double reach, int n) {
+        int m = t.within(x, y, reach, filter, found);
+        if (m > found.length) {
+            found = new int[Math.max(m, 2 * found.length)];
+            m = t.within(x, y, reach, filter, found);
+        }
+        if (n + m > near.length)
+            near = Arrays.copyOf(near, Math.max(n + m, 2 * near.length));
+        for (int k = 0; k < m; k++)
+            near[n + k] = numbers[found[k]];
+        return n + m;
+    }
+
+    /**
+     * Stack one ball on another, let them fall asleep, take the bottom one
+     * away and check that the top one falls. Returns how high the top ball
+     * ends up.
+     */
+    private static double dropTest() {
+        Ball bottom = new Ball(0.5, 0.05, 0.05);
+        Ball top = new Ball(0.5, 0.15, 0.05);
+        ImpulseSolver solver = new ImpulseSolver(new Ball[] { bottom, top }, WorldBounds.UNIT);
+        solver.setGravity(1.0);
+        solver.setRestitution(0.0);
+        for (int t = 0; t < 200 && solver.awakeCount() > 0; t++)
+            solver.step(20);
+        if (solver.awakeCount() > 0)
+            throw new IllegalStateException("the stack never fell asleep: " + solver);
+        bottom.setPosition(0.2, 0.05);
+        solver.wake(0);
+        for (int t = 0; t < 200; t++)
+            solver.step(20);
+        return top.getY();
+    }
+
+    /**
+     * A main() function for testing purposes. First checks that a ball left
+     * asleep in mid-air falls. Then drops some balls onto the bottom of the
+     * canvas and lets them settle into a pile, printing how many are awake
+     * and how long each step takes. Every 5 seconds, one ball is thrown back
+     * into the pile to stir it up.
+     */
+    public static void main(String args[]) {
+        double fell = dropTest();
+        StdOut.printf("drop test: top ball ends at y = %.4f (%s)\n", fell,
+                Math.abs(fell - 0.05) < 0.001 ? "fell" : "STUCK");
+
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        Ball[] balls = new Ball[n];
+        for (int i = 0; i < n; i++) {
+            balls[i] = new Ball(StdRandom.uniform(0.05, 0.95), StdRandom.uniform(0.3, 0.95),
+                    StdRandom.uniform(0.008, 0.02));
+            balls[i].setHue(StdRandom.uniform());
+            balls[i].setVelocity(StdRandom.uniform(-0.2, 0.2), StdRandom.uniform(-0.2, 0.2));
+        }
+        ImpulseSolver solver = new ImpulseSolver(balls, WorldBounds.UNIT);
+        solver.setGravity(1.0);
+        solver.setRestitution(0.5);
+
+        int duration = 1000/50;
+        long nanos = 0;
+        for (int frame = 1; true; frame++) {
+            if (frame % 250 == 0) {
+                balls[0].setPosition(0.5, 0.9);
+                balls[0].setVelocity(StdRandom.uniform(-0.5, 0.5), -2.0);
+                solver.wake(0);
+            }
+            long start = System.nanoTime();
+            solver.step(duration);
+            nanos += System.nanoTime() - start;
+            if (frame % 50 == 0) {
+                StdOut.printf("%.1f us/step: %s\n", nanos / 50 / 1e3, solver);
+                nanos = 0;
+            }
+            StdDraw.clear(StdDraw.WHITE);
+            solver.draw();
+            StdDraw.show(duration);
+        }
+    }
+}
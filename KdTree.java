@@ -0,0 +1,438 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  A k-d tree of Ball and Star centres, for asking "what is the
+ *  nearest blob to here?" (or the nearest few, or everything within
+ *  some distance) without measuring the distance to every blob.
+ *  It is meant to be rebuilt once per animation frame.
+ *
+ *  Example: java KdTree
+ *----------------------------------------------------------------*/
+
+import java.util.Arrays;
+
+/**
+ * A KdTree holds the centres of a set of sprites, and finds the ones nearest
+ * to a point. For example, to find the nearest food smaller than the player,
+ * no more than 0.3 away:
+ *
+ *    KdTree tree = new KdTree();
+ *    tree.clear();
+ *    for (int i = 0; i < food.length; i++)
+ *        tree.add(food[i]);
+ *    tree.build();
+ *    int i = tree.nearest(player.getX(), player.getY(), 0.3,
+ *            e -> tree.getRadius(e) < player.getRadius());
+ *    if (i >= 0)
+ *        player.aimTowards(tree.getX(i), tree.getY(i), speed);
+ *
+ * Each sprite (or plain point, see add(x, y, r)) added becomes an "entry",
+ * numbered from 0 in the order they were added. Queries return entry
+ * numbers; getBall(), getStar(), getX() and so on say what each entry is.
+ * Distances are always between centres.
+ *
+ * A Filter can be given to any query to skip entries, e.g. the blob doing
+ * the asking, or anything bigger than it. Entries the filter rejects are
+ * treated as if they weren't in the tree.
+ *
+ * build() takes O(n log n) time for n entries, and a nearest-neighbour query
+ * takes O(log n) time on average, against O(n) for checking every entry.
+ * Positions are read when they are added, so if sprites move, call clear()
+ * and add them again. Queries don't change the tree, so once it has been
+ * built, several threads may query it at the same time.
+ */
+public class KdTree {
+
+    /**
+     * Decides which entries a query should consider.
+     */
+    public interface Filter {
+        boolean accept(int entry);
+    }
+
+    // Entries, in the order they were added: centre, radius, and the sprite
+    // (a Ball, a Star, or null for a plain point).
+    private double[] x = new double[16], y = new double[16], r = new double[16];
+    private Object[] items = new Object[16];
+    private int count;
+
+    // The tree: node k is entry order[k], and its coordinates are copied to
+    // nodeX[k] and nodeY[k] so queries read memory in order. The node for a
+    // range of positions [lo, hi) is at (lo + hi) / 2, and splits the range
+    // by x at even depths and by y at odd depths.
+    private int[] order = new int[0];
+    private double[] nodeX = new double[0], nodeY = new double[0];
+
+    // Whether the tree is up to date with the entries.
+    private boolean built = true;
+
+    /**
+     * Return a string representation of this tree. Possibly useful for
+     * debugging.
+     */
+    public String toString() {
+        return "KdTree(" + count + " entries)";
+    }
+
+    /**
+     * Remove every entry.
+     */
+    public void clear() {
+        Arrays.fill(items, 0, count, null);
+        count = 0;
+        built = false;
+    }
+
+    /**
+     * Return the number of entries.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Add a ball's centre. Returns its entry number.
+     */
+    public int add(Ball b) {
+        int i = add(b.getX(), b.getY(), b.getRadius());
+        items[i] = b;
+        return i;
+    }
+
+    /**
+     * Add a star's centre. Returns its entry number.
+     */
+    public int add(Star s) {
+        int i = add(s.getX(), s.getY(), s.getOuterRadius());
+        items[i] = s;
+        return i;
+    }
+
+    /**
+     * Add a point at (px, py) for something of radius pr. Returns its entry
+     * number.
+     */
+    public int add(double px, double py, double pr) {
+        if (count == x.length) {
+            int size = 2 * count;
+            x = Arrays.copyOf(x, size);
+            y = Arrays.copyOf(y, size);
+            r = Arrays.copyOf(r, size);
+            items = Arrays.copyOf(items, size);
+        }
+        x[count] = px;
+        y[count] = py;
+        r[count] = pr;
+        built = false;
+        return count++;
+    }
+
+    /**
+     * Return the x coordinate of the given entry's centre.
+     */
+    public double getX(int entry) {
+        return x[entry];
+    }
+
+    /**
+     * Return the y coordinate of the given entry's centre.
+     */
+    public double getY(int entry) {
+        return y[entry];
+    }
+
+    /**
+     * Return the radius of the given entry (the outer radius for stars).
+     */
+    public double getRadius(int entry) {
+        return r[entry];
+    }
+
+    /**
+     * Return the ball the given entry was added for, or null if it isn't a
+     * ball.
+     */
+    public Ball getBall(int entry) {
+        return items[entry] instanceof Ball ? (Ball)items[entry] : null;
+    }
+
+    /**
+     * Return the star the given entry was added for, or null if it isn't a
+     * star.
+     */
+    public Star getStar(int entry) {
+        return items[entry] instanceof Star ? (Star)items[entry] : null;
+    }
+
+    /**
+     * Build the tree from the entries added so far. Queries call this
+     * automatically if needed, but only one thread may build the tree, so
+     * call it before letting several threads query.
+     */
+    public void build() {
+        if (built)
+            return;
+        if (order.length < count) {
+            order = new int[x.length];
+            nodeX = new double[x.length];
+            nodeY = new double[x.length];
+        }
+        for (int i = 0; i < count; i++)
+            order[i] = i;
+        build(0, count, 0);
+        for (int k = 0; k < count; k++) {
+            nodeX[k] = x[order[k]];
+            nodeY[k] = y[order[k]];
+        }
+        built = true;
+    }
+
+    /**
+     * Arrange order[lo] to order[hi-1] into a subtree whose root splits them
+     * by x (even depth) or y (odd depth).
+     */
+    private void build(int lo, int hi, int depth) {
+        while (hi - lo > 1) {
+            int mid = (lo + hi) >>> 1;
+            select(lo, hi, mid, (depth & 1) == 0 ? x : y);
+            build(lo, mid, depth + 1);
+            lo = mid + 1;   // then the right half, without recursing
+            depth++;
+        }
+    }
+
+    /**
+     * Partially sort order[lo] to order[hi-1] by the given coordinate, so that
+     * position k holds the entry that would be there if they were sorted,
+     * with nothing larger before it and nothing smaller after it.
+     */
+    private void select(int lo, int hi, int k, double[] coord) {
+        hi--;
+        while (hi > lo) {
+            double pivot = coord[order[(lo + hi) >>> 1]];
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (coord[order[i]] < pivot) i++;
+                while (coord[order[j]] > pivot) j--;
+                if (i <= j) {
+                    int t = order[i]; order[i] = order[j]; order[j] = t;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j)
+                hi = j;
+            else if (k >= i)
+                lo = i;
+            else
+                return;
+        }
+    }
+
+    /**
+     * Return the entry nearest to (qx, qy) that the filter accepts (any
+     * entry, if the filter is null), or -1 if there is none within
+     * maxDistance.
+     */
+    public int nearest(double qx, double qy, double maxDistance, Filter filter) {
+        int[] out = new int[1];
+        return nearest(qx, qy, 1, maxDistance, filter, out) == 0 ? -1 : out[0];
+    }
+
+    /**
+     * Find the k entries nearest to (qx, qy) that the filter accepts (any
+     * entry, if the filter is null), ignoring anything further away than
+     * maxDistance. They are stored in out[0], out[1], ..., nearest first.
+     * Returns how many were found, which is less than k if there aren't k
+     * within maxDistance. out must have room for k entries.
+     */
+    public int nearest(double qx, double qy, int k, double maxDistance, Filter filter, int[] out) {
+        if (k > out.length)
+            throw new IllegalArgumentException("no room for " + k + " entries");
+        if (k <= 0)
+            return 0;
+        build();
+
+        // out[0..n-1] and d2[0..n-1] are a heap with the furthest first.
+        double[] d2 = new double[k];
+        int n = nearest(0, count, 0, qx, qy, k, maxDistance * maxDistance, filter, out, d2, 0);
+
+        // Turn the heap into a list, nearest first.
+        for (int end = n - 1; end > 0; end--) {
+            swap(out, d2, 0, end);
+            siftDown(out, d2, 0, end);
+        }
+        return n;
+    }
+
+    /**
+     * Search the subtree for positions [lo, hi) at the given depth, adding
+     * what it finds to the heap of n entries. Returns the new heap size.
+     */
+    private int nearest(int lo, int hi, int depth, double qx, double qy, int k, double limit,
+            Filter filter, int[] heap, double[] d2, int n) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            double dx = qx - nodeX[mid], dy = qy - nodeY[mid];
+            double d = dx*dx + dy*dy;
+            double worst = n < k ? limit : d2[0];
+            if (d <= worst && (filter == null || filter.accept(order[mid]))) {
+                if (n < k) {
+                    heap[n] = order[mid];
+                    d2[n] = d;
+                    siftUp(heap, d2, n++);
+                } else {
+                    heap[0] = order[mid];
+                    d2[0] = d;
+                    siftDown(heap, d2, 0, n);
+                }
+            }
+
+            // Search the side the point is on first, then the other side if
+            // it could still hold something near enough.
+            double diff = (depth & 1) == 0 ? dx : dy;
+            int nearLo = diff < 0 ? lo : mid + 1, nearHi = diff < 0 ? mid : hi;
+            int farLo = diff < 0 ? mid + 1 : lo, farHi = diff < 0 ? hi : mid;
+            n = nearest(nearLo, nearHi, depth + 1, qx, qy, k, limit, filter, heap, d2, n);
+            worst = n < k ? limit : d2[0];
+            if (diff * diff > worst)
+                return n;
+            lo = farLo;
+            hi = farHi;
+            depth++;
+        }
+        return n;
+    }
+
+    private static void siftUp(int[] heap, double[] d2, int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (d2[parent] >= d2[i])
+                return;
+            swap(heap, d2, parent, i);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, double[] d2, int i, int n) {
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= n)
+                return;
+            if (child + 1 < n && d2[child + 1] > d2[child])
+                child++;
+            if (d2[i] >= d2[child])
+                return;
+            swap(heap, d2, i, child);
+            i = child;
+        }
+    }
+
+    private static void swap(int[] heap, double[] d2, int i, int j) {
+        int t = heap[i]; heap[i] = heap[j]; heap[j] = t;
+        double s = d2[i]; d2[i] = d2[j]; d2[j] = s;
+    }
+
+    /**
+     * Find every entry the filter accepts (any entry, if the filter is null)
+     * whose centre is within the given distance of (qx, qy), in no particular
+     * order. As many as fit are stored in out; returns how many there are,
+     * which may be more than out.length.
+     */
+    public int within(double qx, double qy, double distance, Filter filter, int[] out) {
+        build();
+        return within(0, count, 0, qx, qy, distance * distance, filter, out, 0);
+    }
+
+    /**
+     * Search the subtree for positions [lo, hi) at the given depth, having
+     * found n entries so far. Returns the new number found.
+     */
+    private int within(int lo, int hi, int depth, double qx, double qy, double limit,
+            Filter filter, int[] out, int n) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            double dx = qx - nodeX[mid], dy = qy - nodeY[mid];
+            if (dx*dx + dy*dy <= limit && (filter == null || filter.accept(order[mid]))) {
+                if (n < out.length)
+                    out[n] = order[mid];
+                n++;
+            }
+            double diff = (depth & 1) == 0 ? dx : dy;
+            boolean left = diff < 0 || diff * diff <= limit;
+            boolean right = diff >= 0 || diff * diff <= limit;
+            if (left && right) {
+                n = within(lo, mid, depth + 1, qx, qy, limit, filter, out, n);
+                lo = mid + 1;
+            } else if (left) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+            depth++;
+        }
+        return n;
+    }
+
+    /**
+     * A main() function for testing purposes. Checks the answers against a
+     * search of every entry, and compares how long the two take.
+     */
+    public static void main(String args[]) {
+        Agar.verbose = false;
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        Ball[] balls = new Ball[n];
+        for (int i = 0; i < n; i++)
+            balls[i] = Agar.respawn(new Ball());
+        KdTree tree = new KdTree();
+        for (int i = 0; i < n; i++)
+            tree.add(balls[i]);
+        long start = System.nanoTime();
+        tree.build();
+        StdOut.printf("built %d entries in %.3f ms\n", n, (System.nanoTime() - start) / 1e6);
+
+        int queries = 2000, wrong = 0;
+        int[] out = new int[5], all = new int[n];
+        long treeNanos = 0, scanNanos = 0;
+        for (int q = 0; q < queries; q++) {
+            double qx = StdRandom.uniform(), qy = StdRandom.uniform();
+            double size = StdRandom.uniform(0.03, 0.05);
+            KdTree.Filter smaller = e -> tree.getRadius(e) < size;
+
+            start = System.nanoTime();
+            int found = tree.nearest(qx, qy, 5, 0.2, smaller, out);
+            int near = tree.within(qx, qy, 0.05, null, all);
+            treeNanos += System.nanoTime() - start;
+
+            // The same, by checking every ball.
+            start = System.nanoTime();
+            double[] d = new double[n];
+            int expectNear = 0;
+            for (int i = 0; i < n; i++) {
+                d[i] = balls[i].distanceTo(qx, qy);
+                if (d[i] <= 0.05)
+                    expectNear++;
+            }
+            Integer[] sorted = new Integer[n];
+            for (int i = 0; i < n; i++)
+                sorted[i] = i;
+            Arrays.sort(sorted, (a, b) -> Double.compare(d[a], d[b]));
+            int expectFound = 0;
+            for (int i = 0; i < n && expectFound < 5; i++) {
+                int e = sorted[i];
+                if (d[e] > 0.2)
+                    break;
+                if (balls[e].getRadius() < size) {
+                    if (expectFound >= found || d[out[expectFound]] != d[e])
+                        wrong++;
+                    expectFound++;
+                }
+            }
+            scanNanos += System.nanoTime() - start;
+            if (expectFound != found || expectNear != near)
+                wrong++;
+        }
+        StdOut.printf("%d queries: tree %.1f us each, checking everything %.1f us each, %d wrong\n",
+                queries, treeNanos / 1e3 / queries, scanNanos / 1e3 / queries, wrong);
+    }
+}
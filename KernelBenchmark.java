@@ -0,0 +1,101 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  Compares the scalar and SIMD versions of the BallKernels loops:
+ *  checks that they produce bit-identical results, then times each.
+ *
+ *  Example: java --add-modules jdk.incubator.vector KernelBenchmark 100000 2000
+ *----------------------------------------------------------------*/
+
+import java.util.Arrays;
+
+public class KernelBenchmark {
+
+    // Number of times each kernel is run before timing starts, so the JIT
+    // compiler has a chance to optimize it.
+    private static final int WARMUP = 200;
+
+    /**
+     * Fill the arrays with random balls, using the given seed so both
+     * implementations see the same scene.
+     */
+    private static void scene(long seed, double[] x, double[] y, double[] vx,
+            double[] vy, double[] r) {
+        StdRandom.setSeed(seed);
+        for (int i = 0; i < x.length; i++) {
+            x[i] = StdRandom.uniform();
+            y[i] = StdRandom.uniform();
+            vx[i] = StdRandom.uniform(-1.0, 1.0);
+            vy[i] = StdRandom.uniform(-1.0, 1.0);
+            r[i] = StdRandom.uniform(0.001, 0.01);
+        }
+    }
+
+    /**
+     * Run a mixed workload (move, bounce, and a touching and covering test
+     * against a "player" ball) for the given number of frames, and return
+     * the average time per ball per frame in nanoseconds.
+     */
+    private static double run(BallKernels k, int frames, double[] x, double[] y,
+            double[] vx, double[] vy, double[] r, int[] hits) {
+        int n = x.length;
+        long hitCount = 0;
+        long start = System.nanoTime();
+        for (int f = 0; f < frames; f++) {
+            k.move(x, y, vx, vy, n, 20);
+            k.bounce(x, y, vx, vy, r, n);
+            hitCount += k.touching(0.5, 0.5, 0.1, x, y, r, n, hits);
+            hitCount += k.covering(0.5, 0.5, 0.1, x, y, r, n, hits);
+        }
+        long elapsed = System.nanoTime() - start;
+        if (hitCount < 0)
+            StdOut.println(hitCount); // keep the JIT from discarding the loops
+        return elapsed / (double)n / frames;
+    }
+
+    public static void main(String args[]) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int frames = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+        BallKernels scalar = BallKernels.scalar();
+        BallKernels best = BallKernels.get();
+        if (best.getClass() == BallKernels.class)
+            StdOut.println("Vector API not available, run with --add-modules jdk.incubator.vector");
+
+        double[] x1 = new double[n], y1 = new double[n], vx1 = new double[n];
+        double[] vy1 = new double[n], r1 = new double[n];
+        double[] x2 = new double[n], y2 = new double[n], vx2 = new double[n];
+        double[] vy2 = new double[n], r2 = new double[n];
+        int[] hits1 = new int[n], hits2 = new int[n];
+
+        // Check the results are identical, frame by frame.
+        scene(42, x1, y1, vx1, vy1, r1);
+        scene(42, x2, y2, vx2, vy2, r2);
+        boolean same = true;
+        for (int f = 0; f < 500 && same; f++) {
+            scalar.move(x1, y1, vx1, vy1, n, 20);
+            best.move(x2, y2, vx2, vy2, n, 20);
+            scalar.bounce(x1, y1, vx1, vy1, r1, n);
+            best.bounce(x2, y2, vx2, vy2, r2, n);
+            int t1 = scalar.touching(0.5, 0.5, 0.1, x1, y1, r1, n, hits1);
+            int t2 = best.touching(0.5, 0.5, 0.1, x2, y2, r2, n, hits2);
+            same = t1 == t2 && Arrays.equals(hits1, 0, t1, hits2, 0, t2);
+            int c1 = scalar.covering(0.5, 0.5, 0.1, x1, y1, r1, n, hits1);
+            int c2 = best.covering(0.5, 0.5, 0.1, x2, y2, r2, n, hits2);
+            same = same && c1 == c2 && Arrays.equals(hits1, 0, c1, hits2, 0, c2);
+            same = same && Arrays.equals(x1, x2) && Arrays.equals(y1, y2)
+                && Arrays.equals(vx1, vx2) && Arrays.equals(vy1, vy2);
+        }
+        StdOut.println("scalar and " + best + " results identical: " + same);
+
+        // Warm up both, then time them.
+        run(scalar, WARMUP, x1, y1, vx1, vy1, r1, hits1);
+        run(best, WARMUP, x2, y2, vx2, vy2, r2, hits2);
+        double scalarTime = run(scalar, frames, x1, y1, vx1, vy1, r1, hits1);
+        double bestTime = run(best, frames, x2, y2, vx2, vy2, r2, hits2);
+        StdOut.printf("%d balls, %d frames\n", n, frames);
+        StdOut.printf("  %-20s %8.3f ns/ball/frame\n", scalar, scalarTime);
+        StdOut.printf("  %-20s %8.3f ns/ball/frame\n", best, bestTime);
+        StdOut.printf("  speedup: %.2fx\n", scalarTime / bestTime);
+    }
+}
@@ -0,0 +1,153 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  Counts how often each duration happens, so that we can ask for
+ *  the median, the 99th percentile and the maximum afterwards,
+ *  without keeping every single measurement.
+ *
+ *  Example: java LatencyHistogram
+ *----------------------------------------------------------------*/
+
+/**
+ * A LatencyHistogram records durations in nanoseconds (or any other whole
+ * numbers that aren't negative):
+ *
+ *    LatencyHistogram h = new LatencyHistogram();
+ *    long start = System.nanoTime();
+ *    ...work...
+ *    h.record(System.nanoTime() - start);
+ *    ...
+ *    StdOut.println("median " + h.percentile(0.50) + " ns");
+ *
+ * Values under 32 are counted exactly. Larger values are put in buckets: 32
+ * buckets between each power of two and the next, so a percentile is never
+ * off by more than about 3%. The count, sum and maximum are kept exactly.
+ * Recording a value takes a few instructions and never creates any objects.
+ */
+public class LatencyHistogram {
+
+    // Number of buckets between one power of two and the next, and its
+    // base 2 logarithm.
+    private static final int SUB = 32, SUB_BITS = 5;
+
+    // Number of values in each bucket.
+    private final long[] counts = new long[(64 - SUB_BITS + 1) * SUB];
+
+    // Number of values, their total and the largest.
+    private long count, sum, max;
+
+    /**
+     * Return a string representation of this histogram, with the count,
+     * median, 99th percentile and maximum.
+     */
+    public String toString() {
+        return "LatencyHistogram(" + count + " values, p50 " + percentile(0.50) + ", p99 "
+            + percentile(0.99) + ", max " + max + ")";
+    }
+
+    /**
+     * Count one value. Negative values are counted as 0.
+     */
+    public void record(long value) {
+        if (value < 0)
+            value = 0;
+        counts[bucket(value)]++;
+        count++;
+        sum += value;
+        if (value > max)
+            max = value;
+    }
+
+    /**
+     * Forget every value recorded so far.
+     */
+    public void clear() {
+        java.util.Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    /**
+     * Return the number of values recorded.
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Return the largest value recorded, or 0 if there are none.
+     */
+    public long max() {
+        return max;
+    }
+
+    /**
+     * Return the average of the values recorded, or 0 if there are none.
+     */
+    public double mean() {
+        return count == 0 ? 0.0 : (double)sum / count;
+    }
+
+    /**
+     * Return (roughly) the value that the given fraction of the values are
+     * less than or equal to, e.g. percentile(0.99) for the 99th percentile.
+     * Returns 0 if there are no values.
+     */
+    public long percentile(double fraction) {
+        if (count == 0)
+            return 0;
+        long rank = (long)Math.ceil(fraction * count);
+        if (rank < 1)
+            rank = 1;
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank)
+                return Math.min(lowest(i + 1) - 1, max);
+        }
+        return max;
+    }
+
+    /**
+     * Return the bucket the value belongs in.
+     */
+    private static int bucket(long value) {
+        if (value < SUB)
+            return (int)value;
+        int power = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int)(value >>> (power - SUB_BITS)) & (SUB - 1);
+        return (power - SUB_BITS + 1) * SUB + sub;
+    }
+
+    /**
+     * Return the smallest value that goes in the given bucket.
+     */
+    private static long lowest(int bucket) {
+        if (bucket < SUB)
+            return bucket;
+        int power = bucket / SUB + SUB_BITS - 1;
+        long sub = bucket % SUB;
+        return (SUB + sub) << (power - SUB_BITS);
+    }
+
+    /**
+     * A main() function for testing purposes. Compares the percentiles of
+     * some random durations with the exact ones.
+     */
+    public static void main(String args[]) {
+        int n = 100000;
+        long[] values = new long[n];
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 0; i < n; i++) {
+            values[i] = (long)(1e6 * Math.exp(StdRandom.gaussian()));
+            h.record(values[i]);
+        }
+        java.util.Arrays.sort(values);
+        for (double p : new double[] { 0.5, 0.9, 0.99, 0.999, 1.0 }) {
+            long exact = values[(int)Math.ceil(p * n) - 1];
+            StdOut.printf("p%-5s exact %9d  histogram %9d  (%+.2f%%)\n", p * 100, exact,
+                    h.percentile(p), 100.0 * (h.percentile(p) - exact) / exact);
+        }
+    }
+}
@@ -0,0 +1,365 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  A version of the Agar game loop that spreads each frame's work
+ *  across several CPU cores, for worlds with many blobs. The result
+ *  of every frame is the same no matter how many threads are used.
+ *
+ *  Example: java ParallelBenchmark
+ *----------------------------------------------------------------*/
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A ParallelAgar game has a number of "eater" blobs (ball 0 is the player,
+ * the rest are computer-controlled blobs that just bounce around) and a
+ * number of food blobs, all stored in a BallWorld, plus some poison stars.
+ * Each call to tick() runs one 20 millisecond frame in four phases:
+ *
+ *   1. bounce and move: every ball is independent, so the balls are split
+ *      into fixed-size chunks, one fork/join task per chunk.
+ *   2. index: the food and poison are put in a SpatialHash (one thread).
+ *   3. collide: each chunk of eaters looks up the food it covers and the
+ *      poison it touches. This only reads the world, and writes its findings
+ *      into a buffer belonging to that chunk.
+ *   4. merge: one thread goes through the findings in order of eater number
+ *      and applies them with Agar.eat() and Agar.poison(), respawning food
+ *      in place and moving poison. If two eaters cover the same food, the lower
+ *      numbered one gets it.
+ *
+ * Chunks have a fixed size and the merge always goes in the same order, so
+ * the number of threads only affects how fast the frame runs, never what
+ * happens in it. All randomness (respawning) happens in the merge phase.
+ */
+public class ParallelAgar {
+
+    // Number of balls handled by one task in the bounce and move phase.
+    private static final int MOVE_CHUNK = 4096;
+
+    // Number of eaters handled by one task in the collision phase.
+    private static final int EAT_CHUNK = 16;
+
+    // Phases run by the fork/join tasks.
+    private static final int MOVE = 0, COLLIDE = 1;
+
+    // Threads used to run the tasks.
+    private final ForkJoinPool pool;
+
+    // All the blobs. Balls 0 to eaters-1 eat, the rest are food.
+    private final BallWorld world;
+    private final int eaters;
+
+    // Stars that shrink any eater touching them, and the number of each.
+    private final Star[] poison;
+    private final IdentityHashMap<Star, Integer> poisonIndex;
+
+    // Used to find which food and poison each eater is touching.
+    private final SpatialHash hash;
+
+    // What each chunk of eaters found in the collision phase: pairs of
+    // (eater, target) stored one after the other, where the target is a food
+    // ball number or ~(poison star number).
+    private final int[][] found;
+    private final int[] foundCount;
+
+    // Lists for each chunk of eaters to collect the hash's answers in,
+    // reused every frame.
+    private final List<List<Ball>> foodNear;
+    private final List<List<Star>> poisonNear;
+
+    // Which food and poison have already been used up during this merge.
+    private final boolean[] foodGone, poisonGone;
+
+    // Number of frames so far.
+    private long ticks;
+
+    /**
+     * Initializes a new game with the given number of eaters (including the
+     * player), food and poison, using the given number of threads.
+     */
+    public ParallelAgar(int eaterCount, int foodCount, int poisonCount, int threads) {
+        if (eaterCount < 1)
+            throw new IllegalArgumentException("need at least the player: " + eaterCount);
+        pool = new ForkJoinPool(threads);
+        world = new BallWorld(eaterCount + foodCount);
+        eaters = eaterCount;
+
+        // The player is a medium-sized red ball in the middle.
+        Ball player = new Ball(0.5, 0.5, 0.07);
+        player.setColor(StdDraw.RED);
+        world.add(player);
+
+        // Other eaters are small, and wander around.
+        for (int i = 1; i < eaterCount; i++) {
+            Ball b = new Ball(StdRandom.uniform(), StdRandom.uniform(), StdRandom.uniform(0.02, 0.04));
+            b.setHue(StdRandom.uniform());
+            b.aimTowards(StdRandom.uniform(), StdRandom.uniform(), 0.05);
+            world.add(b);
+        }
+        for (int i = 0; i < foodCount; i++)
+            world.add(Agar.launchRandomBall());
+
+        poison = new Star[poisonCount];
+        poisonIndex = new IdentityHashMap<Star, Integer>();
+        for (int i = 0; i < poisonCount; i++) {
+            poison[i] = Agar.launchRandomStar();
+            poisonIndex.put(poison[i], i);
+        }
+
+        // Create every ball view now, since tasks must not create them
+        // concurrently later.
+        for (int i = 0; i < world.size(); i++)
+            world.ball(i);
+
+        hash = new SpatialHash(0.1);
+        int chunks = (eaters + EAT_CHUNK - 1) / EAT_CHUNK;
+        found = new int[chunks][16];
+        foundCount = new int[chunks];
+        foodNear = new ArrayList<List<Ball>>(chunks);
+        poisonNear = new ArrayList<List<Star>>(chunks);
+        for (int c = 0; c < chunks; c++) {
+            foodNear.add(new ArrayList<Ball>());
+            poisonNear.add(new ArrayList<Star>());
+        }
+        foodGone = new boolean[world.size()];
+        poisonGone = new boolean[poisonCount];
+    }
+
+    /**
+     * Return a string representation of this game. Possibly useful for
+     * debugging.
+     */
+    public String toString() {
+        return "ParallelAgar(" + eaters + " eaters, " + (world.size() - eaters) + " food, "
+            + poison.length + " poison, " + pool.getParallelism() + " threads) after "
+            + ticks + " ticks";
+    }
+
+    /**
+     * Return the world holding all of the blobs. Balls 0 to eaterCount()-1
+     * are the eaters (0 is the player), the rest are food.
+     */
+    public BallWorld getWorld() {
+        return world;
+    }
+
+    /**
+     * Return the number of eater blobs, including the player.
+     */
+    public int eaterCount() {
+        return eaters;
+    }
+
+    /**
+     * Return the number of poison stars.
+     */
+    public int poisonCount() {
+        return poison.length;
+    }
+
+    /**
+     * Return poison star number i.
+     */
+    public Star getPoison(int i) {
+        return poison[i];
+    }
+
+    /**
+     * Return the total number of sprites (eaters, food and poison).
+     */
+    public int entityCount() {
+        return world.size() + poison.length;
+    }
+
+    /**
+     * Return the number of frames simulated so far.
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Stop the worker threads. The game can't be used after this.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Advance the game by one frame, with the player aiming towards the given
+     * point.
+     */
+    public void tick(double aimX, double aimY) {
+        world.ball(0).aimTowards(aimX, aimY, AgarWorld.PLAYER_SPEED);
+        tick();
+    }
+
+    /**
+     * Advance the game by one frame, with every eater (the player too)
+     * carrying on in whatever direction it was last aimed. Used when the
+     * caller steers the eaters itself.
+     */
+    public void tick() {
+        // Phase 1: bounce and move.
+        pool.invoke(new Task(MOVE, 0, (world.size() + MOVE_CHUNK - 1) / MOVE_CHUNK));
+
+        // Phase 2: index the food and poison. The collision checks work star
+        // corners out from the shared shapes, so the tasks only read them.
+        hash.clear();
+        for (int i = eaters; i < world.size(); i++)
+            hash.add(world.ball(i));
+        for (int i = 0; i < poison.length; i++)
+            hash.add(poison[i]);
+        hash.build();
+
+        // Phase 3: find collisions.
+        pool.invoke(new Task(COLLIDE, 0, found.length));
+
+        // Phase 4: apply them, in order.
+        merge();
+        ticks++;
+    }
+
+    /**
+     * Run one chunk of the given phase.
+     */
+    private void run(int phase, int chunk) {
+        if (phase == MOVE) {
+            int from = chunk * MOVE_CHUNK;
+            int to = Math.min(from + MOVE_CHUNK, world.size());
+            world.bounceRange(from, to);
+            world.moveRange(from, to, AgarWorld.TICK);
+        } else {
+            foundCount[chunk] = 0;
+            int from = chunk * EAT_CHUNK;
+            int to = Math.min(from + EAT_CHUNK, eaters);
+            List<Ball> foods = foodNear.get(chunk);
+            List<Star> stars = poisonNear.get(chunk);
+            for (int e = from; e < to; e++) {
+                Ball eater = world.ball(e);
+                foods.clear();
+                stars.clear();
+                hash.queryCovered(eater, foods);
+                hash.queryTouchingStars(eater, stars);
+                for (int k = 0; k < foods.size(); k++)
+                    record(chunk, e, world.indexOf(foods.get(k)));
+                for (int k = 0; k < stars.size(); k++)
+                    record(chunk, e, ~poisonIndex.get(stars.get(k)));
+            }
+        }
+    }
+
+    /**
+     * Add an (eater, target) pair to the findings of the given chunk.
+     */
+    private void record(int chunk, int eater, int target) {
+        int n = foundCount[chunk];
+        if (n + 2 > found[chunk].length)
+            found[chunk] = Arrays.copyOf(found[chunk], 2 * found[chunk].length);
+        found[chunk][n] = eater;
+        found[chunk][n+1] = target;
+        foundCount[chunk] = n + 2;
+    }
+
+    /**
+     * Apply the findings of the collision phase, chunk by chunk, so eaters
+     * are handled in increasing order.
+     */
+    private void merge() {
+        Arrays.fill(foodGone, false);
+        Arrays.fill(poisonGone, false);
+        for (int c = 0; c < found.length; c++) {
+            for (int k = 0; k < foundCount[c]; k += 2) {
+                Ball eater = world.ball(found[c][k]);
+                int target = found[c][k+1];
+                if (target >= 0 && !foodGone[target]) {
+                    foodGone[target] = true;
+                    Agar.eat(eater, world.ball(target));
+                    Agar.respawn(world.ball(target));
+                } else if (target < 0 && !poisonGone[~target]) {
+                    poisonGone[~target] = true;
+                    Agar.poison(eater);
+                    poison[~target].setPosition(StdRandom.uniform(), StdRandom.uniform());
+                }
+            }
+        }
+    }
+
+    /**
+     * Return a number summarizing the exact state of every blob and star.
+     * Two games with the same checksum are (almost certainly) identical.
+     */
+    public long checksum() {
+        long sum = ticks;
+        for (int i = 0; i < world.size(); i++) {
+            Ball b = world.ball(i);
+            sum = 31 * sum + Double.doubleToLongBits(b.getX());
+            sum = 31 * sum + Double.doubleToLongBits(b.getY());
+            sum = 31 * sum + Double.doubleToLongBits(b.getXVelocity());
+            sum = 31 * sum + Double.doubleToLongBits(b.getYVelocity());
+            sum = 31 * sum + Double.doubleToLongBits(b.getRadius());
+        }
+        for (int i = 0; i < poison.length; i++) {
+            sum = 31 * sum + Double.doubleToLongBits(poison[i].getX());
+            sum = 31 * sum + Double.doubleToLongBits(poison[i].getY());
+        }
+        return sum;
+    }
+
+    /**
+     * Draw the food, the poison and then the eaters on the StdDraw canvas.
+     */
+    public void draw() {
+        for (int i = eaters; i < world.size(); i++)
+            world.ball(i).draw();
+        for (int i = 0; i < poison.length; i++)
+            poison[i].draw();
+        for (int i = eaters - 1; i >= 0; i--)
+            world.ball(i).draw();
+    }
+
+    /**
+     * Add the food, the poison and then the eaters to the given render queue,
+     * in layers 0, 1 and 2. The player goes in layer 3 so it stays on top.
+     */
+    public void draw(RenderQueue queue) {
+        for (int i = eaters; i < world.size(); i++)
+            queue.add(world.ball(i), 0);
+        for (int i = 0; i < poison.length; i++)
+            queue.add(poison[i], 1);
+        for (int i = 1; i < eaters; i++)
+            queue.add(world.ball(i), 2);
+        queue.add(world.ball(0), 3);
+    }
+
+    /**
+     * A fork/join task that runs chunks lo to hi-1 of a phase, splitting in
+     * half until there is one chunk left.
+     */
+    private class Task extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int phase, lo, hi;
+
+        Task(int phase, int lo, int hi) {
+            this.phase = phase;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        protected void compute() {
+            if (hi - lo <= 1) {
+                if (hi > lo)
+                    run(phase, lo);
+            } else {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new Task(phase, lo, mid), new Task(phase, mid, hi));
+            }
+        }
+    }
+}
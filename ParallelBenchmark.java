@@ -0,0 +1,67 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  Measures how ParallelAgar speeds up with more threads, and checks
+ *  that every thread count produces exactly the same game.
+ *
+ *  Example: java ParallelBenchmark 500 256 20000 200 8
+ *           (500 ticks, 256 eaters, 20000 food, 200 poison, up
+ *           to 8 threads)
+ *----------------------------------------------------------------*/
+
+public class ParallelBenchmark {
+
+    /**
+     * Run a game with the given settings and seed for the given number of
+     * ticks, after a short warmup, and print how long it took.
+     * Returns the time taken in nanoseconds.
+     */
+    private static long run(int threads, int ticks, int eaters, int food,
+            int poison, long seed, long[] checksum) {
+        StdRandom.setSeed(seed);
+        ParallelAgar game = new ParallelAgar(eaters, food, poison, threads);
+        long start = System.nanoTime();
+        for (int t = 0; t < ticks; t++)
+            game.tick(Headless.aimX(t), Headless.aimY(t));
+        long elapsed = System.nanoTime() - start;
+        checksum[0] = game.checksum();
+        game.shutdown();
+        return elapsed;
+    }
+
+    public static void main(String args[]) {
+        System.setProperty("java.awt.headless", "true");
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int eaters = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+        int food = args.length > 2 ? Integer.parseInt(args[2]) : 20000;
+        int poison = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+        int maxThreads = args.length > 4 ? Integer.parseInt(args[4])
+            : Runtime.getRuntime().availableProcessors();
+        long seed = 42;
+        Agar.verbose = false;
+
+        // Warm up the JIT compiler with a short single-threaded run.
+        long[] checksum = new long[1];
+        run(1, Math.max(ticks / 10, 1), eaters, food, poison, seed, checksum);
+
+        StdOut.printf("%d ticks, %d eaters, %d food, %d poison\n", ticks, eaters, food, poison);
+        StdOut.printf("%8s %12s %10s %18s\n", "threads", "ticks/sec", "speedup", "checksum");
+        long base = 0;
+        long expected = 0;
+        boolean same = true;
+        for (int threads = 1; threads <= maxThreads; threads = threads < maxThreads && 2 * threads > maxThreads ? maxThreads : 2 * threads) {
+            long elapsed = run(threads, ticks, eaters, food, poison, seed, checksum);
+            if (threads == 1) {
+                base = elapsed;
+                expected = checksum[0];
+            }
+            same = same && checksum[0] == expected;
+            StdOut.printf("%8d %12.1f %9.2fx %18x\n", threads, ticks / (elapsed / 1e9),
+                    base / (double)elapsed, checksum[0]);
+            if (threads == maxThreads)
+                break;
+        }
+        StdOut.println(same ? "all thread counts gave identical results"
+                : "MISMATCH: results depend on the thread count");
+    }
+}
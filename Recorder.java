@@ -0,0 +1,259 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  Records an Agar game to a file, so that it can be played back
+ *  exactly, frame by frame, later on (see Replayer).
+ *
+ *  Example: java Recorder game.log 10000 500 20 42
+ *           (record 10000 ticks with 500 food, 20 poison, seed 42)
+ *----------------------------------------------------------------*/
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A Recorder runs an AgarWorld and saves everything needed to repeat it: the
+ * point the player aimed at on every tick, plus a "keyframe" with the complete
+ * state of the game every so many ticks.
+ *
+ *    Recorder recorder = new Recorder(new File("game.log"), 500, 20, 42, 100);
+ *    AgarWorld world = recorder.getWorld();
+ *    while (...) {
+ *        recorder.tick(StdDraw.mouseX(), StdDraw.mouseY());
+ *        ...draw world...
+ *    }
+ *    recorder.close();
+ *
+ * The only other input to the game is StdRandom. The recorder seeds it when
+ * it starts, and again right after each keyframe with a seed worked out from
+ * the original seed and the tick number. So a game can be restarted from any
+ * keyframe, with the same random numbers, without knowing what happened
+ * before it.
+ *
+ * The file is written through a memory mapping, so saving a tick is just
+ * storing two numbers in memory; the operating system writes it to disk in
+ * the background. Its layout (all numbers big-endian) is:
+ *
+ *    header      magic, version, seed, food count, poison count, keyframe
+ *                interval K, tick length, world bounds, number of ticks
+ *    keyframe 0  AgarWorld.writeState() before tick 0
+ *    aim 0..K-1  (x, y) as two doubles for each of ticks 0 to K-1
+ *    keyframe 1  state before tick K
+ *    aim K..2K-1
+ *    ...
+ *
+ * Every part has a fixed size, so the position of any keyframe or tick can
+ * be calculated directly.
+ */
+public class Recorder implements Closeable {
+
+    // Identifies a game log file ("AGR1"), and the version of the layout.
+    static final int MAGIC = 0x41475231;
+    static final int VERSION = 2;
+
+    // Size of the header, and the position of the tick count in it.
+    static final int HEADER_BYTES = 80;
+    static final int TICK_COUNT_AT = 64;
+
+    // Size of the aim point saved for each tick.
+    static final int AIM_BYTES = 16;
+
+    // Size of the first mapping, and of each later one once the file is too
+    // big to map in one piece.
+    private static final int CHUNK = 1 << 20;
+
+    // The file, and the part of it currently mapped into memory, which
+    // starts at byte mapStart.
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private MappedByteBuffer map;
+    private long mapStart;
+
+    // Number of bytes written so far.
+    private long length;
+
+    // The game being recorded, and its settings.
+    private final AgarWorld world;
+    private final long seed;
+    private final int interval;
+    private final int tickLength;
+
+    // Number of ticks recorded so far.
+    private long ticks;
+
+    /**
+     * Start recording a new 20 millisecond per tick game, in the unit square,
+     * with the given amount of food and poison and the given random seed, to
+     * the given file. A keyframe is saved every interval ticks. The file is
+     * replaced if it exists.
+     */
+    public Recorder(File file, int foodCount, int poisonCount, long seed, int interval)
+            throws IOException {
+        this(file, foodCount, poisonCount, seed, interval, WorldBounds.UNIT, AgarWorld.TICK);
+    }
+
+    /**
+     * Start recording a new game, like the other constructor, but in the
+     * given world and with ticks of the given length in milliseconds.
+     */
+    public Recorder(File file, int foodCount, int poisonCount, long seed, int interval,
+            WorldBounds bounds, int tickLength) throws IOException {
+        if (interval < 1)
+            throw new IllegalArgumentException("keyframe interval must be positive: " + interval);
+        this.seed = seed;
+        this.interval = interval;
+        this.tickLength = tickLength;
+
+        StdRandom.setSeed(seed);
+        this.world = new AgarWorld(foodCount, poisonCount, bounds);
+
+        this.file = new RandomAccessFile(file, "rw");
+        this.file.setLength(0);
+        this.channel = this.file.getChannel();
+        this.mapStart = 0;
+        this.map = channel.map(FileChannel.MapMode.READ_WRITE, 0, CHUNK);
+
+        map.putInt(MAGIC);
+        map.putInt(VERSION);
+        map.putLong(seed);
+        map.putInt(foodCount);
+        map.putInt(poisonCount);
+        map.putInt(interval);
+        map.putInt(tickLength);
+        map.putDouble(bounds.getXMin());
+        map.putDouble(bounds.getYMin());
+        map.putDouble(bounds.getXMax());
+        map.putDouble(bounds.getYMax());
+        map.putLong(0);
+        length = HEADER_BYTES;
+        map.position(HEADER_BYTES);
+    }
+
+    /**
+     * Return a string representation of this recorder. Possibly useful for
+     * debugging.
+     */
+    public String toString() {
+        return "Recorder(" + ticks + " ticks, " + length + " bytes, seed " + seed + ")";
+    }
+
+    /**
+     * Return the game being recorded. It should only be changed by calling
+     * tick() on this recorder.
+     */
+    public AgarWorld getWorld() {
+        return world;
+    }
+
+    /**
+     * Return the number of ticks recorded so far.
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Record the aim point for one tick and advance the game, saving a
+     * keyframe first if one is due.
+     */
+    public void tick(double aimX, double aimY) {
+        if (ticks % interval == 0) {
+            int size = AgarWorld.stateBytes(world.foodCount(), world.poisonCount());
+            reserve(size);
+            world.writeState(map);
+            length += size;
+            StdRandom.setSeed(keyframeSeed(seed, ticks));
+        }
+        reserve(AIM_BYTES);
+        map.putDouble(aimX);
+        map.putDouble(aimY);
+        length += AIM_BYTES;
+
+        world.tick(aimX, aimY, tickLength);
+        ticks++;
+        if (mapStart == 0)
+            map.putLong(TICK_COUNT_AT, ticks);
+    }
+
+    /**
+     * Make sure the mapping has room for the given number of bytes at the
+     * end of the file, mapping a bigger part of the file if not.
+     */
+    private void reserve(int bytes) {
+        long end = length + bytes;
+        if (end <= mapStart + map.capacity())
+            return;
+        try {
+            map.force();
+            long size = Math.max(end, 2 * (mapStart + map.capacity()));
+            if (size <= Integer.MAX_VALUE) {
+                // Map from the start, so the header stays mapped and the
+                // tick count can be kept up to date.
+                mapStart = 0;
+            } else {
+                // Too big to map in one piece, so just map the end. The tick
+                // count is written when the recording is closed.
+                mapStart = length;
+                size = Math.max(bytes, CHUNK);
+            }
+            map = channel.map(FileChannel.MapMode.READ_WRITE, mapStart, size);
+            map.position((int)(length - mapStart));
+        } catch (IOException e) {
+            throw new RuntimeException("can't extend game log", e);
+        }
+    }
+
+    /**
+     * Finish recording: write everything to disk, trim the file to the part
+     * actually used, and close it.
+     */
+    public void close() throws IOException {
+        map.force();
+        if (mapStart > 0) {
+            map = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            map.putLong(TICK_COUNT_AT, ticks);
+            map.force();
+        }
+        map = null;
+        file.setLength(length);
+        file.close();
+    }
+
+    /**
+     * Return the random seed used from the keyframe before the given tick
+     * onwards, worked out from the seed for the whole game.
+     */
+    static long keyframeSeed(long seed, long tick) {
+        long z = seed + (tick + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * A main() function for testing purposes. Records a game without a
+     * window, with the player following the same path as in Headless.
+     */
+    public static void main(String args[]) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        Agar.verbose = false;
+
+        String name = args.length > 0 ? args[0] : "game.log";
+        long count = args.length > 1 ? Long.parseLong(args[1]) : 10000;
+        int food = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+        int poison = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 42;
+
+        long start = System.nanoTime();
+        Recorder recorder = new Recorder(new File(name), food, poison, seed, 100);
+        for (long t = 0; t < count; t++)
+            recorder.tick(Headless.aimX(t), Headless.aimY(t));
+        recorder.close();
+        StdOut.printf("%s in %.3f s\n", recorder, (System.nanoTime() - start) / 1e9);
+        StdOut.println("final state: " + recorder.getWorld());
+    }
+}
@@ -0,0 +1,366 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  Collects everything to be drawn in one frame, then draws it
+ *  grouped by color, so the pen color only changes once per color
+ *  instead of once per sprite.
+ *
+ *  Example: java RenderQueue 5000
+ *----------------------------------------------------------------*/
+
+import java.awt.Color;
+import java.util.Arrays;
+
+/**
+ * A RenderQueue is used instead of calling draw() on each sprite. Sprites are
+ * added to the queue during the frame, and flush() draws them all:
+ *
+ *    RenderQueue queue = new RenderQueue();
+ *    ...
+ *    StdDraw.clear(StdDraw.WHITE);
+ *    for (Ball b : food)
+ *        queue.add(b, 0);
+ *    queue.add(player, 1);
+ *    queue.flush();
+ *    StdDraw.show(20);
+ *
+ * Each sprite is added with a layer number. Lower layers are drawn first, so
+ * higher layers appear on top, just as if draw() had been called layer by
+ * layer. Within a layer, sprites are drawn grouped by color and then by kind
+ * (circles, then polygons), so the order they were added in doesn't matter
+ * and overlapping sprites in the same layer may end up stacked differently.
+ *
+ * The queue copies each sprite's position, size and color when it is added,
+ * and keeps its buffers from one frame to the next, so once it has grown to
+ * the size of the scene it doesn't create any new objects. After each flush()
+ * it reports how many shapes were drawn and how many times the pen color was
+ * changed, along with how many changes drawing in the order added would have
+ * needed.
+ *
+ * Shapes are drawn from scratch every frame rather than pasted from pictures
+ * drawn ahead of time. StdDraw can only paste pictures it loads from files,
+ * and AWT keeps every picture it has loaded for as long as the program runs,
+ * so a cache of them could never be held to a memory limit.
+ */
+public class RenderQueue {
+
+    // Kinds of shape.
+    private static final int CIRCLE = 0, POLYGON = 1;
+
+    // Largest layer number.
+    public static final int MAX_LAYER = 127;
+
+    // Number of shapes queued, and for each one its kind, layer, color
+    // number, and numbers: (x, y, radius) for a circle, or (offset into the
+    // corner arrays, number of corners, unused) for a polygon.
+    private int count;
+    private int[] kind, layer, colorSlot;
+    private double[] a, b, c;
+
+    // Corners of all of the queued polygons, one after another.
+    private double[] cornerX, cornerY;
+    private int corners;
+
+    // The colors used so far this frame, numbered in order of first use,
+    // and a hash table from RGB value to number.
+    private Color[] colors;
+    private int colorCount;
+    private int[] tableRGB, tableSlot;
+
+    // Queued shapes in drawing order, as (layer, color, kind, shape number)
+    // packed into one long each so that they can be sorted as numbers.
+    private long[] order;
+
+    // Reusable corner arrays for StdDraw.filledPolygon(), by length.
+    private double[][] scratchX, scratchY;
+
+    // Counts from the last call to flush().
+    private int drawCalls, stateChanges, unsortedStateChanges;
+
+    /**
+     * Initializes an empty render queue.
+     */
+    public RenderQueue() {
+        kind = new int[64];
+        layer = new int[64];
+        colorSlot = new int[64];
+        a = new double[64];
+        b = new double[64];
+        c = new double[64];
+        cornerX = new double[256];
+        cornerY = new double[256];
+        colors = new Color[16];
+        tableRGB = new int[64];
+        tableSlot = new int[64];
+        Arrays.fill(tableSlot, -1);
+        order = new long[64];
+        scratchX = new double[0][];
+        scratchY = new double[0][];
+    }
+
+    /**
+     * Return a string representation of this queue. Possibly useful for
+     * debugging.
+     */
+    public String toString() {
+        return "RenderQueue(" + count + " queued; last frame " + drawCalls + " draw calls, "
+            + stateChanges + " color changes, " + unsortedStateChanges + " unsorted)";
+    }
+
+    /**
+     * Return the number of shapes waiting to be drawn.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Return the number of shapes drawn by the last call to flush().
+     */
+    public int drawCalls() {
+        return drawCalls;
+    }
+
+    /**
+     * Return the number of times the last call to flush() changed the pen
+     * color.
+     */
+    public int stateChanges() {
+        return stateChanges;
+    }
+
+    /**
+     * Return the number of times the last call to flush() would have changed
+     * the pen color if it had drawn the shapes in the order they were added.
+     */
+    public int unsortedStateChanges() {
+        return unsortedStateChanges;
+    }
+
+    /**
+     * Queue a ball to be drawn, as it is right now, in the given layer.
+     */
+    public void add(Ball ball, int layer) {
+        circle(ball.getX(), ball.getY(), ball.getRadius(), ball.getColor(), layer);
+    }
+
+    /**
+     * Queue a star to be drawn, as it is right now, in the given layer.
+     */
+    public void add(Star star, int layer) {
+        star(star.getX(), star.getY(), star.getRadius(), star.getTurnCos(), star.getTurnSin(),
+                StarShape.of(star.getPoints()), star.getColor(), layer);
+    }
+
+    /**
+     * Queue a filled circle centered at (x, y) with radius r.
+     */
+    public void circle(double x, double y, double r, Color color, int layer) {
+        int i = next(CIRCLE, color, layer);
+        a[i] = x;
+        b[i] = y;
+        c[i] = r;
+    }
+
+    /**
+     * Queue a filled polygon with corners (px[0], py[0]), (px[1], py[1]) and
+     * so on. The corners are copied, so the arrays can be reused afterwards.
+     */
+    public void polygon(double[] px, double[] py, Color color, int layer) {
+        int n = px.length;
+        if (corners + n > cornerX.length) {
+            int size = Math.max(corners + n, 2 * cornerX.length);
+            cornerX = Arrays.copyOf(cornerX, size);
+            cornerY = Arrays.copyOf(cornerY, size);
+        }
+        System.arraycopy(px, 0, cornerX, corners, n);
+        System.arraycopy(py, 0, cornerY, corners, n);
+        int i = next(POLYGON, color, layer);
+        a[i] = corners;
+        b[i] = n;
+        corners += n;
+    }
+
+    /**
+     * Queue a filled star with the given shape, centered at (x, y) with the
+     * given radius. The corners are worked out straight into the queue, so
+     * the star doesn't need arrays of its own.
+     */
+    public void star(double x, double y, double r, StarShape shape, Color color, int layer) {
+        star(x, y, r, 1.0, 0.0, shape, color, layer);
+    }
+
+    /**
+     * Like star(x, y, r, shape, color, layer), but for a star turned
+     * counterclockwise by the angle with the given cosine and sine.
+     */
+    public void star(double x, double y, double r, double cos, double sin, StarShape shape,
+            Color color, int layer) {
+        int n = shape.corners();
+        if (corners + n > cornerX.length) {
+            int size = Math.max(corners + n, 2 * cornerX.length);
+            cornerX = Arrays.copyOf(cornerX, size);
+            cornerY = Arrays.copyOf(cornerY, size);
+        }
+        shape.place(x, y, r, cos, sin, cornerX, cornerY, corners);
+        int i = next(POLYGON, color, layer);
+        a[i] = corners;
+        b[i] = n;
+        corners += n;
+    }
+
+    /**
+     * Make room for one more shape and fill in what every shape has. Returns
+     * the new shape's number.
+     */
+    private int next(int k, Color color, int l) {
+        if (l < 0 || l > MAX_LAYER)
+            throw new IllegalArgumentException("layer must be 0 to " + MAX_LAYER + ": " + l);
+        if (count == kind.length) {
+            int size = 2 * count;
+            kind = Arrays.copyOf(kind, size);
+            layer = Arrays.copyOf(layer, size);
+            colorSlot = Arrays.copyOf(colorSlot, size);
+            a = Arrays.copyOf(a, size);
+            b = Arrays.copyOf(b, size);
+            c = Arrays.copyOf(c, size);
+        }
+        int i = count++;
+        kind[i] = k;
+        layer[i] = l;
+        colorSlot[i] = slot(color);
+        return i;
+    }
+
+    /**
+     * Return the number for the given color this frame, giving it the next
+     * number if it hasn't been used yet. Colors with the same RGB value get
+     * the same number, even if they are different Color objects.
+     */
+    private int slot(Color color) {
+        int rgb = color.getRGB();
+        int mask = tableRGB.length - 1;
+        int h = (rgb * 0x9E3779B9) >>> 7 & mask;
+        while (tableSlot[h] >= 0) {
+            if (tableRGB[h] == rgb)
+                return tableSlot[h];
+            h = (h + 1) & mask;
+        }
+        if (colorCount == colors.length)
+            colors = Arrays.copyOf(colors, 2 * colors.length);
+        colors[colorCount] = color;
+        tableRGB[h] = rgb;
+        tableSlot[h] = colorCount;
+        colorCount++;
+        if (2 * colorCount > tableRGB.length)
+            rehash();
+        return colorCount - 1;
+    }
+
+    /**
+     * Double the size of the color hash table.
+     */
+    private void rehash() {
+        tableRGB = new int[2 * tableRGB.length];
+        tableSlot = new int[tableRGB.length];
+        Arrays.fill(tableSlot, -1);
+        int mask = tableRGB.length - 1;
+        for (int s = 0; s < colorCount; s++) {
+            int rgb = colors[s].getRGB();
+            int h = (rgb * 0x9E3779B9) >>> 7 & mask;
+            while (tableSlot[h] >= 0)
+                h = (h + 1) & mask;
+            tableRGB[h] = rgb;
+            tableSlot[h] = s;
+        }
+    }
+
+    /**
+     * Draw everything in the queue on the StdDraw canvas, layer by layer and
+     * grouped by color, and empty the queue. After calling this function,
+     * clients should call one of the StdDraw.show() functions so that the
+     * updated canvas appears on the screen.
+     */
+    public void flush() {
+        // Sort by layer, then color, then kind. Shape numbers are less than
+        // 2^32, color numbers less than 2^23 and layers less than 2^7.
+        if (order.length < count)
+            order = new long[kind.length];
+        unsortedStateChanges = 0;
+        for (int i = 0; i < count; i++) {
+            order[i] = (long)layer[i] << 56 | (long)colorSlot[i] << 33
+                | (long)kind[i] << 32 | i;
+            if (i == 0 || colorSlot[i] != colorSlot[i-1])
+                unsortedStateChanges++;
+        }
+        Arrays.sort(order, 0, count);
+
+        drawCalls = 0;
+        stateChanges = 0;
+        int pen = -1;
+        for (int k = 0; k < count; k++) {
+            int i = (int)order[k];
+            if (colorSlot[i] != pen) {
+                pen = colorSlot[i];
+                StdDraw.setPenColor(colors[pen]);
+                stateChanges++;
+            }
+            if (kind[i] == CIRCLE) {
+                StdDraw.filledCircle(a[i], b[i], c[i]);
+            } else {
+                int from = (int)a[i], n = (int)b[i];
+                if (n >= scratchX.length) {
+                    scratchX = Arrays.copyOf(scratchX, n + 1);
+                    scratchY = Arrays.copyOf(scratchY, n + 1);
+                }
+                if (scratchX[n] == null) {
+                    scratchX[n] = new double[n];
+                    scratchY[n] = new double[n];
+                }
+                System.arraycopy(cornerX, from, scratchX[n], 0, n);
+                System.arraycopy(cornerY, from, scratchY[n], 0, n);
+                StdDraw.filledPolygon(scratchX[n], scratchY[n]);
+            }
+            drawCalls++;
+        }
+
+        // Empty the queue, ready for the next frame.
+        count = 0;
+        corners = 0;
+        Arrays.fill(colors, 0, colorCount, null);
+        colorCount = 0;
+        Arrays.fill(tableSlot, -1);
+    }
+
+    /**
+     * A main() function for testing purposes. Draws a few thousand random
+     * balls and stars through a render queue, and prints how many pen color
+     * changes it saved.
+     */
+    public static void main(String args[]) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        Ball[] balls = new Ball[n];
+        for (int i = 0; i < n; i++)
+            balls[i] = Agar.launchRandomBall();
+        Star[] stars = new Star[n / 10];
+        for (int i = 0; i < stars.length; i++)
+            stars[i] = Agar.launchRandomStar();
+
+        RenderQueue queue = new RenderQueue();
+        for (int frame = 0; true; frame++) {
+            for (int i = 0; i < n; i++) {
+                balls[i].bounce();
+                balls[i].move(20);
+            }
+            StdDraw.clear(StdDraw.WHITE);
+            for (int i = 0; i < n; i++)
+                queue.add(balls[i], 0);
+            for (int i = 0; i < stars.length; i++)
+                queue.add(stars[i], 1);
+            queue.flush();
+            StdDraw.show(20);
+            if (frame % 100 == 0)
+                StdOut.println(queue);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  Plays back an Agar game saved by Recorder, without a window, as
+ *  fast as the computer can go. It can jump to any tick, and check
+ *  that the game still does exactly what it did when recorded.
+ *
+ *  Example: java Replayer game.log
+ *           (replay all of it, checking every keyframe)
+ *           java Replayer game.log 5000
+ *           (jump to tick 5000 and print the state there)
+ *----------------------------------------------------------------*/
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A Replayer reads a game log written by Recorder and re-creates the game in
+ * an AgarWorld of its own:
+ *
+ *    Replayer replay = new Replayer(new File("game.log"));
+ *    replay.seek(5000);                 // the game just before tick 5000
+ *    while (replay.step())              // then run the rest of it
+ *        ...look at replay.getWorld()...
+ *
+ * seek() loads the last keyframe at or before the tick asked for, seeds
+ * StdRandom just as the recording did, and simulates the remaining ticks
+ * using the recorded aim points. So it only ever has to simulate fewer ticks
+ * than the keyframe interval.
+ *
+ * While stepping, each time the replay reaches a keyframe it can compare the
+ * game with the saved keyframe (see verify()). Any difference means the game
+ * code no longer behaves the way it did when the log was made.
+ */
+public class Replayer {
+
+    // Most of the file to map into memory at once.
+    private static final long WINDOW = 1 << 30;
+
+    // The log file, and the part of it currently mapped into memory, which
+    // starts at byte mapStart.
+    private final FileChannel channel;
+    private final long fileLength;
+    private MappedByteBuffer map;
+    private long mapStart;
+
+    // Settings read from the header.
+    private final long seed;
+    private final int foodCount, poisonCount;
+    private final int interval;
+    private final int tickLength;
+    private final long tickCount;
+    private final int stateBytes;
+
+    // The game being replayed.
+    private final AgarWorld world;
+
+    // Number of ticks replayed so far, i.e. the tick to be replayed next.
+    private long tick;
+
+    // Scratch space for comparing the game against a keyframe.
+    private final ByteBuffer scratch;
+
+    // Whether step() compares against each keyframe it reaches, and how many
+    // keyframes didn't match.
+    private boolean verifying;
+    private long mismatches;
+
+    /**
+     * Open a game log and get ready to replay it from the start.
+     */
+    public Replayer(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        channel = raf.getChannel();
+        fileLength = channel.size();
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Recorder.HEADER_BYTES);
+        if (header.getInt() != Recorder.MAGIC)
+            throw new IOException(file + " is not a game log");
+        int version = header.getInt();
+        if (version != Recorder.VERSION)
+            throw new IOException(file + " has unsupported version " + version);
+        seed = header.getLong();
+        foodCount = header.getInt();
+        poisonCount = header.getInt();
+        interval = header.getInt();
+        tickLength = header.getInt();
+        WorldBounds bounds = new WorldBounds(header.getDouble(), header.getDouble(),
+                header.getDouble(), header.getDouble());
+        tickCount = header.getLong();
+        stateBytes = AgarWorld.stateBytes(foodCount, poisonCount);
+
+        // The world's initial random state doesn't matter, since it is
+        // replaced by keyframe 0 straight away.
+        world = new AgarWorld(foodCount, poisonCount, bounds);
+        scratch = ByteBuffer.allocate(stateBytes);
+        seek(0);
+    }
+
+    /**
+     * Return a string representation of this replay. Possibly useful for
+     * debugging.
+     */
+    public String toString() {
+        return "Replayer(tick " + tick + " of " + tickCount + ", keyframe every " + interval
+            + ", seed " + seed + ")";
+    }
+
+    /**
+     * Return the game being replayed.
+     */
+    public AgarWorld getWorld() {
+        return world;
+    }
+
+    /**
+     * Return the number of ticks in the log.
+     */
+    public long length() {
+        return tickCount;
+    }
+
+    /**
+     * Return the tick that step() will replay next.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Choose whether step() checks the game against each keyframe it passes.
+     */
+    public void verify(boolean on) {
+        verifying = on;
+    }
+
+    /**
+     * Return the number of keyframes that didn't match the replayed game.
+     */
+    public long mismatches() {
+        return mismatches;
+    }
+
+    /**
+     * Put the game in the state it was in just before the given tick.
+     */
+    public void seek(long target) {
+        if (target < 0 || target > tickCount)
+            throw new IllegalArgumentException("tick " + target + " is not in 0 to " + tickCount);
+        tick = 0;
+        if (tickCount == 0)
+            return;   // nothing was recorded, not even keyframe 0
+        long key = Math.min(target / interval, (tickCount - 1) / interval);
+        world.readState(read(keyframeOffset(key), stateBytes));
+        StdRandom.setSeed(Recorder.keyframeSeed(seed, key * interval));
+        tick = key * interval;
+
+        boolean wasVerifying = verifying;
+        verifying = false;
+        while (tick < target)
+            step();
+        verifying = wasVerifying;
+    }
+
+    /**
+     * Replay one tick. Returns false (and does nothing) if the end of the log
+     * has been reached.
+     */
+    public boolean step() {
+        if (tick >= tickCount)
+            return false;
+        if (tick % interval == 0 && tick > 0) {
+            // The recording saved a keyframe and reseeded here.
+            if (verifying)
+                check(tick / interval);
+            StdRandom.setSeed(Recorder.keyframeSeed(seed, tick));
+        }
+        int at = mapped(aimOffset(tick), Recorder.AIM_BYTES);
+        world.tick(map.getDouble(at), map.getDouble(at + 8), tickLength);
+        tick++;
+        return true;
+    }
+
+    /**
+     * Compare the game against keyframe number key, counting a mismatch if
+     * they aren't identical.
+     */
+    private void check(long key) {
+        scratch.clear();
+        world.writeState(scratch);
+        scratch.flip();
+        if (!scratch.equals(read(keyframeOffset(key), stateBytes)))
+            mismatches++;
+    }
+
+    /**
+     * Return the position in the file of keyframe number key.
+     */
+    private long keyframeOffset(long key) {
+        return Recorder.HEADER_BYTES + key * (stateBytes + (long)interval * Recorder.AIM_BYTES);
+    }
+
+    /**
+     * Return the position in the file of the aim point for the given tick.
+     */
+    private long aimOffset(long t) {
+        return keyframeOffset(t / interval) + stateBytes + (t % interval) * Recorder.AIM_BYTES;
+    }
+
+    /**
+     * Return a buffer holding the given number of bytes starting at the given
+     * position in the file.
+     */
+    private ByteBuffer read(long position, int bytes) {
+        int at = mapped(position, bytes);
+        return map.slice(at, bytes);
+    }
+
+    /**
+     * Make sure the given number of bytes starting at the given position in
+     * the file are mapped, and return where they start in the mapping.
+     */
+    private int mapped(long position, int bytes) {
+        if (map == null || position < mapStart || position + bytes > mapStart + map.capacity()) {
+            try {
+                mapStart = fileLength <= WINDOW ? 0 : position;
+                long size = Math.min(fileLength - mapStart, Math.max(WINDOW, bytes));
+                map = channel.map(FileChannel.MapMode.READ_ONLY, mapStart, size);
+            } catch (IOException e) {
+                throw new RuntimeException("can't read game log", e);
+            }
+        }
+        return (int)(position - mapStart);
+    }
+
+    /**
+     * A main() function for testing purposes. With just a file name, replays
+     * the whole log, checking every keyframe, and reports how fast it went.
+     * With a tick number too, jumps to that tick and prints the game state.
+     */
+    public static void main(String args[]) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        Agar.verbose = false;
+
+        Replayer replay = new Replayer(new File(args.length > 0 ? args[0] : "game.log"));
+        if (args.length > 1) {
+            long start = System.nanoTime();
+            replay.seek(Long.parseLong(args[1]));
+            StdOut.printf("seek took %.3f ms\n", (System.nanoTime() - start) / 1e6);
+            StdOut.println(replay.getWorld());
+            return;
+        }
+
+        replay.verify(true);
+        long start = System.nanoTime();
+        while (replay.step())
+            ;
+        double seconds = (System.nanoTime() - start) / 1e9;
+        StdOut.printf("replayed %d ticks in %.3f s (%.0f ticks/sec), %d keyframes didn't match\n",
+                replay.length(), seconds, replay.length() / seconds, replay.mismatches());
+        StdOut.println("final state: " + replay.getWorld());
+    }
+}
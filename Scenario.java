@@ -0,0 +1,527 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  Describes a scene to simulate (how big the world is, how many
+ *  balls and stars are in it, and how their sizes, speeds, colors
+ *  and points are chosen) in a small text file, and builds that
+ *  scene a chunk at a time, so even a scene with a million sprites
+ *  can start running right away. Presets are in scenarios/.
+ *
+ *  Example: java Scenario
+ *           (time loading each preset)
+ *           java Scenario medium scenarios/huge.scenario
+ *----------------------------------------------------------------*/
+
+import java.awt.Color;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * A Scenario is read from a file like this one:
+ *
+ *    # Lots of small food, a little poison.
+ *    name = medium
+ *    seed = 42
+ *    world = 10 10
+ *    chunk = 1000
+ *    balls = 9900
+ *    ball.radius = uniform 0.03 0.05
+ *    ball.speed = constant 0.03
+ *    ball.hue = uniform 0 1
+ *    stars = 100
+ *    star.radius = constant 0.03
+ *    star.points = uniform 5 12
+ *
+ * Each line sets one thing; anything after a # is ignored. The settings are:
+ *
+ *    name          what to call the scenario (the file name if not given)
+ *    seed          so every run builds the same scene, and plays the same
+ *                  way (a different scene each time if not given)
+ *    world         width and height of the world, which starts at (0, 0)
+ *    chunk         most sprites added per call to Loader.next()
+ *    balls, stars  how many of each there are
+ *    ball.radius, ball.speed, ball.hue, star.radius, star.speed,
+ *    star.hue, star.points, star.spin
+ *                  how each property is chosen (see Distribution);
+ *                  star.spin is in radians per second, counterclockwise
+ *
+ * Anything not given keeps its default, which is an empty 1 by 1 world with
+ * balls like Agar's food and stars like its poison. Positions are spread
+ * evenly over the world, and each sprite heads in a random direction.
+ *
+ * A scene is built by a Loader, which hands the sprites to a Sink a chunk at
+ * a time, e.g. one chunk per frame:
+ *
+ *    Scenario.Loader loader = Scenario.load("huge").loader();
+ *    while (true) {
+ *        if (!loader.done())
+ *            loader.next(sink);
+ *        ...tick and draw...
+ *    }
+ *
+ * Balls are added before stars.
+ */
+public class Scenario {
+
+    // Directory the presets are in, and the file extension they use.
+    public static final String PRESETS = "scenarios";
+    public static final String EXTENSION = ".scenario";
+
+    // Sprites can't be smaller than this, in "meters", nor have fewer points.
+    private static final double MIN_RADIUS = 0.001;
+    private static final int MIN_POINTS = 2;
+
+    /**
+     * Something a scene can be built in.
+     */
+    public interface Sink {
+
+        /**
+         * Add a ball, already placed, sized, colored and moving.
+         */
+        void addBall(Ball b);
+
+        /**
+         * Add a star, already placed, sized, colored, moving and spinning.
+         */
+        void addStar(Star s);
+    }
+
+    /**
+     * A way of choosing a random number, written in a scenario file as one
+     * of:
+     *
+     *    constant c            always c
+     *    uniform a b           anywhere from a to b, evenly
+     *    gaussian mean sd      a bell curve ("normal distribution")
+     *    exponential mean      mostly small, sometimes large
+     *
+     * A plain number c is the same as "constant c".
+     */
+    public static class Distribution {
+
+        // Kinds of distribution, and their names in a file.
+        private static final int CONSTANT = 0, UNIFORM = 1, GAUSSIAN = 2, EXPONENTIAL = 3;
+        private static final String[] KINDS = { "constant", "uniform", "gaussian", "exponential" };
+        private static final int[] PARAMETERS = { 1, 2, 2, 1 };
+
+        private final int kind;
+        private final double a, b;
+
+        private Distribution(int kind, double a, double b) {
+            this.kind = kind;
+            this.a = a;
+            this.b = b;
+        }
+
+        /**
+         * Return a distribution that always gives c.
+         */
+        public static Distribution constant(double c) {
+            return new Distribution(CONSTANT, c, c);
+        }
+
+        /**
+         * Return a distribution that gives anything from a to b, evenly.
+         */
+        public static Distribution uniform(double a, double b) {
+            return new Distribution(UNIFORM, a, b);
+        }
+
+        /**
+         * Read a distribution written as described above. Throws
+         * IllegalArgumentException if it can't be understood.
+         */
+        public static Distribution parse(String text) {
+            String[] words = text.trim().split("\\s+");
+            try {
+                if (words.length == 1)
+                    return constant(Double.parseDouble(words[0]));
+                for (int kind = 0; kind < KINDS.length; kind++) {
+                    if (!KINDS[kind].equals(words[0]))
+                        continue;
+                    if (words.length != 1 + PARAMETERS[kind])
+                        throw new IllegalArgumentException(KINDS[kind] + " needs "
+                            + PARAMETERS[kind] + " number(s): " + text);
+                    double a = Double.parseDouble(words[1]);
+                    double b = words.length > 2 ? Double.parseDouble(words[2]) : a;
+                    if (kind == EXPONENTIAL && a <= 0.0)
+                        throw new IllegalArgumentException("exponential mean must be positive: " + text);
+                    return new Distribution(kind, a, b);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("not a number in: " + text);
+            }
+            throw new IllegalArgumentException("unknown distribution: " + text);
+        }
+
+        /**
+         * Return a random number from this distribution, using the given
+         * random number generator.
+         */
+        public double sample(Random random) {
+            switch (kind) {
+            case UNIFORM:     return a + random.nextDouble() * (b - a);
+            case GAUSSIAN:    return a + random.nextGaussian() * b;
+            case EXPONENTIAL: return -a * Math.log(1.0 - random.nextDouble());
+            default:          return a;
+            }
+        }
+
+        /**
+         * Return this distribution as it would be written in a file.
+         */
+        public String toString() {
+            if (kind == CONSTANT || kind == EXPONENTIAL)
+                return KINDS[kind] + " " + a;
+            return KINDS[kind] + " " + a + " " + b;
+        }
+    }
+
+    // Settings, as described above. A null starHue means plain green, like
+    // Agar's poison.
+    private String name;
+    private Long seed;
+    private WorldBounds bounds = WorldBounds.UNIT;
+    private int chunk = 1000;
+    private int balls, stars;
+    private Distribution ballRadius = Distribution.uniform(0.03, 0.05);
+    private Distribution ballSpeed = Distribution.constant(0.03);
+    private Distribution ballHue = Distribution.uniform(0.0, 1.0);
+    private Distribution starRadius = Distribution.constant(0.03);
+    private Distribution starSpeed = Distribution.constant(0.0);
+    private Distribution starHue = null;
+    private Distribution starPoints = Distribution.constant(9);
+    private Distribution starSpin = Distribution.constant(0.0);
+
+    /**
+     * Initializes a scenario with the given name and all the default
+     * settings.
+     */
+    public Scenario(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Return a string representation of this scenario, in the same form as a
+     * scenario file.
+     */
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append("name = ").append(name).append('\n');
+        if (seed != null)
+            s.append("seed = ").append(seed).append('\n');
+        s.append("world = ").append(bounds.width()).append(' ').append(bounds.height()).append('\n');
+        s.append("chunk = ").append(chunk).append('\n');
+        s.append("balls = ").append(balls).append('\n');
+        s.append("ball.radius = ").append(ballRadius).append('\n');
+        s.append("ball.speed = ").append(ballSpeed).append('\n');
+        s.append("ball.hue = ").append(ballHue).append('\n');
+        s.append("stars = ").append(stars).append('\n');
+        s.append("star.radius = ").append(starRadius).append('\n');
+        s.append("star.speed = ").append(starSpeed).append('\n');
+        if (starHue != null)
+            s.append("star.hue = ").append(starHue).append('\n');
+        s.append("star.points = ").append(starPoints).append('\n');
+        s.append("star.spin = ").append(starSpin).append('\n');
+        return s.toString();
+    }
+
+    /**
+     * Read a scenario, given either the name of a file or the name of a
+     * preset (e.g. "huge" for scenarios/huge.scenario).
+     */
+    public static Scenario load(String nameOrFile) throws IOException {
+        File file = new File(nameOrFile);
+        if (!file.isFile())
+            file = new File(PRESETS, nameOrFile + EXTENSION);
+        if (!file.isFile())
+            throw new IOException("no scenario file or preset called " + nameOrFile);
+        String name = file.getName();
+        if (name.endsWith(EXTENSION))
+            name = name.substring(0, name.length() - EXTENSION.length());
+        try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+            return read(in, name, file.getPath());
+        }
+    }
+
+    /**
+     * Read a scenario from the given text, calling it the given name unless
+     * it names itself. Mistakes are reported as an IOException saying where
+     * they are in the given source.
+     */
+    public static Scenario read(BufferedReader in, String name, String source) throws IOException {
+        Scenario s = new Scenario(name);
+        String line;
+        for (int number = 1; (line = in.readLine()) != null; number++) {
+            int hash = line.indexOf('#');
+            if (hash >= 0)
+                line = line.substring(0, hash);
+            line = line.trim();
+            if (line.isEmpty())
+                continue;
+            int equals = line.indexOf('=');
+            if (equals < 0)
+                throw new IOException(source + " line " + number + ": expected key = value");
+            try {
+                s.set(line.substring(0, equals).trim(), line.substring(equals + 1).trim());
+            } catch (IllegalArgumentException e) {
+                throw new IOException(source + " line " + number + ": " + e.getMessage());
+            }
+        }
+        return s;
+    }
+
+    /**
+     * Change one setting, as if the line "key = value" were in the file.
+     */
+    public void set(String key, String value) {
+        switch (key) {
+        case "name":        name = value; break;
+        case "seed":        seed = Long.parseLong(value); break;
+        case "world":       bounds = parseWorld(value); break;
+        case "chunk":       chunk = parseCount(value, 1); break;
+        case "balls":       balls = parseCount(value, 0); break;
+        case "stars":       stars = parseCount(value, 0); break;
+        case "ball.radius": ballRadius = Distribution.parse(value); break;
+        case "ball.speed":  ballSpeed = Distribution.parse(value); break;
+        case "ball.hue":    ballHue = Distribution.parse(value); break;
+        case "star.radius": starRadius = Distribution.parse(value); break;
+        case "star.speed":  starSpeed = Distribution.parse(value); break;
+        case "star.hue":    starHue = Distribution.parse(value); break;
+        case "star.points": starPoints = Distribution.parse(value); break;
+        case "star.spin":   starSpin = Distribution.parse(value); break;
+        default:
+            throw new IllegalArgumentException("unknown setting " + key);
+        }
+    }
+
+    /**
+     * Read a whole number that must be at least min.
+     */
+    private static int parseCount(String value, int min) {
+        int n = Integer.parseInt(value.replace("_", ""));
+        if (n < min)
+            throw new IllegalArgumentException("must be at least " + min + ": " + value);
+        return n;
+    }
+
+    /**
+     * Read a world size, "width height".
+     */
+    private static WorldBounds parseWorld(String value) {
+        String[] words = value.split("\\s+");
+        if (words.length != 2)
+            throw new IllegalArgumentException("world needs a width and a height: " + value);
+        double width = Double.parseDouble(words[0]), height = Double.parseDouble(words[1]);
+        if (!(width > 0.0 && height > 0.0))
+            throw new IllegalArgumentException("world must have a positive size: " + value);
+        return new WorldBounds(0.0, 0.0, width, height);
+    }
+
+    /**
+     * Return the name of this scenario.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Return the edges of the world.
+     */
+    public WorldBounds getBounds() {
+        return bounds;
+    }
+
+    /**
+     * Return the number of balls in the scene.
+     */
+    public int ballCount() {
+        return balls;
+    }
+
+    /**
+     * Return the number of stars in the scene.
+     */
+    public int starCount() {
+        return stars;
+    }
+
+    /**
+     * Return the most sprites the loader adds at once.
+     */
+    public int chunkSize() {
+        return chunk;
+    }
+
+    /**
+     * Return a loader to build this scene with. If the scenario has a seed,
+     * the StdRandom seed is set from it too, so that a game played in the
+     * scene is repeatable as well.
+     */
+    public Loader loader() {
+        if (seed != null)
+            StdRandom.setSeed(seed);
+        return new Loader();
+    }
+
+    /**
+     * Builds a scene a chunk at a time. Made by Scenario.loader(). It has a
+     * random number generator of its own, so a seeded scene comes out the
+     * same however the chunks are interleaved with a game using StdRandom.
+     */
+    public class Loader {
+
+        // Where the random numbers for the scene come from.
+        private final Random random;
+
+        // Number of balls and stars made so far.
+        private int ballsMade, starsMade;
+
+        private Loader() {
+            random = seed == null ? new Random() : new Random(seed);
+        }
+
+        /**
+         * Return a string representation of this loader, with its progress.
+         */
+        public String toString() {
+            return "Scenario.Loader(" + name + ": " + loaded() + " of " + total() + " loaded)";
+        }
+
+        /**
+         * Return the number of sprites added so far.
+         */
+        public int loaded() {
+            return ballsMade + starsMade;
+        }
+
+        /**
+         * Return the number of sprites in the whole scene.
+         */
+        public int total() {
+            return balls + stars;
+        }
+
+        /**
+         * Return whether every sprite has been added.
+         */
+        public boolean done() {
+            return ballsMade == balls && starsMade == stars;
+        }
+
+        /**
+         * Add up to one chunk of sprites to the sink. Returns the number
+         * added, which is 0 once done.
+         */
+        public int next(Sink sink) {
+            int n = 0;
+            for (; n < chunk && ballsMade < balls; n++, ballsMade++)
+                sink.addBall(makeBall(random));
+            for (; n < chunk && starsMade < stars; n++, starsMade++) {
+                Star s = makeStar(random);
+                double speed = Math.max(0.0, starSpeed.sample(random));
+                double angle = random.nextDouble() * 2 * Math.PI;
+                s.setVelocity(speed * Math.cos(angle), speed * Math.sin(angle));
+                s.setSpin(starSpin.sample(random));
+                sink.addStar(s);
+            }
+            return n;
+        }
+
+        /**
+         * Add every sprite not yet added to the sink. Returns the number
+         * added.
+         */
+        public int rest(Sink sink) {
+            int n = 0;
+            while (!done())
+                n += next(sink);
+            return n;
+        }
+    }
+
+    /**
+     * Make a ball with random position, velocity, size and color, following
+     * the settings.
+     */
+    private Ball makeBall(Random random) {
+        Ball b = new Ball(randomX(random), randomY(random),
+                Math.max(MIN_RADIUS, ballRadius.sample(random)));
+        double speed = Math.max(0.0, ballSpeed.sample(random));
+        double angle = random.nextDouble() * 2 * Math.PI;
+        b.setVelocity(speed * Math.cos(angle), speed * Math.sin(angle));
+        b.setColor(HuePalette.color(ballHue.sample(random)));
+        return b;
+    }
+
+    /**
+     * Make a star with random position, size, color and number of points,
+     * following the settings.
+     */
+    private Star makeStar(Random random) {
+        int points = Math.max(MIN_POINTS, (int)Math.round(starPoints.sample(random)));
+        Star s = new Star(randomX(random), randomY(random),
+                Math.max(MIN_RADIUS, starRadius.sample(random)), points);
+        Color color = starHue == null ? StdDraw.GREEN : HuePalette.color(starHue.sample(random));
+        s.setColor(color);
+        return s;
+    }
+
+    /**
+     * Return a random x coordinate in the world.
+     */
+    private double randomX(Random random) {
+        return bounds.getXMin() + random.nextDouble() * bounds.width();
+    }
+
+    /**
+     * Return a random y coordinate in the world.
+     */
+    private double randomY(Random random) {
+        return bounds.getYMin() + random.nextDouble() * bounds.height();
+    }
+
+    /**
+     * A main() function for testing purposes. Builds each scenario named on
+     * the command line (or every preset) into a sink that just keeps the
+     * sprites, and reports how long it took.
+     */
+    public static void main(String args[]) throws IOException {
+        if (args.length == 0) {
+            String[] files = new File(PRESETS).list((dir, file) -> file.endsWith(EXTENSION));
+            if (files == null)
+                files = new String[0];
+            java.util.Arrays.sort(files);
+            args = files;
+            for (int i = 0; i < args.length; i++)
+                args[i] = new File(PRESETS, args[i]).getPath();
+        }
+        for (String arg : args) {
+            Scenario scenario = load(arg);
+            final Object[] sprites = new Object[scenario.ballCount() + scenario.starCount()];
+            final int[] added = new int[1];
+            Sink sink = new Sink() {
+                public void addBall(Ball b) {
+                    sprites[added[0]++] = b;
+                }
+
+                public void addStar(Star s) {
+                    sprites[added[0]++] = s;
+                }
+            };
+
+            long start = System.nanoTime();
+            Loader loader = scenario.loader();
+            int chunks = 0;
+            while (loader.next(sink) > 0)
+                chunks++;
+            double seconds = (System.nanoTime() - start) / 1e9;
+            StdOut.printf("%-8s %9d sprites in %5d chunks, %7.3f s, %5.0f ns/sprite\n",
+                    scenario.getName(), added[0], chunks, seconds, seconds * 1e9 / Math.max(1, added[0]));
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  Runs an Agar game on a thread of its own, 50 ticks per second,
+ *  publishing a snapshot after each batch of ticks for another
+ *  thread to draw. A slow frame then doesn't hold up the game, and
+ *  a slow tick doesn't hold up drawing.
+ *
+ *  Example: java SimulationThread
+ *----------------------------------------------------------------*/
+
+import java.io.PrintStream;
+
+/**
+ * A SimulationThread ticks an AgarWorld at a steady rate, aiming the player
+ * wherever it was last told to, and publishes the state to a SnapshotBuffer:
+ *
+ *    SnapshotBuffer buffer = new SnapshotBuffer();
+ *    SimulationThread sim = new SimulationThread(world, world::tick, buffer);
+ *    sim.start();
+ *    while (true) {
+ *        SnapshotBuffer.Snapshot s = buffer.acquire();
+ *        ...draw s...
+ *        buffer.release();
+ *        sim.aim(StdDraw.mouseX(), StdDraw.mouseY());
+ *    }
+ *
+ * Once started, the world belongs to the simulation thread: nothing else
+ * should touch it, or StdRandom, until stop() returns.
+ */
+public class SimulationThread {
+
+    /**
+     * One tick of the game, with the player aiming at (aimX, aimY). Usually
+     * AgarWorld.tick() or Recorder.tick().
+     */
+    public interface Step {
+        void tick(double aimX, double aimY);
+    }
+
+    // The game, how to tick it, and where its snapshots go.
+    private final AgarWorld world;
+    private final Step step;
+    private final SnapshotBuffer buffer;
+
+    // Times each batch of ticks. The world reports its phases here too.
+    // Only the simulation thread touches it once started, so other threads
+    // ask for a report (see report()) rather than reading it themselves.
+    private final FrameProfiler profiler;
+    private volatile PrintStream reportTo;
+
+    // Where the player is aiming, set from another thread.
+    private volatile double aimX, aimY;
+
+    // Where more sprites come from, a chunk per batch of ticks, if anywhere.
+    private Scenario.Loader loader;
+    private Scenario.Sink sink;
+
+    // The thread, whether it should keep going, when it started
+    // (System.nanoTime()) and how many ticks it has run.
+    private Thread thread;
+    private volatile boolean running;
+    private volatile long started;
+    private volatile long ticks;
+
+    /**
+     * Prepare to run the world, ticking it with the given step (e.g.
+     * world::tick) and publishing snapshots to the buffer. The player starts
+     * out aiming at where it already is.
+     */
+    public SimulationThread(AgarWorld world, Step step, SnapshotBuffer buffer) {
+        this(world, step, buffer, FrameProfiler.OFF);
+    }
+
+    /**
+     * The same, timing each batch of ticks with the given profiler.
+     */
+    public SimulationThread(AgarWorld world, Step step, SnapshotBuffer buffer, FrameProfiler profiler) {
+        this.world = world;
+        this.step = step;
+        this.buffer = buffer;
+        this.profiler = profiler;
+        this.aimX = world.getPlayer().getX();
+        this.aimY = world.getPlayer().getY();
+        world.setProfiler(profiler);
+    }
+
+    /**
+     * Return a string representation of this simulation. Possibly useful for
+     * debugging.
+     */
+    public String toString() {
+        return String.format("SimulationThread(%d ticks, %.1f ticks/sec, %s)",
+                ticks, ticksPerSecond(), buffer);
+    }
+
+    /**
+     * Add sprites from the loader to the world, one chunk before each batch
+     * of ticks, until it is done. Call before start().
+     */
+    public void load(Scenario.Loader loader, Scenario.Sink sink) {
+        if (thread != null)
+            throw new IllegalStateException("already started");
+        this.loader = loader;
+        this.sink = sink;
+    }
+
+    /**
+     * Aim the player towards (x, y) from the next tick on. Safe to call from
+     * any thread.
+     */
+    public void aim(double x, double y) {
+        aimX = x;
+        aimY = y;
+    }
+
+    /**
+     * Start running the game.
+     */
+    public void start() {
+        if (thread != null)
+            throw new IllegalStateException("already started");
+        running = true;
+        started = System.nanoTime();
+        thread = new Thread(this::run, "simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop running the game, and wait for the last tick to finish. A report
+     * asked for but not printed yet is printed now.
+     */
+    public void stop() throws InterruptedException {
+        running = false;
+        if (thread != null)
+            thread.join();
+        printReport();
+    }
+
+    /**
+     * Print the profiler's report to the given stream. Safe to call from any
+     * thread: while the game is running, the simulation thread prints it
+     * after its current batch of ticks, and otherwise it is printed straight
+     * away. The report is printed while holding the stream's lock, so
+     * anything else printed the same way doesn't get mixed into it.
+     */
+    public void report(PrintStream out) {
+        reportTo = out;
+        if (thread == null || !thread.isAlive())
+            printReport();
+    }
+
+    /**
+     * Print the report asked for by report(), if any.
+     */
+    private synchronized void printReport() {
+        PrintStream out = reportTo;
+        if (out != null) {
+            reportTo = null;
+            synchronized (out) {
+                profiler.report(out);
+            }
+        }
+    }
+
+    /**
+     * Return the buffer the snapshots are published to.
+     */
+    public SnapshotBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Return the number of ticks run so far.
+     */
+    public long ticks() {
+        return ticks;
+    }
+
+    /**
+     * Return the average number of ticks run per second since start().
+     */
+    public double ticksPerSecond() {
+        long elapsed = System.nanoTime() - started;
+        return started == 0 || elapsed <= 0 ? 0.0 : ticks / (elapsed / 1e9);
+    }
+
+    /**
+     * Tick the world as many times as the clock says, publish a snapshot,
+     * and wait for the next tick, until stopped.
+     */
+    private void run() {
+        FramePacer pacer = new FramePacer(AgarWorld.TICK);
+        boolean changed = true;
+        while (running) {
+            if (loader != null && !loader.done())
+                changed |= loader.next(sink) > 0;
+
+            int steps = pacer.steps();
+            for (int i = 0; i < steps; i++)
+                step.tick(aimX, aimY);
+            ticks += steps;
+            changed |= steps > 0;
+            profiler.count(FrameProfiler.TICKS, steps);
+
+            // If publishing is skipped because the drawing thread is slow,
+            // the next batch tries again.
+            if (changed)
+                changed = !buffer.publish(world);
+
+            pacer.sync();
+            profiler.count(FrameProfiler.OVERRUNS, pacer.overran() ? 1 : 0);
+            profiler.endFrame();
+            if (reportTo != null)
+                printReport();
+        }
+    }
+
+    /**
+     * A main() function for testing purposes. Runs a game for a few seconds
+     * while pretending to draw frames that take a random 5 to 60
+     * milliseconds, and shows that the game still gets its 50 ticks per
+     * second however slow the frames are.
+     */
+    public static void main(String args[]) throws InterruptedException {
+        Agar.verbose = false;
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        AgarWorld world = new AgarWorld(500, 20);
+        SnapshotBuffer buffer = new SnapshotBuffer();
+        SimulationThread sim = new SimulationThread(world, world::tick, buffer);
+        java.util.Random random = new java.util.Random(42);
+
+        sim.start();
+        long start = System.nanoTime(), end = start + seconds * 1000000000L;
+        long frames = 0, ticksSeen = 0, lastTick = -1;
+        while (System.nanoTime() < end) {
+            SnapshotBuffer.Snapshot s = buffer.acquire();
+            if (s.getTick() != lastTick)
+                ticksSeen++;
+            lastTick = s.getTick();
+            double alpha = s.alpha(System.nanoTime());
+            double px = s.getPlayerX(alpha), py = s.getPlayerY(alpha);
+            Thread.sleep(5 + random.nextInt(56));
+            buffer.release();
+            sim.aim(1.0 - px, 1.0 - py);
+            frames++;
+        }
+        sim.stop();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        StdOut.printf("simulation: %.1f ticks/sec (%d ticks)\n", sim.ticksPerSecond(), sim.ticks());
+        StdOut.printf("rendering:  %.1f frames/sec (%d frames, %d different snapshots)\n",
+                frames / elapsed, frames, ticksSeen);
+        StdOut.println(buffer);
+    }
+}
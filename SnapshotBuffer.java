@@ -0,0 +1,518 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  Hands copies of an Agar game's state (where everything is, how
+ *  big and what color) from the thread running the game to the
+ *  thread drawing it, using two copies that take turns, so neither
+ *  thread ever waits for the other.
+ *
+ *  Example: java SnapshotBuffer
+ *----------------------------------------------------------------*/
+
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A SnapshotBuffer holds two Snapshots of an AgarWorld. The game thread
+ * fills in whichever one is not being shown, and then makes it the one to
+ * show; the drawing thread always gets the last one completed:
+ *
+ *    SnapshotBuffer buffer = new SnapshotBuffer();
+ *
+ *    // game thread                    // drawing thread
+ *    while (true) {                    while (true) {
+ *        world.tick(...);                  Snapshot s = buffer.acquire();
+ *        buffer.publish(world);            s.draw(queue, camera, ...);
+ *    }                                     buffer.release();
+ *                                          ...
+ *                                      }
+ *
+ * Swapping the two is a single compare-and-set, so there are no locks. If
+ * the drawing thread is still holding on to the older copy when the game
+ * thread wants to fill it in, publish() skips that tick instead of waiting,
+ * and the next tick gets through once the drawing thread lets go. Only one
+ * thread may publish and only one may acquire.
+ */
+public class SnapshotBuffer {
+
+    /**
+     * A copy of everything needed to draw an AgarWorld at the end of one
+     * tick: the position, velocity, radius and color of each food blob,
+     * poison star and the player, and the shape and angle of each star.
+     * Sprites are numbered food first, then poison, then the player last.
+     *
+     * It also keeps where each sprite was in the snapshot published before
+     * it, so that frames drawn between the two can show everything part of
+     * the way from one to the other (see alpha()). A sprite that jumped, such
+     * as food that was eaten and respawned, is drawn where it is now instead
+     * of sliding across the screen.
+     */
+    public static class Snapshot {
+
+        // The tick this is a copy of, -1 if none yet, and when it was made
+        // (System.nanoTime()).
+        private long tick = -1;
+        private long madeAt;
+
+        // The tick of the snapshot before, and when it was made, or -1 and 0
+        // if there wasn't one.
+        private long fromTick = -1;
+        private long fromMadeAt;
+
+        // Number of food blobs and poison stars.
+        private int foodCount, poisonCount;
+
+        // Position, velocity, radius and color of each sprite, and its
+        // position and radius in the snapshot before.
+        private double[] x = new double[16], y = new double[16];
+        private double[] vx = new double[16], vy = new double[16];
+        private double[] radius = new double[16];
+        private Color[] color = new Color[16];
+        private double[] fromX = new double[16], fromY = new double[16];
+        private double[] fromRadius = new double[16];
+
+        // Points and turn (cos and sin of the angle) of each poison star,
+        // numbered from 0, and its turn in the snapshot before.
+        private int[] points = new int[16];
+        private double[] turnCos = new double[16], turnSin = new double[16];
+        private double[] fromCos = new double[16], fromSin = new double[16];
+
+        // Adds up the positions and radii when the copy is made, so a copy
+        // that was changed while being read can be caught (see intact()).
+        private long sum;
+
+        /**
+         * Return a string representation of this snapshot. Possibly useful
+         * for debugging.
+         */
+        public String toString() {
+            return "Snapshot(tick " + tick + ", " + foodCount + " food, " + poisonCount + " poison)";
+        }
+
+        /**
+         * Return the tick this is a copy of, or -1 if it is empty.
+         */
+        public long getTick() {
+            return tick;
+        }
+
+        /**
+         * Return the number of sprites, including the player.
+         */
+        public int size() {
+            return foodCount + poisonCount + 1;
+        }
+
+        /**
+         * Return the number of food blobs.
+         */
+        public int foodCount() {
+            return foodCount;
+        }
+
+        /**
+         * Return the number of poison stars.
+         */
+        public int poisonCount() {
+            return poisonCount;
+        }
+
+        /**
+         * Copy the state of the world, and where everything was in the given
+         * snapshot before it (which may be empty).
+         */
+        void copy(AgarWorld world, Snapshot before) {
+            foodCount = world.foodCount();
+            poisonCount = world.poisonCount();
+            int n = size();
+            if (n > x.length) {
+                int size = Math.max(n, 2 * x.length);
+                x = Arrays.copyOf(x, size);
+                y = Arrays.copyOf(y, size);
+                vx = Arrays.copyOf(vx, size);
+                vy = Arrays.copyOf(vy, size);
+                radius = Arrays.copyOf(radius, size);
+                color = Arrays.copyOf(color, size);
+                fromX = Arrays.copyOf(fromX, size);
+                fromY = Arrays.copyOf(fromY, size);
+                fromRadius = Arrays.copyOf(fromRadius, size);
+            }
+            if (poisonCount > points.length) {
+                int size = Math.max(poisonCount, 2 * points.length);
+                points = Arrays.copyOf(points, size);
+                turnCos = Arrays.copyOf(turnCos, size);
+                turnSin = Arrays.copyOf(turnSin, size);
+                fromCos = Arrays.copyOf(fromCos, size);
+                fromSin = Arrays.copyOf(fromSin, size);
+            }
+
+            for (int i = 0; i < foodCount; i++)
+                copy(i, world.getFood(i));
+            for (int i = 0; i < poisonCount; i++) {
+                Star s = world.getPoison(i);
+                int k = foodCount + i;
+                x[k] = s.getX();
+                y[k] = s.getY();
+                vx[k] = s.getXVelocity();
+                vy[k] = s.getYVelocity();
+                radius[k] = s.getRadius();
+                color[k] = s.getColor();
+                points[i] = s.getPoints();
+                turnCos[i] = s.getTurnCos();
+                turnSin[i] = s.getTurnSin();
+            }
+            copy(n - 1, world.getPlayer());
+
+            tick = world.getTicks();
+            madeAt = System.nanoTime();
+            from(before);
+            sum = checksum();
+        }
+
+        /**
+         * Copy ball b as sprite i.
+         */
+        private void copy(int i, Ball b) {
+            x[i] = b.getX();
+            y[i] = b.getY();
+            vx[i] = b.getXVelocity();
+            vy[i] = b.getYVelocity();
+            radius[i] = b.getRadius();
+            color[i] = b.getColor();
+        }
+
+        /**
+         * Remember where each sprite was in the snapshot before. Food and
+         * poison are matched by their numbers, and the player to the player;
+         * sprites that weren't there before, or got further than their speed
+         * allows, start where they are now.
+         */
+        private void from(Snapshot before) {
+            int n = size();
+            System.arraycopy(x, 0, fromX, 0, n);
+            System.arraycopy(y, 0, fromY, 0, n);
+            System.arraycopy(radius, 0, fromRadius, 0, n);
+            System.arraycopy(turnCos, 0, fromCos, 0, poisonCount);
+            System.arraycopy(turnSin, 0, fromSin, 0, poisonCount);
+            if (before.tick < 0 || before.tick >= tick) {
+                fromTick = -1;
+                fromMadeAt = 0;
+                return;
+            }
+            fromTick = before.tick;
+            fromMadeAt = before.madeAt;
+
+            double seconds = (tick - fromTick) * AgarWorld.TICK / 1000.0;
+            for (int i = 0; i < Math.min(foodCount, before.foodCount); i++)
+                from(i, before, i, seconds);
+            for (int i = 0; i < Math.min(poisonCount, before.poisonCount); i++) {
+                if (from(foodCount + i, before, before.foodCount + i, seconds)) {
+                    fromCos[i] = before.turnCos[i];
+                    fromSin[i] = before.turnSin[i];
+                }
+            }
+            from(n - 1, before, before.size() - 1, seconds);
+        }
+
+        /**
+         * Start sprite i where sprite j was in the snapshot before, the given
+         * number of seconds ago, unless it couldn't have got here from there
+         * (a blob can't get further than its speed allows, even when it
+         * bounces). Returns whether it did.
+         */
+        private boolean from(int i, Snapshot before, int j, double seconds) {
+            double dx = x[i] - before.x[j], dy = y[i] - before.y[j];
+            double speed = Math.max(Math.hypot(vx[i], vy[i]), Math.hypot(before.vx[j], before.vy[j]));
+            double most = speed * seconds;
+            if (dx*dx + dy*dy > most*most * (1 + 1e-9))
+                return false;
+            fromX[i] = before.x[j];
+            fromY[i] = before.y[j];
+            fromRadius[i] = before.radius[j];
+            return true;
+        }
+
+        /**
+         * Add up the positions and radii, as bits.
+         */
+        private long checksum() {
+            long h = tick;
+            for (int i = 0; i < size(); i++) {
+                h = 31 * h + Double.doubleToLongBits(x[i]);
+                h = 31 * h + Double.doubleToLongBits(y[i]);
+                h = 31 * h + Double.doubleToLongBits(radius[i]);
+                h = 31 * h + Double.doubleToLongBits(fromX[i]);
+                h = 31 * h + Double.doubleToLongBits(fromY[i]);
+            }
+            return h;
+        }
+
+        /**
+         * Check that nothing has changed since the copy was made. Useful for
+         * testing that a snapshot isn't overwritten while it is being read.
+         * An empty snapshot is always intact.
+         */
+        public boolean intact() {
+            return tick < 0 || checksum() == sum;
+        }
+
+        /**
+         * Return how far (0 to 1) from the snapshot before to this one things
+         * should be drawn at the given time (System.nanoTime()). Drawing runs
+         * one snapshot behind the game: a frame drawn just as this snapshot
+         * was made shows the one before, and a frame drawn as long after as
+         * the two were apart shows this one. Returns 1 if there was no
+         * snapshot before.
+         */
+        public double alpha(long now) {
+            long span = madeAt - fromMadeAt;
+            if (fromTick < 0 || span <= 0)
+                return 1.0;
+            return Math.max(0.0, Math.min(1.0, (now - madeAt) / (double)span));
+        }
+
+        /**
+         * Return the x coordinate of sprite i, the given fraction of the way
+         * from the snapshot before to this one.
+         */
+        public double getX(int i, double alpha) {
+            return fromX[i] + alpha * (x[i] - fromX[i]);
+        }
+
+        /**
+         * Return the y coordinate of sprite i, the given fraction of the way
+         * from the snapshot before to this one.
+         */
+        public double getY(int i, double alpha) {
+            return fromY[i] + alpha * (y[i] - fromY[i]);
+        }
+
+        /**
+         * Return the radius of sprite i, the given fraction of the way from
+         * the snapshot before to this one.
+         */
+        public double getRadius(int i, double alpha) {
+            return fromRadius[i] + alpha * (radius[i] - fromRadius[i]);
+        }
+
+        /**
+         * Return the color of sprite i.
+         */
+        public Color getColor(int i) {
+            return color[i];
+        }
+
+        /**
+         * Return the number of points of sprite i if it is a poison star, or
+         * 0 if it is a ball.
+         */
+        public int getPoints(int i) {
+            int star = i - foodCount;
+            return star >= 0 && star < poisonCount ? points[star] : 0;
+        }
+
+        /**
+         * Return the cosine of the angle poison star i (numbered from 0) has
+         * turned, the given fraction of the way from the snapshot before to
+         * this one.
+         */
+        public double getTurnCos(int star, double alpha) {
+            double c = fromCos[star] + alpha * (turnCos[star] - fromCos[star]);
+            double s = fromSin[star] + alpha * (turnSin[star] - fromSin[star]);
+            return c / Math.sqrt(c*c + s*s);
+        }
+
+        /**
+         * Return the sine of the angle poison star i (numbered from 0) has
+         * turned, the given fraction of the way from the snapshot before to
+         * this one.
+         */
+        public double getTurnSin(int star, double alpha) {
+            double c = fromCos[star] + alpha * (turnCos[star] - fromCos[star]);
+            double s = fromSin[star] + alpha * (turnSin[star] - fromSin[star]);
+            return s / Math.sqrt(c*c + s*s);
+        }
+
+        /**
+         * Return the x coordinate of the player, the given fraction of the
+         * way from the snapshot before to this one.
+         */
+        public double getPlayerX(double alpha) {
+            return getX(size() - 1, alpha);
+        }
+
+        /**
+         * Return the y coordinate of the player, the given fraction of the
+         * way from the snapshot before to this one.
+         */
+        public double getPlayerY(double alpha) {
+            return getY(size() - 1, alpha);
+        }
+
+        /**
+         * Add the food, the poison and then the player to the render queue,
+         * in layers 0, 1 and 2, leaving out anything the camera can't see.
+         * Everything is drawn the given fraction of the way from the snapshot
+         * before to this one. An empty snapshot draws nothing.
+         */
+        public void draw(RenderQueue queue, Camera camera, double alpha) {
+            if (tick < 0)
+                return;
+            int n = size();
+            for (int i = 0; i < n; i++) {
+                double px = getX(i, alpha), py = getY(i, alpha);
+                double r = getRadius(i, alpha);
+                int star = i - foodCount;
+                if (star >= 0 && star < poisonCount) {
+                    StarShape shape = StarShape.of(points[star]);
+                    if (camera.visible(px, py, r * shape.outerRadius()))
+                        queue.star(px, py, r, getTurnCos(star, alpha), getTurnSin(star, alpha),
+                                shape, color[i], 1);
+                } else if (camera.visible(px, py, r)) {
+                    queue.circle(px, py, r, color[i], i == n - 1 ? 2 : 0);
+                }
+            }
+        }
+    }
+
+    // The two snapshots.
+    private final Snapshot[] snapshots = { new Snapshot(), new Snapshot() };
+
+    // Which snapshot is the latest (bit 0), and which one, if any, the
+    // drawing thread is holding (bits 1 and 2: 0 for none, otherwise the
+    // snapshot number plus one). Kept in one number so both can be changed
+    // together with a compare-and-set.
+    private final AtomicInteger state = new AtomicInteger(0);
+    private static final int LATEST = 1, HOLDING = 6, NONE = 0;
+
+    // Number of snapshots published, and skipped because the one that needed
+    // filling in was still being held. Only changed by the game thread.
+    private volatile long published, skipped;
+
+    /**
+     * Return a string representation of this buffer. Possibly useful for
+     * debugging.
+     */
+    public String toString() {
+        return "SnapshotBuffer(" + published + " published, " + skipped + " skipped)";
+    }
+
+    /**
+     * Return the number of snapshots published so far.
+     */
+    public long published() {
+        return published;
+    }
+
+    /**
+     * Return the number of times publish() skipped a tick because the
+     * drawing thread was holding the older snapshot.
+     */
+    public long skipped() {
+        return skipped;
+    }
+
+    /**
+     * Copy the world into the snapshot that isn't the latest, and make it the
+     * latest. Returns false, without waiting, if the drawing thread is still
+     * holding that snapshot. Call only from the game thread.
+     */
+    public boolean publish(AgarWorld world) {
+        int s = state.get();
+        int next = 1 - (s & LATEST);
+        if ((s & HOLDING) == held(next)) {
+            skipped++;
+            return false;
+        }
+
+        // The drawing thread only ever takes the latest snapshot, and only
+        // this thread changes which one that is, so nobody can start reading
+        // this one while it is being filled in. The latest one is only read
+        // here, for where things were before, which the drawing thread may
+        // be doing too.
+        snapshots[next].copy(world, snapshots[1 - next]);
+        while (!state.compareAndSet(s, (s & HOLDING) | next))
+            s = state.get();
+        published++;
+        return true;
+    }
+
+    /**
+     * Return the latest snapshot, which stays as it is until release() is
+     * called. Call only from the drawing thread, and release each snapshot
+     * before acquiring another.
+     */
+    public Snapshot acquire() {
+        while (true) {
+            int s = state.get();
+            if ((s & HOLDING) != NONE)
+                throw new IllegalStateException("the last snapshot hasn't been released");
+            int latest = s & LATEST;
+            if (state.compareAndSet(s, s | held(latest)))
+                return snapshots[latest];
+        }
+    }
+
+    /**
+     * Let go of the snapshot returned by acquire(), so the game thread can
+     * fill it in again.
+     */
+    public void release() {
+        while (true) {
+            int s = state.get();
+            if ((s & HOLDING) == NONE)
+                throw new IllegalStateException("no snapshot is being held");
+            if (state.compareAndSet(s, s & LATEST))
+                return;
+        }
+    }
+
+    /**
+     * Return the HOLDING bits for holding snapshot number i.
+     */
+    private static int held(int i) {
+        return (i + 1) << 1;
+    }
+
+    /**
+     * A main() function for testing purposes. Runs a game on its own thread
+     * while this thread reads snapshots, some of them very slowly, and
+     * checks that none of them changed while being read.
+     */
+    public static void main(String args[]) throws InterruptedException {
+        Agar.verbose = false;
+        StdRandom.setSeed(42);
+        AgarWorld world = new AgarWorld(2000, 100);
+        SnapshotBuffer buffer = new SnapshotBuffer();
+        Thread game = new Thread(() -> {
+            for (int t = 0; t < 20000; t++) {
+                world.tick(0.5 + 0.4 * Math.cos(t / 300.0), 0.5 + 0.4 * Math.sin(t / 300.0));
+                buffer.publish(world);
+            }
+        }, "game");
+        game.start();
+
+        long reads = 0, damaged = 0, lastTick = -1, backwards = 0;
+        while (game.isAlive()) {
+            Snapshot s = buffer.acquire();
+            if (s.getTick() < lastTick)
+                backwards++;
+            lastTick = s.getTick();
+            if (reads % 10 == 0)
+                Thread.sleep(1);   // a slow frame, holding on to the snapshot
+            if (!s.intact())
+                damaged++;
+            buffer.release();
+            reads++;
+        }
+        game.join();
+
+        StdOut.println(buffer);
+        StdOut.printf("%d snapshots read, %d changed while being read, %d older than the one before\n",
+                reads, damaged, backwards);
+        Snapshot last = buffer.acquire();
+        StdOut.println("latest: " + last + ", world " + world);
+        buffer.release();
+    }
+}
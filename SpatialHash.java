@@ -0,0 +1,504 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  A uniform-grid spatial hash for finding which Ball and Star
+ *  sprites are near one another, without comparing every pair.
+ *  It is meant to be rebuilt once per animation frame.
+ *
+ *  Example: java SpatialHash
+ *----------------------------------------------------------------*/
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A SpatialHash divides the canvas into square cells of a fixed size, and
+ * remembers which cells each Ball and Star overlaps. Collision queries then
+ * only need to look at sprites in the handful of cells near the query ball,
+ * instead of every sprite in the scene. For example, here is how to find all
+ * the food a player has completely covered in this frame:
+ *
+ *    SpatialHash hash = new SpatialHash(0.1);
+ *    hash.clear();
+ *    for (int i = 0; i < food.length; i++)
+ *        hash.add(food[i]);
+ *    List<Ball> eaten = hash.queryCovered(player);
+ *
+ * The answers are exactly the same as checking player.covering(f) for every
+ * food ball f, because the hash only narrows down the candidates: the final
+ * decision is made by the Ball.touching() and Ball.covering() functions
+ * themselves. Sprites can be anywhere, even outside the unit square, since
+ * cells are hashed into a fixed-size table rather than stored in a grid the
+ * size of the canvas.
+ *
+ * Positions and radii are read when the hash is built, i.e. by build() or
+ * on the first query after add() or clear(). If sprites move after that, call
+ * clear() and add them again. Queries don't change the hash, so once it has
+ * been built, several threads may query it at the same time.
+ *
+ * Each query comes in two forms: one returns a new list, and the other adds
+ * what it finds to a list the caller passes in, so a game loop can clear and
+ * reuse the same list every frame without creating any objects.
+ */
+public class SpatialHash {
+
+    // Width and height of each cell. Units are "meters".
+    private double cellSize;
+
+    // Sprites added since the last call to clear().
+    private Ball[] balls;
+    private int ballCount;
+    private Star[] stars;
+    private int starCount;
+
+    // Number of hash buckets. Always a power of two, so we can use a mask.
+    private int buckets;
+
+    // Bucket contents, in "compressed" form: entries for bucket k are stored
+    // in cellItems[cellStart[k]] up to (but not including) cellItems[cellStart[k+1]].
+    // Balls are stored as their index i, stars as ~i (which is negative).
+    // The cell each entry is for is stored alongside it, in cellX and cellY,
+    // since several cells can share a bucket.
+    private int[] cellStart;
+    private int[] cellItems;
+    private int[] cellX, cellY;
+    private int itemCount;
+
+    // Whether cellStart and cellItems need to be recomputed before a query.
+    private boolean stale;
+
+    // The range of cells each sprite overlaps: for ball i, columns
+    // ballBox[4*i] to ballBox[4*i+2] and rows ballBox[4*i+1] to
+    // ballBox[4*i+3]. Likewise for stars.
+    private int[] ballBox, starBox;
+
+    // The range of cells that hold any sprite at all: columns minX to maxX
+    // and rows minY to maxY. Queries never look outside it.
+    private int minX, minY, maxX, maxY;
+
+    /**
+     * Initializes a new, empty spatial hash using square cells of the given
+     * size. A good cell size is about twice the radius of a typical sprite.
+     */
+    public SpatialHash(double cellSize) {
+        if (!(cellSize > 0.0))
+            throw new IllegalArgumentException("cell size must be positive: " + cellSize);
+        this.cellSize = cellSize;
+        this.balls = new Ball[16];
+        this.stars = new Star[16];
+        this.ballBox = new int[4 * 16];
+        this.starBox = new int[4 * 16];
+        this.buckets = 64;
+        this.cellStart = new int[buckets + 1];
+        this.cellItems = new int[64];
+        this.cellX = new int[64];
+        this.cellY = new int[64];
+        this.stale = false;
+        this.minX = this.minY = Integer.MAX_VALUE;
+        this.maxX = this.maxY = Integer.MIN_VALUE;
+    }
+
+    /**
+     * Return a string representation of this hash. Possibly useful for
+     * debugging.
+     */
+    public String toString() {
+        return "SpatialHash(" + cellSize + ") with " + ballCount + " balls, "
+            + starCount + " stars";
+    }
+
+    /**
+     * Remove all sprites from this hash. Call this at the start of each
+     * frame, before adding the sprites at their new positions.
+     */
+    public void clear() {
+        for (int i = 0; i < ballCount; i++)
+            balls[i] = null;
+        for (int i = 0; i < starCount; i++)
+            stars[i] = null;
+        ballCount = 0;
+        starCount = 0;
+        stale = true;
+    }
+
+    /**
+     * Add a ball to this hash.
+     */
+    public void add(Ball b) {
+        if (ballCount == balls.length) {
+            balls = Arrays.copyOf(balls, 2 * ballCount);
+            ballBox = Arrays.copyOf(ballBox, 4 * 2 * ballCount);
+        }
+        balls[ballCount++] = b;
+        stale = true;
+    }
+
+    /**
+     * Add a star to this hash.
+     */
+    public void add(Star s) {
+        if (starCount == stars.length) {
+            stars = Arrays.copyOf(stars, 2 * starCount);
+            starBox = Arrays.copyOf(starBox, 4 * 2 * starCount);
+        }
+        stars[starCount++] = s;
+        stale = true;
+    }
+
+    /**
+     * Return the number of balls in this hash.
+     */
+    public int ballCount() {
+        return ballCount;
+    }
+
+    /**
+     * Return the number of stars in this hash.
+     */
+    public int starCount() {
+        return starCount;
+    }
+
+    /**
+     * Find all balls in this hash (other than b itself) that b is touching,
+     * i.e. all balls other for which b.touching(other) is true.
+     */
+    public List<Ball> queryTouching(Ball b) {
+        List<Ball> found = new ArrayList<Ball>();
+        collect(b, false, found, null);
+        return found;
+    }
+
+    /**
+     * Like queryTouching(b), but add the balls found to the given list
+     * instead of a new one.
+     */
+    public void queryTouching(Ball b, List<Ball> found) {
+        collect(b, false, found, null);
+    }
+
+    /**
+     * Find all balls in this hash (other than b itself) that b is completely
+     * covering, i.e. all balls other for which b.covering(other) is true.
+     */
+    public List<Ball> queryCovered(Ball b) {
+        List<Ball> found = new ArrayList<Ball>();
+        collect(b, true, found, null);
+        return found;
+    }
+
+    /**
+     * Like queryCovered(b), but add the balls found to the given list
+     * instead of a new one.
+     */
+    public void queryCovered(Ball b, List<Ball> found) {
+        collect(b, true, found, null);
+    }
+
+    /**
+     * Find all stars in this hash that b is touching, i.e. all stars s for
+     * which b.touching(s) is true.
+     */
+    public List<Star> queryTouchingStars(Ball b) {
+        List<Star> found = new ArrayList<Star>();
+        collect(b, false, null, found);
+        return found;
+    }
+
+    /**
+     * Like queryTouchingStars(b), but add the stars found to the given list
+     * instead of a new one.
+     */
+    public void queryTouchingStars(Ball b, List<Star> found) {
+        collect(b, false, null, found);
+    }
+
+    /**
+     * Find all stars in this hash that b is completely covering, i.e. all
+     * stars s for which b.covering(s) is true.
+     */
+    public List<Star> queryCoveredStars(Ball b) {
+        List<Star> found = new ArrayList<Star>();
+        collect(b, true, null, found);
+        return found;
+    }
+
+    /**
+     * Like queryCoveredStars(b), but add the stars found to the given list
+     * instead of a new one.
+     */
+    public void queryCoveredStars(Ball b, List<Star> found) {
+        collect(b, true, null, found);
+    }
+
+    /**
+     * Visit each ball and star sharing a cell with b exactly once, and add it
+     * to the appropriate list if it passes the touching (or covering) test.
+     * Either list may be null, in which case that kind of sprite is skipped.
+     * Only cells that hold sprites are visited, and if b covers more cells
+     * than there are entries in the hash, every sprite is checked directly
+     * instead.
+     */
+    private void collect(Ball b, boolean covering, List<Ball> ballsFound, List<Star> starsFound) {
+        if (stale)
+            build();
+        checkFinite(b.getX(), b.getY(), b.getRadius());
+        double pad = cellSize * 1e-9;
+        double r = b.getRadius() + pad;
+        int cx0 = Math.max(minX, cell(b.getX() - r)), cx1 = Math.min(maxX, cell(b.getX() + r));
+        int cy0 = Math.max(minY, cell(b.getY() - r)), cy1 = Math.min(maxY, cell(b.getY() + r));
+        if (cx0 > cx1 || cy0 > cy1)
+            return;
+        if ((double)(cx1 - cx0 + 1) * (cy1 - cy0 + 1) > itemCount) {
+            collectAll(b, covering, ballsFound, starsFound);
+            return;
+        }
+        for (int cx = cx0; cx <= cx1; cx++) {
+            for (int cy = cy0; cy <= cy1; cy++) {
+                int k = bucket(cx, cy);
+                for (int j = cellStart[k]; j < cellStart[k+1]; j++) {
+                    int item = cellItems[j];
+                    int[] box = item >= 0 ? ballBox : starBox;
+                    int i = item >= 0 ? item : ~item;
+
+                    // A bucket holds entries for every cell that hashes to
+                    // it, so skip entries for other cells. A sprite may also
+                    // be in several of the cells we visit; only look at it
+                    // from the first one (lowest column, then lowest row).
+                    if (cellX[j] != cx || cellY[j] != cy)
+                        continue;
+                    if (cx != Math.max(cx0, box[4*i]) || cy != Math.max(cy0, box[4*i+1]))
+                        continue;
+
+                    if (item >= 0) {
+                        if (ballsFound == null)
+                            continue;
+                        Ball other = balls[i];
+                        if (other == b)
+                            continue;
+                        if (covering ? b.covering(other) : b.touching(other))
+                            ballsFound.add(other);
+                    } else {
+                        if (starsFound == null)
+                            continue;
+                        Star other = stars[i];
+                        if (covering ? b.covering(other) : b.touching(other))
+                            starsFound.add(other);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Check every sprite in the hash against b, for queries that would
+     * otherwise visit more cells than there are entries.
+     */
+    private void collectAll(Ball b, boolean covering, List<Ball> ballsFound, List<Star> starsFound) {
+        if (ballsFound != null) {
+            for (int i = 0; i < ballCount; i++) {
+                Ball other = balls[i];
+                if (other != b && (covering ? b.covering(other) : b.touching(other)))
+                    ballsFound.add(other);
+            }
+        }
+        if (starsFound != null) {
+            for (int i = 0; i < starCount; i++) {
+                Star other = stars[i];
+                if (covering ? b.covering(other) : b.touching(other))
+                    starsFound.add(other);
+            }
+        }
+    }
+
+    /**
+     * Recompute the bucket contents from the current sprite positions. This
+     * happens automatically on the first query after the sprites change, but
+     * call it directly before querying from several threads at once.
+     *
+     * This makes two passes over the sprites: the first counts how many
+     * entries each bucket needs, the second fills them in.
+     */
+    public void build() {
+        // Use roughly one bucket per sprite, so buckets stay short.
+        int want = Integer.highestOneBit(Math.max(64, ballCount + starCount) - 1) << 1;
+        if (want != buckets) {
+            buckets = want;
+            cellStart = new int[buckets + 1];
+        } else {
+            Arrays.fill(cellStart, 0);
+        }
+
+        // Find the cells each sprite overlaps, and the range of cells they
+        // cover between them (empty when there are no sprites).
+        minX = minY = Integer.MAX_VALUE;
+        maxX = maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < ballCount; i++)
+            box(balls[i].getX(), balls[i].getY(), balls[i].getRadius(), ballBox, 4*i);
+        for (int i = 0; i < starCount; i++)
+            box(stars[i].getX(), stars[i].getY(), stars[i].getOuterRadius(), starBox, 4*i);
+
+        // Pass 1: count entries per bucket. Counts are stored one slot to the
+        // right, so a prefix sum turns them into start offsets.
+        itemCount = 0;
+        for (int i = 0; i < ballCount; i++)
+            itemCount += visit(ballBox, 4*i, 0, false);
+        for (int i = 0; i < starCount; i++)
+            itemCount += visit(starBox, 4*i, 0, false);
+        for (int k = 0; k < buckets; k++)
+            cellStart[k+1] += cellStart[k];
+        if (cellItems.length < itemCount) {
+            int size = Math.max(itemCount, 2 * cellItems.length);
+            cellItems = new int[size];
+            cellX = new int[size];
+            cellY = new int[size];
+        }
+
+        // Pass 2: fill entries, using cellStart[k] as a cursor for bucket k.
+        // Afterwards each cursor has advanced to where the next bucket
+        // starts, so shift everything back by one slot.
+        for (int i = 0; i < ballCount; i++)
+            visit(ballBox, 4*i, i, true);
+        for (int i = 0; i < starCount; i++)
+            visit(starBox, 4*i, ~i, true);
+        for (int k = buckets; k > 0; k--)
+            cellStart[k] = cellStart[k-1];
+        cellStart[0] = 0;
+
+        stale = false;
+    }
+
+    /**
+     * Store the range of cells overlapped by the bounding box of a circle in
+     * box[at] to box[at+3], and widen the range of occupied cells to cover
+     * it.
+     */
+    private void box(double x, double y, double r, int[] box, int at) {
+        checkFinite(x, y, r);
+        box[at] = cell(x - r);
+        box[at+1] = cell(y - r);
+        box[at+2] = cell(x + r);
+        box[at+3] = cell(y + r);
+        minX = Math.min(minX, box[at]);
+        minY = Math.min(minY, box[at+1]);
+        maxX = Math.max(maxX, box[at+2]);
+        maxY = Math.max(maxY, box[at+3]);
+    }
+
+    /**
+     * Visit each cell in the range stored at box[at] to box[at+3]. When fill
+     * is false, count one entry for each bucket; otherwise store the item in
+     * each bucket. Returns the number of cells visited.
+     */
+    private int visit(int[] box, int at, int item, boolean fill) {
+        for (int cx = box[at]; cx <= box[at+2]; cx++) {
+            for (int cy = box[at+1]; cy <= box[at+3]; cy++) {
+                int k = bucket(cx, cy);
+                if (fill) {
+                    int j = cellStart[k]++;
+                    cellItems[j] = item;
+                    cellX[j] = cx;
+                    cellY[j] = cy;
+                } else
+                    cellStart[k+1]++;
+            }
+        }
+        return (box[at+2] - box[at] + 1) * (box[at+3] - box[at+1] + 1);
+    }
+
+    /**
+     * Return the cell column (or row) containing the given coordinate. Cells
+     * further than MAX_CELL from the origin are treated as MAX_CELL, so loops
+     * over a range of cells can't overflow.
+     */
+    private int cell(double coordinate) {
+        double c = Math.floor(coordinate / cellSize);
+        return (int)Math.max(-MAX_CELL, Math.min(MAX_CELL, c));
+    }
+
+    // Largest cell column or row number used, see cell().
+    private static final int MAX_CELL = 1 << 30;
+
+    /**
+     * Throw an exception if a sprite's position or radius isn't a finite
+     * number, since there is no cell to put it in.
+     */
+    private static void checkFinite(double x, double y, double r) {
+        if (!Double.isFinite(x) || !Double.isFinite(y) || !Double.isFinite(r))
+            throw new IllegalArgumentException("sprite at (" + x + ", " + y + ") with radius "
+                    + r + " is not in any cell");
+    }
+
+    /**
+     * Return the bucket for the given cell. Distinct cells may share a
+     * bucket; that only costs a few extra candidate checks.
+     */
+    private int bucket(int cx, int cy) {
+        return ((cx * 73856093) ^ (cy * 19349663)) & (buckets - 1);
+    }
+
+    /**
+     * A main() function for testing purposes. It scatters a few thousand
+     * balls and stars randomly and compares every query against the brute
+     * force answer.
+     */
+    public static void main(String args[]) {
+        int n = 2000;
+        Ball[] balls = new Ball[n];
+        Star[] stars = new Star[n / 10];
+        SpatialHash hash = new SpatialHash(0.02);
+        for (int i = 0; i < n; i++) {
+            balls[i] = new Ball(StdRandom.uniform(), StdRandom.uniform(),
+                    StdRandom.uniform(0.001, 0.03));
+            hash.add(balls[i]);
+        }
+        for (int i = 0; i < stars.length; i++) {
+            stars[i] = new Star(StdRandom.uniform(), StdRandom.uniform(),
+                    StdRandom.uniform(0.001, 0.01), 5);
+            hash.add(stars[i]);
+        }
+
+        int mismatches = 0;
+        for (int i = 0; i < n; i++) {
+            Ball b = balls[i];
+            int touching = 0, covered = 0, touchingStars = 0, coveredStars = 0;
+            for (int j = 0; j < n; j++) {
+                if (j == i) continue;
+                if (b.touching(balls[j])) touching++;
+                if (b.covering(balls[j])) covered++;
+            }
+            for (int j = 0; j < stars.length; j++) {
+                if (b.touching(stars[j])) touchingStars++;
+                if (b.covering(stars[j])) coveredStars++;
+            }
+            if (hash.queryTouching(b).size() != touching
+                    || hash.queryCovered(b).size() != covered
+                    || hash.queryTouchingStars(b).size() != touchingStars
+                    || hash.queryCoveredStars(b).size() != coveredStars)
+                mismatches++;
+        }
+        StdOut.println(hash + ": " + mismatches + " mismatches");
+
+        // The versions that fill a list should find the same, and a huge
+        // ball should find everything without visiting every cell it covers.
+        List<Ball> found = new ArrayList<Ball>();
+        List<Star> foundStars = new ArrayList<Star>();
+        mismatches = 0;
+        for (int i = 0; i < n; i++) {
+            found.clear();
+            foundStars.clear();
+            hash.queryTouching(balls[i], found);
+            hash.queryTouchingStars(balls[i], foundStars);
+            if (!found.equals(hash.queryTouching(balls[i]))
+                    || !foundStars.equals(hash.queryTouchingStars(balls[i])))
+                mismatches++;
+        }
+        StdOut.println("filling a list: " + mismatches + " mismatches");
+        Ball huge = new Ball(0.5, 0.5, 1e12);
+        long start = System.nanoTime();
+        int all = hash.queryCovered(huge).size() + hash.queryCoveredStars(huge).size();
+        StdOut.printf("radius 1e12 covers %d of %d sprites in %.3f ms\n", all, n + stars.length,
+                (System.nanoTime() - start) / 1e6);
+    }
+}
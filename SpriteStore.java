@@ -0,0 +1,372 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  Keeps a very large number of balls and stars in a few arrays
+ *  instead of one object each: float coordinates and angles, a
+ *  short color number and a byte for the number of points. Each
+ *  sprite takes about 32 bytes this way, instead of about 60 for a
+ *  Ball object and 140 for a Star object (460 with its corner arrays).
+ *
+ *  Example: java SpriteStore 1000000
+ *----------------------------------------------------------------*/
+
+import java.awt.Color;
+import java.util.Arrays;
+
+/**
+ * A SpriteStore holds balls and stars that move in straight lines and bounce
+ * off the edges of a world, stars spinning as they go, without a Ball or Star
+ * object for each one:
+ *
+ *    SpriteStore store = new SpriteStore(world);
+ *    Scenario.load("huge").loader().rest(store);
+ *    while (true) {
+ *        store.tick(20);
+ *        store.draw(queue, camera, 0, 1);
+ *        ...
+ *    }
+ *
+ * Sprite i is stored as entry i of each array. Coordinates, velocities and
+ * radii are floats, which are exact to about one part in sixteen million: in
+ * a world 100 meters across that is under 0.00001 meters, far smaller than a
+ * pixel or anything the sprites do in one frame. Colors are stored as a number in a
+ * table that starts out as the HuePalette, so a ball made with setHue() costs
+ * two bytes for its color; any other color is added to the table the first
+ * time it is seen. Stars don't store their corners at all; they are worked out
+ * from the shared StarShape tables, turned by the star's angle, when drawn.
+ */
+public class SpriteStore implements Scenario.Sink {
+
+    // Most different colors a store can hold, since they are numbered with a
+    // short.
+    public static final int MAX_COLORS = Short.MAX_VALUE + 1;
+
+    // Half a turn and a whole turn, in radians.
+    private static final float PI = (float)Math.PI;
+    private static final float TWO_PI = (float)(2 * Math.PI);
+
+    // The world the sprites bounce around in.
+    private final WorldBounds world;
+
+    // Position, velocity (in "meters" per second) and radius of each sprite.
+    private float[] x, y, vx, vy, radius;
+
+    // Angle (in radians, between -pi and pi) and spin (in radians per
+    // second) of each sprite, always 0 for a ball.
+    private float[] angle, spin;
+
+    // Color number of each sprite, see colors below.
+    private short[] color;
+
+    // Number of points on each sprite: 0 for a ball, otherwise a star.
+    private byte[] points;
+
+    // Number of sprites, and how many of them are stars.
+    private int count, stars;
+
+    // The colors the numbers stand for. The first HuePalette.SIZE are the
+    // palette, in order.
+    private Color[] colors;
+    private int colorCount;
+
+    /**
+     * Create an empty store for sprites in the given world.
+     */
+    public SpriteStore(WorldBounds world) {
+        this.world = world;
+        x = new float[16];
+        y = new float[16];
+        vx = new float[16];
+        vy = new float[16];
+        radius = new float[16];
+        angle = new float[16];
+        spin = new float[16];
+        color = new short[16];
+        points = new byte[16];
+        colors = new Color[2 * HuePalette.SIZE];
+        for (int i = 0; i < HuePalette.SIZE; i++)
+            colors[i] = HuePalette.get(i);
+        colorCount = HuePalette.SIZE;
+    }
+
+    /**
+     * Return a string representation of this store. Possibly useful for
+     * debugging.
+     */
+    public String toString() {
+        return "SpriteStore(" + (count - stars) + " balls, " + stars + " stars, "
+            + colorCount + " colors, " + bytes() + " bytes)";
+    }
+
+    /**
+     * Return the number of sprites.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Return the number of sprites that are stars.
+     */
+    public int starCount() {
+        return stars;
+    }
+
+    /**
+     * Return the number of bytes used by the arrays holding the sprites,
+     * including room not used yet.
+     */
+    public long bytes() {
+        long perSprite = 7 * Float.BYTES + Short.BYTES + Byte.BYTES;
+        return perSprite * x.length + 8L * colors.length;
+    }
+
+    /**
+     * Add a ball, copying its position, velocity, radius and color. The Ball
+     * object itself is not kept.
+     */
+    public void addBall(Ball b) {
+        add(b.getX(), b.getY(), b.getXVelocity(), b.getYVelocity(), b.getRadius(), b.getColor(), 0);
+    }
+
+    /**
+     * Add a star, copying its position, velocity, radius, angle, spin, points
+     * and color. The Star object itself is not kept.
+     */
+    public void addStar(Star s) {
+        if (s.getPoints() > Byte.MAX_VALUE)
+            throw new IllegalArgumentException("too many points to store: " + s.getPoints());
+        add(s.getX(), s.getY(), s.getXVelocity(), s.getYVelocity(), s.getRadius(), s.getColor(), s.getPoints());
+        angle[count - 1] = (float)s.getAngle();
+        spin[count - 1] = (float)s.getSpin();
+        stars++;
+    }
+
+    /**
+     * Store one sprite at the end of the arrays, making them bigger first if
+     * they are full.
+     */
+    private void add(double sx, double sy, double svx, double svy, double r, Color c, int n) {
+        if (count == x.length) {
+            int size = 2 * count;
+            x = Arrays.copyOf(x, size);
+            y = Arrays.copyOf(y, size);
+            vx = Arrays.copyOf(vx, size);
+            vy = Arrays.copyOf(vy, size);
+            radius = Arrays.copyOf(radius, size);
+            angle = Arrays.copyOf(angle, size);
+            spin = Arrays.copyOf(spin, size);
+            color = Arrays.copyOf(color, size);
+            points = Arrays.copyOf(points, size);
+        }
+        x[count] = (float)sx;
+        y[count] = (float)sy;
+        vx[count] = (float)svx;
+        vy[count] = (float)svy;
+        radius[count] = (float)r;
+        color[count] = (short)colorNumber(c);
+        points[count] = (byte)n;
+        count++;
+    }
+
+    /**
+     * Return the number standing for the given color, adding it to the table
+     * if it isn't there yet. Palette colors are found straight away from
+     * their hue.
+     */
+    private int colorNumber(Color c) {
+        float[] hsb = Color.RGBtoHSB(c.getRed(), c.getGreen(), c.getBlue(), null);
+        int guess = HuePalette.index(hsb[0]);
+        if (HuePalette.get(guess).getRGB() == c.getRGB())
+            return guess;
+        for (int i = HuePalette.SIZE; i < colorCount; i++) {
+            if (colors[i].getRGB() == c.getRGB())
+                return i;
+        }
+        if (colorCount == MAX_COLORS)
+            throw new IllegalStateException("more than " + MAX_COLORS + " colors");
+        if (colorCount == colors.length)
+            colors = Arrays.copyOf(colors, Math.min(2 * colorCount, MAX_COLORS));
+        colors[colorCount] = c;
+        return colorCount++;
+    }
+
+    /**
+     * Return the x coordinate of sprite i.
+     */
+    public double getX(int i) {
+        return x[i];
+    }
+
+    /**
+     * Return the y coordinate of sprite i.
+     */
+    public double getY(int i) {
+        return y[i];
+    }
+
+    /**
+     * Return the radius of sprite i.
+     */
+    public double getRadius(int i) {
+        return radius[i];
+    }
+
+    /**
+     * Return the angle sprite i has turned counterclockwise, in radians
+     * between -pi and pi, or 0 if it is a ball.
+     */
+    public double getAngle(int i) {
+        return angle[i];
+    }
+
+    /**
+     * Return the color of sprite i.
+     */
+    public Color getColor(int i) {
+        return colors[color[i]];
+    }
+
+    /**
+     * Return the number of points sprite i has, or 0 if it is a ball.
+     */
+    public int getPoints(int i) {
+        return points[i];
+    }
+
+    /**
+     * Move every sprite for the given duration (in milliseconds), first
+     * reversing direction if it has gone past an edge of the world: the edge
+     * of a ball, or the center of a star, as Bounce does. Stars also turn by
+     * their spin. Returns the number of bounces.
+     */
+    public int tick(int durationInMilliseconds) {
+        float xmin = (float)world.getXMin(), xmax = (float)world.getXMax();
+        float ymin = (float)world.getYMin(), ymax = (float)world.getYMax();
+        float dt = durationInMilliseconds / 1000.0f;
+        int bounces = 0;
+        for (int i = 0; i < count; i++) {
+            float r = points[i] == 0 ? radius[i] : 0.0f;
+            if ((vx[i] > 0 && x[i] + r > xmax) || (vx[i] < 0 && x[i] - r < xmin)) {
+                vx[i] = -vx[i];
+                bounces++;
+            }
+            if ((vy[i] > 0 && y[i] + r > ymax) || (vy[i] < 0 && y[i] - r < ymin)) {
+                vy[i] = -vy[i];
+                bounces++;
+            }
+            x[i] += vx[i] * dt;
+            y[i] += vy[i] * dt;
+
+            // Keep the angle between -pi and pi, where a float is exact to
+            // well under a millionth of a turn.
+            if (spin[i] != 0.0f) {
+                float a = angle[i] + spin[i] * dt;
+                if (a > PI)
+                    a -= TWO_PI;
+                else if (a < -PI)
+                    a += TWO_PI;
+                angle[i] = a;
+            }
+        }
+        return bounces;
+    }
+
+    /**
+     * Add every sprite the camera can see to the render queue: balls in
+     * ballLayer and stars in starLayer, turned by their angles.
+     */
+    public void draw(RenderQueue queue, Camera camera, int ballLayer, int starLayer) {
+        for (int i = 0; i < count; i++) {
+            int n = points[i];
+            if (n == 0) {
+                if (camera.visible(x[i], y[i], radius[i]))
+                    queue.circle(x[i], y[i], radius[i], colors[color[i]], ballLayer);
+            } else {
+                StarShape shape = StarShape.of(n);
+                if (!camera.visible(x[i], y[i], radius[i] * shape.outerRadius()))
+                    continue;
+                float a = angle[i];
+                if (a == 0.0f)
+                    queue.star(x[i], y[i], radius[i], shape, colors[color[i]], starLayer);
+                else
+                    queue.star(x[i], y[i], radius[i], Math.cos(a), Math.sin(a), shape, colors[color[i]], starLayer);
+            }
+        }
+    }
+
+    /**
+     * Return the number of bytes the heap grew by since the given number,
+     * after collecting garbage.
+     */
+    private static long heapSince(long before) {
+        Runtime runtime = Runtime.getRuntime();
+        for (int k = 0; k < 4; k++)
+            System.gc();
+        return runtime.totalMemory() - runtime.freeMemory() - before;
+    }
+
+    /**
+     * A main() function for testing purposes. Makes the given number of balls
+     * and stars as objects, then stores them here instead, and reports how
+     * many bytes each sprite takes both ways.
+     */
+    public static void main(String args[]) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int starPoints = 9;
+        StdRandom.setSeed(1);
+        long base = heapSince(0);
+
+        // Balls as objects.
+        Ball[] balls = new Ball[n];
+        for (int i = 0; i < n; i++) {
+            balls[i] = new Ball(StdRandom.uniform(), StdRandom.uniform(), 0.001);
+            balls[i].setVelocity(StdRandom.uniform(-0.1, 0.1), StdRandom.uniform(-0.1, 0.1));
+            balls[i].setHue(StdRandom.uniform());
+        }
+        long ballBytes = heapSince(base);
+
+        // Stars as objects, once with their corner arrays (as every star had
+        // them before) and once without.
+        Star[] objects = new Star[n];
+        for (int i = 0; i < n; i++) {
+            objects[i] = new Star(StdRandom.uniform(), StdRandom.uniform(), 0.002, starPoints);
+            objects[i].setColor(HuePalette.color(StdRandom.uniform()));
+            objects[i].setSpin(StdRandom.uniform(-3.0, 3.0));
+        }
+        long starBytes = heapSince(base) - ballBytes;
+        for (int i = 0; i < n; i++)
+            objects[i].getBoundaryX();
+        long starCornerBytes = heapSince(base) - ballBytes;
+
+        // The same sprites in a store, with the objects thrown away.
+        SpriteStore store = new SpriteStore(WorldBounds.UNIT);
+        for (int i = 0; i < n; i++) {
+            store.addBall(balls[i]);
+            balls[i] = null;
+        }
+        for (int i = 0; i < n; i++) {
+            store.addStar(objects[i]);
+            objects[i] = null;
+        }
+        balls = null;
+        objects = null;
+        long storeBytes = heapSince(base);
+
+        StdOut.printf("%d balls and %d %d-pointed stars\n", n, n, starPoints);
+        StdOut.printf("  Ball objects:               %6.1f bytes each\n", ballBytes / (double)n);
+        StdOut.printf("  Star objects with corners:  %6.1f bytes each\n", starCornerBytes / (double)n);
+        StdOut.printf("  Star objects, no corners:   %6.1f bytes each\n", starBytes / (double)n);
+        StdOut.printf("  SpriteStore, either kind:   %6.1f bytes each (%.1f in the arrays)\n",
+                storeBytes / (2.0 * n), store.bytes() / (2.0 * n));
+
+        // Check that moving them is still quick.
+        long start = System.nanoTime();
+        int bounces = 0;
+        for (int t = 0; t < 50; t++)
+            bounces += store.tick(20);
+        StdOut.printf("  %.1f ms per tick for %d sprites (%d bounces)\n",
+                (System.nanoTime() - start) / 1e6 / 50, store.size(), bounces);
+        StdOut.println(store);
+    }
+}
@@ -24,9 +24,23 @@ import java.awt.Color;
  *
  * You can change the star's position, size, color, etc. using the accessor
  * functions. Changing these properties doesn't affect what has already been
- * drawn. Instead, you must call draw() again to draw the new image. By itself,
- * the Star class doesn't offer much support for animation. For example, a Star
- * object doesn't have a speed or velocity.
+ * drawn. Instead, you must call draw() again to draw the new image.
+ *
+ * Star objects have the same support for animation as Ball objects: a
+ * velocity, and move(), bounce() and wrap() functions. A star can also spin:
+ *
+ *    s.setVelocity(0.3, 0.0);     // meters per second
+ *    s.setSpin(Math.PI);          // radians per second, counterclockwise
+ *    while (true) {
+ *        s.bounce();
+ *        s.move(20);
+ *        ...draw...
+ *    }
+ *
+ * Moving and spinning don't use any trigonometry: the turn for one step is
+ * worked out once and reused for every step of the same length, and corners
+ * that have already been computed are shifted and turned rather than worked
+ * out again.
  */
 public class Star { 
 
@@ -35,8 +49,40 @@ public class Star {
 
     // Points defining the boundaries of this star. These two arrays define the
     // (x, y) coordinates of each point and each inside corner of the star.
+    // They are only created and brought up to date when something asks for
+    // them, see updateBoundary(). The collision checks work the corners out
+    // from the shared shape instead, so most stars never need them.
     private double px[], py[];
 
+    // Whether px and py match the current position, radius and angle.
+    private boolean boundaryValid;
+
+    // Number of times px and py have been shifted or turned since they were
+    // last worked out from scratch. Each time adds a tiny rounding error, so
+    // after REFRESH times they are worked out again.
+    private int boundaryUpdates;
+    private static final int REFRESH = 1000;
+
+    // Velocity of this star in the x and y directions. Units are "meters" per
+    // second.
+    private double vx, vy;
+
+    // How far this star has turned counterclockwise from pointing straight
+    // up, as the cosine and sine of the angle, and how fast it is turning, in
+    // radians per second.
+    private double cos = 1.0, sin = 0.0;
+    private double spin;
+
+    // The cosine and sine of the turn made by one move() of stepMillis
+    // milliseconds at stepSpin radians per second, kept so that moving
+    // doesn't need any trigonometry unless the step or the spin changes.
+    private int stepMillis = -1;
+    private double stepSpin, stepCos, stepSin;
+
+    // The shape of this star, shared with every other star with the same
+    // number of points.
+    private StarShape shape;
+
     // Radius of this star when drawn on the canvas. Units are "meters".
     private double radius;
 
@@ -55,10 +101,9 @@ public class Star {
         this.y = y;
         this.radius = radius;
         this.points = n;
-        this.color = StdDraw.BLACK;
-        this.px = new double[2*n];
-        this.py = new double[2*n];
-        updateBoundary();
+        this.color = Color.BLACK;
+        this.shape = StarShape.of(n);
+        this.boundaryValid = false;
     }
 
     /**
@@ -70,10 +115,9 @@ public class Star {
         this.y = 0.5;
         this.radius = 0.1;
         this.points = n;
-        this.color = StdDraw.BLACK;
-        this.px = new double[2*n];
-        this.py = new double[2*n];
-        updateBoundary();
+        this.color = Color.BLACK;
+        this.shape = StarShape.of(n);
+        this.boundaryValid = false;
     }
 
     /**
@@ -91,7 +135,7 @@ public class Star {
      */
     public void setXPosition(double x) {
         this.x = x;
-        updateBoundary();
+        boundaryValid = false;
     }
 
     /**
@@ -101,7 +145,7 @@ public class Star {
      */
     public void setYPosition(double y) {
         this.y = y;
-        updateBoundary();
+        boundaryValid = false;
     }
 
     /**
@@ -112,7 +156,7 @@ public class Star {
     public void setPosition(double x, double y) {
         this.x = x;
         this.y = y;
-        updateBoundary();
+        boundaryValid = false;
     }
 
     /**
@@ -122,7 +166,46 @@ public class Star {
      */
     public void setRadius(double r) {
         radius = r;
-        updateBoundary();
+        boundaryValid = false;
+    }
+
+    /**
+     * Set the velocity of this star. Units are "meters" per second. This only
+     * affects future calls to move().
+     */
+    public void setVelocity(double vx, double vy) {
+        this.vx = vx;
+        this.vy = vy;
+    }
+
+    /**
+     * Set how fast this star spins, in radians per second. Positive values
+     * mean counterclockwise. This only affects future calls to move().
+     */
+    public void setSpin(double radiansPerSecond) {
+        spin = radiansPerSecond;
+    }
+
+    /**
+     * Set the angle this star has turned counterclockwise from pointing
+     * straight up, in radians. This does not affect any drawing that has
+     * already been done.
+     */
+    public void setAngle(double radians) {
+        cos = Math.cos(radians);
+        sin = Math.sin(radians);
+        boundaryValid = false;
+    }
+
+    /**
+     * Set the angle this star has turned counterclockwise from pointing
+     * straight up, given as its cosine and sine, exactly as returned by
+     * getTurnCos() and getTurnSin(). Useful for restoring a saved star.
+     */
+    public void setTurn(double cos, double sin) {
+        this.cos = cos;
+        this.sin = sin;
+        boundaryValid = false;
     }
 
     /**
@@ -148,6 +231,49 @@ public class Star {
         return y;
     }
 
+    /**
+     * Return the x velocity of this star.
+     */
+    public double getXVelocity() {
+        return vx;
+    }
+
+    /**
+     * Return the y velocity of this star.
+     */
+    public double getYVelocity() {
+        return vy;
+    }
+
+    /**
+     * Return how fast this star spins, in radians per second.
+     */
+    public double getSpin() {
+        return spin;
+    }
+
+    /**
+     * Return the angle this star has turned counterclockwise from pointing
+     * straight up, in radians, between -pi and pi.
+     */
+    public double getAngle() {
+        return Math.atan2(sin, cos);
+    }
+
+    /**
+     * Return the cosine of the angle this star has turned.
+     */
+    public double getTurnCos() {
+        return cos;
+    }
+
+    /**
+     * Return the sine of the angle this star has turned.
+     */
+    public double getTurnSin() {
+        return sin;
+    }
+
     /**
      * Return the radius of this star.
      */
@@ -155,6 +281,264 @@ public class Star {
         return radius;
     }
 
+    /**
+     * Return the number of points this star has.
+     */
+    public int getPoints() {
+        return points;
+    }
+
+    /**
+     * Return the color of this star.
+     */
+    public Color getColor() {
+        return color;
+    }
+
+    /**
+     * Return the x coordinates of the corners of this star, going clockwise
+     * from the top point. The array belongs to this star and is updated when
+     * the star moves, so don't change it or hold on to it.
+     */
+    public double[] getBoundaryX() {
+        updateBoundary();
+        return px;
+    }
+
+    /**
+     * Return the y coordinates of the corners of this star, going clockwise
+     * from the top point. The array belongs to this star and is updated when
+     * the star moves, so don't change it or hold on to it.
+     */
+    public double[] getBoundaryY() {
+        updateBoundary();
+        return py;
+    }
+
+    /**
+     * Return the distance from the center of this star to the tips of its
+     * points. No part of the star is farther from the center than this, so
+     * it is the radius of a circle that encloses the whole star.
+     */
+    public double getOuterRadius() {
+        return radius * shape.outerRadius();
+    }
+
+    /**
+     * Check whether this star overlaps a circle centered at (cx, cy) with
+     * radius r, i.e. whether some part of the star is less than r away from
+     * (cx, cy). This uses the real star-shaped outline, not a circle.
+     */
+    public boolean touchingCircle(double cx, double cy, double r) {
+        double dx = cx - x;
+        double dy = cy - y;
+        double dd = dx*dx + dy*dy;
+
+        // Quick answers: the star fits inside a circle of the outer radius,
+        // and a circle of the inner radius fits inside the star.
+        double far = r + radius * shape.outerRadius();
+        if (dd >= far * far)
+            return false;
+        double near = r + radius * shape.innerRadius();
+        if (dd < near * near)
+            return true;
+
+        // The circle's edge is somewhere among the points, so check the
+        // actual outline: either the center is inside the star, or the
+        // circle reaches across one of the edges.
+        if (insideBoundary(cx, cy))
+            return true;
+        double rr = r * r;
+        int n = shape.corners();
+        double jx = cornerX(n - 1), jy = cornerY(n - 1);
+        for (int i = 0; i < n; i++) {
+            double ix = cornerX(i), iy = cornerY(i);
+            if (StarShape.segmentDistanceSquared(cx, cy, jx, jy, ix, iy) < rr)
+                return true;
+            jx = ix;
+            jy = iy;
+        }
+        return false;
+    }
+
+    /**
+     * Check whether this star lies completely inside a circle centered at
+     * (cx, cy) with radius r, i.e. whether every part of the star is less
+     * than r away from (cx, cy). This uses the real star-shaped outline, not
+     * a circle.
+     */
+    public boolean insideCircle(double cx, double cy, double r) {
+        double dx = cx - x;
+        double dy = cy - y;
+        double dd = dx*dx + dy*dy;
+        double outer = radius * shape.outerRadius();
+
+        // Quick answers: if the outer circle is inside, so is the star. And
+        // since the points are spread evenly around the center, at least one
+        // of them is at least sqrt(outer^2 + d^2) away from (cx, cy).
+        double d = Math.sqrt(dd);
+        if (r > d + outer)
+            return true;
+        if (points >= 2 && r * r <= outer * outer + dd)
+            return false;
+
+        // The star lies within the convex hull of its corners, and a circle
+        // is convex, so the star is inside exactly when all corners are.
+        double rr = r * r;
+        for (int i = 0; i < shape.corners(); i++) {
+            double ex = cornerX(i) - cx;
+            double ey = cornerY(i) - cy;
+            if (ex*ex + ey*ey >= rr)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Check whether the point (qx, qy) is inside the boundary of this star,
+     * by counting how many edges a ray going right from the point crosses.
+     * The corners are worked out from the shared shape as they are needed.
+     */
+    private boolean insideBoundary(double qx, double qy) {
+        boolean inside = false;
+        int n = shape.corners();
+        double jx = cornerX(n - 1), jy = cornerY(n - 1);
+        for (int i = 0; i < n; i++) {
+            double ix = cornerX(i), iy = cornerY(i);
+            if ((iy > qy) != (jy > qy) && qx < jx + (qy - jy) * (ix - jx) / (iy - jy))
+                inside = !inside;
+            jx = ix;
+            jy = iy;
+        }
+        return inside;
+    }
+
+    /**
+     * Return the x coordinate of corner i, worked out from the shared shape.
+     */
+    private double cornerX(int i) {
+        return x + radius * (cos * shape.x(i) - sin * shape.y(i));
+    }
+
+    /**
+     * Return the y coordinate of corner i, worked out from the shared shape.
+     */
+    private double cornerY(int i) {
+        return y + radius * (sin * shape.x(i) + cos * shape.y(i));
+    }
+
+    /**
+     * Update the position of this star according to its velocity, and turn
+     * it according to its spin, for the given duration (in milliseconds).
+     * If the corners have already been worked out, they are moved along with
+     * the star instead of being worked out again.
+     */
+    public void move(int durationInMilliseconds) {
+        // We divide by 1000 because the velocities are per second, not per
+        // millisecond.
+        double dx = vx * durationInMilliseconds / 1000.0;
+        double dy = vy * durationInMilliseconds / 1000.0;
+        double oldX = x, oldY = y;
+        x += dx;
+        y += dy;
+
+        if (spin == 0.0) {
+            if (boundaryValid && (dx != 0.0 || dy != 0.0)) {
+                for (int i = 0; i < px.length; i++) {
+                    px[i] += dx;
+                    py[i] += dy;
+                }
+                boundaryMoved();
+            }
+            return;
+        }
+
+        // Turn by the same angle as last time, unless the step has changed.
+        if (durationInMilliseconds != stepMillis || spin != stepSpin) {
+            double turn = spin * durationInMilliseconds / 1000.0;
+            stepCos = Math.cos(turn);
+            stepSin = Math.sin(turn);
+            stepMillis = durationInMilliseconds;
+            stepSpin = spin;
+        }
+        double c = cos * stepCos - sin * stepSin;
+        double s = sin * stepCos + cos * stepSin;
+
+        // Rounding errors would slowly shrink or grow the star, so keep
+        // (cos, sin) one long. It is always very nearly one already, so one
+        // step of Newton's method is enough, and avoids a square root.
+        double k = 1.5 - 0.5 * (c*c + s*s);
+        cos = c * k;
+        sin = s * k;
+
+        if (boundaryValid) {
+            for (int i = 0; i < px.length; i++) {
+                double ex = px[i] - oldX, ey = py[i] - oldY;
+                px[i] = x + stepCos * ex - stepSin * ey;
+                py[i] = y + stepSin * ex + stepCos * ey;
+            }
+            boundaryMoved();
+        }
+    }
+
+    /**
+     * Count one shift or turn of the corners, and have them worked out
+     * again from scratch if the rounding errors might have added up.
+     */
+    private void boundaryMoved() {
+        if (++boundaryUpdates >= REFRESH)
+            boundaryValid = false;
+    }
+
+    /**
+     * If this star has completely moved off the StdDraw canvas, change its
+     * position so it "wraps" around to the other side of the canvas, like
+     * Ball.wrap(). The velocity is left as is.
+     */
+    public void wrap() {
+        wrap(WorldBounds.UNIT);
+    }
+
+    /**
+     * Like wrap(), but for a world with the given bounds instead of the
+     * StdDraw canvas.
+     */
+    public void wrap(WorldBounds world) {
+        double r = getOuterRadius();
+        double xmin = world.getXMin(), xmax = world.getXMax();
+        double ymin = world.getYMin(), ymax = world.getYMax();
+        double wx = x, wy = y;
+        while (wx > xmax + r) wx -= (xmax - xmin + 2.0*r);
+        while (wy > ymax + r) wy -= (ymax - ymin + 2.0*r);
+        while (wx < xmin - r) wx += (xmax - xmin + 2.0*r);
+        while (wy < ymin - r) wy += (ymax - ymin + 2.0*r);
+        if (wx != x || wy != y)
+            setPosition(wx, wy);
+    }
+
+    /**
+     * If the tip of any point has gone past an edge of the StdDraw canvas,
+     * reverse the star's direction so it heads back, like Ball.bounce(). The
+     * star keeps spinning the same way.
+     */
+    public void bounce() {
+        bounce(WorldBounds.UNIT);
+    }
+
+    /**
+     * Like bounce(), but for a world with the given bounds instead of the
+     * StdDraw canvas.
+     */
+    public void bounce(WorldBounds world) {
+        double r = getOuterRadius();
+        if ((vx > 0 && x + r > world.getXMax()) || (vx < 0 && x - r < world.getXMin())) {
+            vx *= -1;
+        }
+        if ((vy > 0 && y + r > world.getYMax()) || (vy < 0 && y - r < world.getYMin())) {
+            vy *= -1;
+        }
+    }
+
     /**
      * Calculate the approximate size (or "surface area") of this star. Units
      * are square "meters".
@@ -169,6 +553,7 @@ public class Star {
      * updated canvas appears on the screen.
      */
     public void draw() {
+        updateBoundary();
         StdDraw.setPenColor(color);
         StdDraw.filledPolygon(px, py);
     }
@@ -176,19 +561,25 @@ public class Star {
     /**
      * Sharpness factor for the border of a star. Larger means more pointy.
      */
-    private static final double SHARPNESS = 0.2;
+    static final double SHARPNESS = 0.2;
 
     /**
-     * Update the boundary points of this star. This is called internally by
-     * other functions in this class every time the size or position changes.
-     * The results of this function are used by the draw() function.
+     * Update the boundary points of this star, if the size or position has
+     * changed since they were last computed, creating the arrays the first
+     * time. This is called internally by other functions in this class just
+     * before the boundary is used, e.g. by the draw() function, so changing
+     * a star many times between draws only costs one update. The corners come
+     * from the shared StarShape, so no trigonometry is needed here.
      */
     private void updateBoundary() {
-        for (int i = 0; i < 2 * points; i++) {
-            double angle = i * 2 * Math.PI / (2 * points);
-            double r = radius * (1.0 + (i % 2 == 0 ? SHARPNESS : -SHARPNESS));
-            px[i] = x + r * Math.sin(angle);
-            py[i] = y + r * Math.cos(angle);
+        if (px == null) {
+            px = new double[shape.corners()];
+            py = new double[shape.corners()];
+        }
+        if (!boundaryValid) {
+            shape.place(x, y, radius, cos, sin, px, py, 0);
+            boundaryValid = true;
+            boundaryUpdates = 0;
         }
     }
 
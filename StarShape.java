@@ -0,0 +1,209 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  The outline of an n-pointed star of radius 1 centered at (0, 0),
+ *  computed once per number of points and shared by every Star with
+ *  that many points.
+ *
+ *  Example: java StarShape
+ *----------------------------------------------------------------*/
+
+import java.util.Arrays;
+
+/**
+ * A StarShape holds the corners of a "unit" star: one with radius 1, centered
+ * at the origin. Corner 0 is the top point, and the corners go clockwise,
+ * alternating between points (distance 1 + SHARPNESS from the center) and
+ * inside corners (distance 1 - SHARPNESS). Every Star with the same number of
+ * points has the same shape, just moved and scaled, so the sines and cosines
+ * only have to be computed once:
+ *
+ *    StarShape shape = StarShape.of(7);
+ *    shape.place(0.5, 0.5, 0.1, px, py);   // px, py have 14 entries
+ *
+ * Shapes are created the first time they are asked for and then kept forever.
+ */
+public class StarShape {
+
+    // Shapes created so far, indexed by number of points. Entries are null
+    // until first requested. Replaced (never modified) when it has to grow,
+    // so it can be read without locking.
+    private static volatile StarShape[] cache = new StarShape[32];
+
+    // Number of points on this star.
+    private final int points;
+
+    // Corners of the unit star: (ux[i], uy[i]) is corner i.
+    private final double[] ux, uy;
+
+    // Radius of the largest circle around the origin that fits entirely
+    // inside the unit star.
+    private final double inner;
+
+    /**
+     * Return the shape for stars with the given number of points.
+     */
+    public static StarShape of(int points) {
+        if (points < 1)
+            throw new IllegalArgumentException("a star needs at least one point: " + points);
+        StarShape[] shapes = cache;
+        if (points < shapes.length && shapes[points] != null)
+            return shapes[points];
+        return create(points);
+    }
+
+    /**
+     * Make the shape for the given number of points and remember it. This is
+     * the slow path of of(), so it is fine for it to lock.
+     */
+    private static synchronized StarShape create(int points) {
+        StarShape[] shapes = cache;
+        if (points < shapes.length && shapes[points] != null)
+            return shapes[points];
+        if (points >= shapes.length)
+            shapes = Arrays.copyOf(shapes, Math.max(points + 1, 2 * shapes.length));
+        else
+            shapes = shapes.clone();
+        shapes[points] = new StarShape(points);
+        cache = shapes;
+        return shapes[points];
+    }
+
+    private StarShape(int points) {
+        this.points = points;
+        this.ux = new double[2 * points];
+        this.uy = new double[2 * points];
+        for (int i = 0; i < 2 * points; i++) {
+            double angle = i * 2 * Math.PI / (2 * points);
+            double r = 1.0 + (i % 2 == 0 ? Star.SHARPNESS : -Star.SHARPNESS);
+            ux[i] = r * Math.sin(angle);
+            uy[i] = r * Math.cos(angle);
+        }
+
+        // The closest part of the outline to the center may be partway along
+        // an edge rather than at an inside corner, so check every edge.
+        double closest = Double.POSITIVE_INFINITY;
+        for (int i = 0, j = ux.length - 1; i < ux.length; j = i++)
+            closest = Math.min(closest, segmentDistanceSquared(0.0, 0.0, ux[j], uy[j], ux[i], uy[i]));
+        this.inner = Math.sqrt(closest);
+    }
+
+    /**
+     * Return the square of the distance from point (x, y) to the line segment
+     * from (x1, y1) to (x2, y2).
+     */
+    static double segmentDistanceSquared(double x, double y,
+            double x1, double y1, double x2, double y2) {
+        double ex = x2 - x1, ey = y2 - y1;
+        double fx = x - x1, fy = y - y1;
+        double length = ex*ex + ey*ey;
+        double t = length > 0.0 ? (fx*ex + fy*ey) / length : 0.0;
+        if (t < 0.0) t = 0.0;
+        if (t > 1.0) t = 1.0;
+        double dx = fx - t*ex, dy = fy - t*ey;
+        return dx*dx + dy*dy;
+    }
+
+    /**
+     * Return a string representation of this shape. Possibly useful for
+     * debugging.
+     */
+    public String toString() {
+        return "StarShape(" + points + ")";
+    }
+
+    /**
+     * Return the number of points on this star.
+     */
+    public int points() {
+        return points;
+    }
+
+    /**
+     * Return the number of corners on this star, which is twice the number of
+     * points since there is an inside corner between each pair of points.
+     */
+    public int corners() {
+        return 2 * points;
+    }
+
+    /**
+     * Return the distance from the center to the tips of the points of the
+     * unit star. No part of the star is farther away than this.
+     */
+    public double outerRadius() {
+        return 1.0 + Star.SHARPNESS;
+    }
+
+    /**
+     * Return the radius of the largest circle, centered at the center, that
+     * fits entirely inside the unit star.
+     */
+    public double innerRadius() {
+        return inner;
+    }
+
+    /**
+     * Return the x coordinate of corner i of the unit star.
+     */
+    public double x(int i) {
+        return ux[i];
+    }
+
+    /**
+     * Return the y coordinate of corner i of the unit star.
+     */
+    public double y(int i) {
+        return uy[i];
+    }
+
+    /**
+     * Compute the corners of a star with this shape, centered at (x, y) with
+     * the given radius, and store them in px and py. Each array must have room
+     * for corners() entries. This only needs one multiply and one add per
+     * coordinate.
+     */
+    public void place(double x, double y, double radius, double[] px, double[] py) {
+        place(x, y, radius, px, py, 0);
+    }
+
+    /**
+     * Like place(x, y, radius, px, py), but store the corners starting at
+     * px[offset] and py[offset], so many stars can share one pair of arrays.
+     */
+    public void place(double x, double y, double radius, double[] px, double[] py, int offset) {
+        place(x, y, radius, 1.0, 0.0, px, py, offset);
+    }
+
+    /**
+     * Like place(x, y, radius, px, py, offset), but for a star turned
+     * counterclockwise by the angle with the given cosine and sine.
+     */
+    public void place(double x, double y, double radius, double cos, double sin,
+            double[] px, double[] py, int offset) {
+        for (int i = 0; i < ux.length; i++) {
+            px[offset + i] = x + radius * (cos * ux[i] - sin * uy[i]);
+            py[offset + i] = y + radius * (sin * ux[i] + cos * uy[i]);
+        }
+    }
+
+    /**
+     * A main() function for testing purposes. Compares the shared shapes
+     * against computing each corner with sin() and cos() directly.
+     */
+    public static void main(String args[]) {
+        double worst = 0.0;
+        double[] px = new double[256], py = new double[256];
+        for (int n = 1; n <= 128; n++) {
+            StarShape shape = StarShape.of(n);
+            shape.place(0.3, 0.7, 0.05, px, py);
+            for (int i = 0; i < 2 * n; i++) {
+                double angle = i * 2 * Math.PI / (2 * n);
+                double r = 0.05 * (1.0 + (i % 2 == 0 ? Star.SHARPNESS : -Star.SHARPNESS));
+                worst = Math.max(worst, Math.abs(px[i] - (0.3 + r * Math.sin(angle))));
+                worst = Math.max(worst, Math.abs(py[i] - (0.7 + r * Math.cos(angle))));
+            }
+        }
+        StdOut.println("largest difference from direct trig: " + worst);
+    }
+}
@@ -0,0 +1,191 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  Continuous collision detection for balls: instead of checking
+ *  whether two balls overlap at the end of a frame, work out the
+ *  exact moment during the frame when they first touch. That way a
+ *  small, fast ball can't jump straight through another ball or
+ *  through a wall just because the frame was long.
+ *
+ *  Example: java Swept
+ *----------------------------------------------------------------*/
+
+/**
+ * Swept has functions that treat each ball as moving in a straight line at
+ * its current velocity, and answer "how long until...?" questions about it.
+ * All times are in seconds from now, and are infinity if the thing never
+ * happens. For example, to find out whether the player will eat some food at
+ * any point during the next 100 milliseconds:
+ *
+ *    if (Swept.coverTime(player, food) <= 0.100)
+ *        Agar.eat(player, food);
+ *
+ * Swept.move() is a replacement for calling bounce() and then move(), which
+ * bounces off each wall at the exact moment the ball reaches it, however far
+ * the ball travels in one frame.
+ */
+public class Swept {
+
+    // Most wall bounces handled in one call to move(). Only a ball too wide
+    // to fit between the walls could need more.
+    private static final int MAX_BOUNCES = 16;
+
+    /**
+     * Return how many seconds until a ball at position p (x or y), moving at
+     * velocity v (vx or vy), with radius r, reaches the wall at 0.0 or 1.0 it
+     * is heading towards. Returns 0 if it is already touching or past that
+     * wall (as Ball.bounce() would bounce it right away), or infinity if it
+     * isn't moving.
+     */
+    public static double wallTime(double p, double v, double r) {
+        return wallTime(p, v, r, 0.0, 1.0);
+    }
+
+    /**
+     * Like wallTime(p, v, r), but with walls at lo and hi instead of 0.0 and
+     * 1.0.
+     */
+    public static double wallTime(double p, double v, double r, double lo, double hi) {
+        double dt;
+        if (v > 0)
+            dt = (hi - r - p) / v;
+        else if (v < 0)
+            dt = (lo + r - p) / v;
+        else
+            return Double.POSITIVE_INFINITY;
+        return Math.max(dt, 0.0);
+    }
+
+    /**
+     * Return how many seconds until balls a and b first touch, i.e. until
+     * a.touching(b) becomes true. Returns 0 if they are touching already.
+     */
+    public static double touchTime(Ball a, Ball b) {
+        return approachTime(b.getX() - a.getX(), b.getY() - a.getY(),
+                b.getXVelocity() - a.getXVelocity(), b.getYVelocity() - a.getYVelocity(),
+                a.getRadius() + b.getRadius());
+    }
+
+    /**
+     * Return how many seconds until ball a first touches the circle centered
+     * at (cx, cy) with radius r, which isn't moving. Returns 0 if it is
+     * touching it already.
+     */
+    public static double touchTime(Ball a, double cx, double cy, double r) {
+        return approachTime(cx - a.getX(), cy - a.getY(),
+                -a.getXVelocity(), -a.getYVelocity(), a.getRadius() + r);
+    }
+
+    /**
+     * Return how many seconds until ball a first completely covers ball b,
+     * i.e. until a.covering(b) becomes true. Returns 0 if it covers it
+     * already, and infinity if a isn't bigger than b.
+     */
+    public static double coverTime(Ball a, Ball b) {
+        double sigma = a.getRadius() - b.getRadius();
+        if (sigma <= 0.0)
+            return Double.POSITIVE_INFINITY;
+        return approachTime(b.getX() - a.getX(), b.getY() - a.getY(),
+                b.getXVelocity() - a.getXVelocity(), b.getYVelocity() - a.getYVelocity(),
+                sigma);
+    }
+
+    /**
+     * Return how many seconds from now, between 0 and the given time limit,
+     * ball a will be closest to the point (cx, cy).
+     */
+    public static double closestTime(Ball a, double cx, double cy, double limit) {
+        double dx = cx - a.getX(), dy = cy - a.getY();
+        double vx = a.getXVelocity(), vy = a.getYVelocity();
+        double vv = vx*vx + vy*vy;
+        if (vv == 0.0)
+            return 0.0;
+        double t = (dx*vx + dy*vy) / vv;
+        return Math.max(0.0, Math.min(t, limit));
+    }
+
+    /**
+     * Return how many seconds until a point at (dx, dy), moving at velocity
+     * (dvx, dvy), first comes less than sigma away from the origin. Returns 0
+     * if it is less than sigma away already.
+     */
+    static double approachTime(double dx, double dy, double dvx, double dvy, double sigma) {
+        double drdr = dx*dx + dy*dy;
+        if (drdr < sigma*sigma)
+            return 0.0;
+        double dvdr = dx*dvx + dy*dvy;
+        if (dvdr >= 0)
+            return Double.POSITIVE_INFINITY; // moving apart, or not at all
+        double dvdv = dvx*dvx + dvy*dvy;
+        double d = dvdr*dvdr - dvdv * (drdr - sigma*sigma);
+        if (d < 0)
+            return Double.POSITIVE_INFINITY; // passes by without getting close
+        return -(dvdr + Math.sqrt(d)) / dvdv;
+    }
+
+    /**
+     * Move ball b for the given duration (in milliseconds), bouncing off the
+     * edges of the StdDraw canvas at the moment it reaches them, as many times
+     * as that happens. Returns the number of bounces. With short durations
+     * this does the same thing as calling b.bounce() and then b.move(), but
+     * the ball never ends up past a wall, however long the duration.
+     */
+    public static int move(Ball b, int durationInMilliseconds) {
+        return move(b, durationInMilliseconds, WorldBounds.UNIT);
+    }
+
+    /**
+     * Like move(b, durationInMilliseconds), but bouncing off the edges of the
+     * given world instead of the StdDraw canvas.
+     */
+    public static int move(Ball b, int durationInMilliseconds, WorldBounds world) {
+        double xmin = world.getXMin(), xmax = world.getXMax();
+        double ymin = world.getYMin(), ymax = world.getYMax();
+        double x = b.getX(), y = b.getY();
+        double vx = b.getXVelocity(), vy = b.getYVelocity();
+        double r = b.getRadius();
+        double remaining = durationInMilliseconds / 1000.0;
+        int bounces = 0;
+        while (bounces < MAX_BOUNCES) {
+            double tx = wallTime(x, vx, r, xmin, xmax);
+            double ty = wallTime(y, vy, r, ymin, ymax);
+            double t = Math.min(tx, ty);
+            if (t >= remaining)
+                break;
+            x += vx * t;
+            y += vy * t;
+            remaining -= t;
+            if (tx == t) vx = -vx;
+            if (ty == t) vy = -vy;
+            bounces++;
+        }
+        b.setPosition(x + vx * remaining, y + vy * remaining);
+        b.setVelocity(vx, vy);
+        return bounces;
+    }
+
+    /**
+     * A main() function for testing purposes. Fires a tiny, very fast ball
+     * at a big one, and shows that checking only at the end of each frame
+     * misses the hit while the swept test catches it.
+     */
+    public static void main(String args[]) {
+        Ball big = new Ball(0.5, 0.5, 0.05);
+        Ball tiny = new Ball(0.1, 0.5, 0.005);
+        tiny.setVelocity(8.0, 0.0);   // 8 meters per second
+
+        int frame = 100;              // milliseconds
+        Ball stepped = new Ball(0.1, 0.5, 0.005);
+        stepped.setVelocity(8.0, 0.0);
+        stepped.move(frame);
+        StdOut.println("after one " + frame + " ms frame, touching: " + big.touching(stepped)
+            + " (the tiny ball jumped from x = 0.1 to x = " + stepped.getX() + ")");
+
+        double t = touchTime(big, tiny);
+        StdOut.println("swept test: touches after " + t * 1000 + " ms, within the frame: "
+            + (t <= frame / 1000.0));
+
+        int bounces = move(tiny, 1000);
+        StdOut.println("moving it for 1 second bounced " + bounces + " times, ending at " + tiny);
+    }
+}
@@ -0,0 +1,151 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  SIMD versions of the BallKernels loops, using the (incubating)
+ *  Java Vector API. This file needs an extra flag to compile and
+ *  run, e.g.
+ *
+ *     javac --add-modules jdk.incubator.vector VectorBallKernels.java
+ *     java --add-modules jdk.incubator.vector KernelBenchmark
+ *
+ *  Without the flag, BallKernels.get() quietly falls back to the
+ *  scalar loops.
+ *----------------------------------------------------------------*/
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * VectorBallKernels processes as many balls at once as fit in one CPU vector
+ * register (e.g. 4 balls with AVX2, 8 with AVX-512), then finishes the last
+ * few with the scalar loops from BallKernels.
+ *
+ * Each vector operation is a lane-by-lane version of the same IEEE arithmetic
+ * the scalar code does, in the same order (no fused multiply-add, no
+ * reassociation), so the results are bit-for-bit identical to BallKernels and
+ * to the Ball functions themselves.
+ */
+public class VectorBallKernels extends BallKernels {
+
+    // The widest vector shape this CPU supports well.
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    /**
+     * Return a short name for this implementation. Possibly useful for
+     * debugging.
+     */
+    public String toString() {
+        return "vector(" + SPECIES.length() + " lanes)";
+    }
+
+    public void move(double[] x, double[] y, double[] vx, double[] vy,
+            int from, int to, int durationInMilliseconds) {
+        double ms = durationInMilliseconds;
+        int bound = from + SPECIES.loopBound(to - from);
+        for (int i = from; i < bound; i += SPECIES.length()) {
+            DoubleVector xs = DoubleVector.fromArray(SPECIES, x, i);
+            DoubleVector ys = DoubleVector.fromArray(SPECIES, y, i);
+            DoubleVector vxs = DoubleVector.fromArray(SPECIES, vx, i);
+            DoubleVector vys = DoubleVector.fromArray(SPECIES, vy, i);
+            xs.add(vxs.mul(ms).div(1000.0)).intoArray(x, i);
+            ys.add(vys.mul(ms).div(1000.0)).intoArray(y, i);
+        }
+        for (int i = bound; i < to; i++) {
+            x[i] += vx[i] * durationInMilliseconds / 1000.0;
+            y[i] += vy[i] * durationInMilliseconds / 1000.0;
+        }
+    }
+
+    public void bounce(double[] x, double[] y, double[] vx, double[] vy,
+            double[] r, int from, int to) {
+        int bound = from + SPECIES.loopBound(to - from);
+        for (int i = from; i < bound; i += SPECIES.length()) {
+            DoubleVector rs = DoubleVector.fromArray(SPECIES, r, i);
+            reflect(DoubleVector.fromArray(SPECIES, x, i), rs, vx, i);
+            reflect(DoubleVector.fromArray(SPECIES, y, i), rs, vy, i);
+        }
+        for (int i = bound; i < to; i++) {
+            if ((vx[i] > 0 && x[i] + r[i] > 1.0) || (vx[i] < 0 && x[i] - r[i] < 0.0)) {
+                vx[i] *= -1;
+            }
+            if ((vy[i] > 0 && y[i] + r[i] > 1.0) || (vy[i] < 0 && y[i] - r[i] < 0.0)) {
+                vy[i] *= -1;
+            }
+        }
+    }
+
+    /**
+     * Negate the velocity lanes v[i...] that are moving towards and past one
+     * of the walls at 0.0 and 1.0, given the matching coordinates and radii.
+     */
+    private static void reflect(DoubleVector p, DoubleVector rs, double[] v, int i) {
+        DoubleVector vs = DoubleVector.fromArray(SPECIES, v, i);
+        VectorMask<Double> high = vs.compare(VectorOperators.GT, 0.0)
+            .and(p.add(rs).compare(VectorOperators.GT, 1.0));
+        VectorMask<Double> low = vs.compare(VectorOperators.LT, 0.0)
+            .and(p.sub(rs).compare(VectorOperators.LT, 0.0));
+        vs.blend(vs.mul(-1.0), high.or(low)).intoArray(v, i);
+    }
+
+    public int touching(double bx, double by, double br,
+            double[] x, double[] y, double[] r, int n, int[] hits) {
+        int count = 0;
+        int bound = SPECIES.loopBound(n);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            DoubleVector d = distance(bx, by, x, y, i);
+            DoubleVector reach = DoubleVector.fromArray(SPECIES, r, i).add(br);
+            count = record(d.compare(VectorOperators.LT, reach), i, hits, count);
+        }
+        for (int i = bound; i < n; i++) {
+            double dx = bx - x[i];
+            double dy = by - y[i];
+            if (Math.sqrt(dx*dx + dy*dy) < br + r[i])
+                hits[count++] = i;
+        }
+        return count;
+    }
+
+    public int covering(double bx, double by, double br,
+            double[] x, double[] y, double[] r, int n, int[] hits) {
+        int count = 0;
+        int bound = SPECIES.loopBound(n);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            DoubleVector extent = distance(bx, by, x, y, i)
+                .add(DoubleVector.fromArray(SPECIES, r, i));
+            count = record(extent.compare(VectorOperators.LT, br), i, hits, count);
+        }
+        for (int i = bound; i < n; i++) {
+            double dx = bx - x[i];
+            double dy = by - y[i];
+            if (br > Math.sqrt(dx*dx + dy*dy) + r[i])
+                hits[count++] = i;
+        }
+        return count;
+    }
+
+    /**
+     * Return the distances from (bx, by) to the balls starting at number i.
+     * The square root is computed per lane and is correctly rounded, just
+     * like Math.sqrt().
+     */
+    private static DoubleVector distance(double bx, double by, double[] x, double[] y, int i) {
+        DoubleVector dx = DoubleVector.broadcast(SPECIES, bx).sub(DoubleVector.fromArray(SPECIES, x, i));
+        DoubleVector dy = DoubleVector.broadcast(SPECIES, by).sub(DoubleVector.fromArray(SPECIES, y, i));
+        return dx.mul(dx).add(dy.mul(dy)).lanewise(VectorOperators.SQRT);
+    }
+
+    /**
+     * Append the ball numbers for the set lanes of the mask to hits, starting
+     * at hits[count]. Returns the new count.
+     */
+    private static int record(VectorMask<Double> mask, int i, int[] hits, int count) {
+        long bits = mask.toLong();
+        while (bits != 0) {
+            hits[count++] = i + Long.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,138 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  The rectangle a game takes place in. Ball.bounce() and Ball.wrap()
+ *  use the unit square, which is exactly what fits on the screen;
+ *  a WorldBounds lets the world be bigger than that.
+ *
+ *  Example: java Agar 10
+ *----------------------------------------------------------------*/
+
+/**
+ * A WorldBounds is a rectangle from (xmin, ymin) to (xmax, ymax). Balls can be
+ * bounced off its edges or wrapped around them, just like the unit square
+ * used by Ball.bounce() and Ball.wrap():
+ *
+ *    WorldBounds world = new WorldBounds(0.0, 0.0, 10.0, 10.0);
+ *    ball.bounce(world);
+ *    ball.move(20);
+ *
+ * WorldBounds.UNIT is the unit square, so ball.bounce(WorldBounds.UNIT) does
+ * exactly what ball.bounce() does. A WorldBounds never changes once created.
+ */
+public class WorldBounds {
+
+    // The square from (0, 0) to (1, 1): the StdDraw canvas at its default
+    // scale.
+    public static final WorldBounds UNIT = new WorldBounds(0.0, 0.0, 1.0, 1.0);
+
+    // Corners of the rectangle. Units are "meters".
+    private final double xmin, ymin, xmax, ymax;
+
+    /**
+     * Initializes a rectangle with the given lower left and upper right
+     * corners.
+     */
+    public WorldBounds(double xmin, double ymin, double xmax, double ymax) {
+        if (!(xmin < xmax && ymin < ymax))
+            throw new IllegalArgumentException("empty bounds: (" + xmin + ", " + ymin
+                + ") to (" + xmax + ", " + ymax + ")");
+        this.xmin = xmin;
+        this.ymin = ymin;
+        this.xmax = xmax;
+        this.ymax = ymax;
+    }
+
+    /**
+     * Return a string representation of this rectangle. Possibly useful for
+     * debugging.
+     */
+    public String toString() {
+        return "WorldBounds(" + xmin + ", " + ymin + " to " + xmax + ", " + ymax + ")";
+    }
+
+    /**
+     * Return the smallest x coordinate in the world.
+     */
+    public double getXMin() {
+        return xmin;
+    }
+
+    /**
+     * Return the smallest y coordinate in the world.
+     */
+    public double getYMin() {
+        return ymin;
+    }
+
+    /**
+     * Return the largest x coordinate in the world.
+     */
+    public double getXMax() {
+        return xmax;
+    }
+
+    /**
+     * Return the largest y coordinate in the world.
+     */
+    public double getYMax() {
+        return ymax;
+    }
+
+    /**
+     * Return the width of the world.
+     */
+    public double width() {
+        return xmax - xmin;
+    }
+
+    /**
+     * Return the height of the world.
+     */
+    public double height() {
+        return ymax - ymin;
+    }
+
+    /**
+     * Return a random x coordinate in the world, using StdRandom.
+     */
+    public double randomX() {
+        return StdRandom.uniform(xmin, xmax);
+    }
+
+    /**
+     * Return a random y coordinate in the world, using StdRandom.
+     */
+    public double randomY() {
+        return StdRandom.uniform(ymin, ymax);
+    }
+
+    /**
+     * Check whether the point (x, y) is in the world.
+     */
+    public boolean contains(double x, double y) {
+        return x >= xmin && x <= xmax && y >= ymin && y <= ymax;
+    }
+
+    /**
+     * Return x moved as little as possible so it is at least margin away from
+     * the left and right edges. If the world is narrower than that, return
+     * the middle.
+     */
+    public double clampX(double x, double margin) {
+        if (2 * margin >= xmax - xmin)
+            return (xmin + xmax) / 2;
+        return Math.max(xmin + margin, Math.min(x, xmax - margin));
+    }
+
+    /**
+     * Return y moved as little as possible so it is at least margin away from
+     * the top and bottom edges. If the world is shorter than that, return
+     * the middle.
+     */
+    public double clampY(double y, double margin) {
+        if (2 * margin >= ymax - ymin)
+            return (ymin + ymax) / 2;
+        return Math.max(ymin + margin, Math.min(y, ymax - margin));
+    }
+}
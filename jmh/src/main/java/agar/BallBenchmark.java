@@ -0,0 +1,167 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  JMH microbenchmarks for the Ball functions used on every frame
+ *  of the game. See ../../../../pom.xml for how to build and run.
+ *
+ *  Example: java -jar target/benchmarks.jar BallBenchmark -prof gc
+ *----------------------------------------------------------------*/
+
+package agar;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Each benchmark applies one Ball function to the next ball of a population,
+ * cycling through all of them, so the reported time is per call. The
+ * population size is a parameter: small populations stay in the CPU cache,
+ * large ones show what happens when every call misses it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector", "-Djava.awt.headless=true"})
+public class BallBenchmark {
+
+    // Number of balls to cycle through. Must be a power of two.
+    @Param({"16", "1024", "65536"})
+    public int population;
+
+    // The balls, plus a star for each one to test against.
+    private Ball[] balls;
+    private Star[] stars;
+
+    // Sizes and speeds to feed to setSize() and setSpeed().
+    private double[] sizes, speeds;
+
+    // A large ball in the middle, playing the part of the player.
+    private Ball player;
+
+    // Which ball the next call will use.
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        StdRandom.setSeed(42);
+        balls = new Ball[population];
+        stars = new Star[population];
+        sizes = new double[population];
+        speeds = new double[population];
+        for (int i = 0; i < population; i++) {
+            balls[i] = new Ball(StdRandom.uniform(), StdRandom.uniform(),
+                    StdRandom.uniform(0.01, 0.05));
+            balls[i].setVelocity(StdRandom.uniform(-0.1, 0.1), StdRandom.uniform(-0.1, 0.1));
+            stars[i] = new Star(StdRandom.uniform(), StdRandom.uniform(), 0.03, 9);
+            sizes[i] = StdRandom.uniform(0.0001, 0.01);
+            speeds[i] = StdRandom.uniform(0.01, 0.2);
+        }
+        player = new Ball(0.5, 0.5, 0.2);
+        next = 0;
+    }
+
+    // Return the index of the next ball to use.
+    private int next() {
+        next = (next + 1) & (population - 1);
+        return next;
+    }
+
+    @Benchmark
+    public double distanceTo() {
+        return player.distanceTo(balls[next()]);
+    }
+
+    @Benchmark
+    public boolean touching() {
+        return player.touching(balls[next()]);
+    }
+
+    @Benchmark
+    public boolean covering() {
+        return player.covering(balls[next()]);
+    }
+
+    @Benchmark
+    public boolean touchingStar() {
+        int i = next();
+        return balls[i].touching(stars[i]);
+    }
+
+    @Benchmark
+    public boolean coveringStar() {
+        int i = next();
+        return player.covering(stars[i]);
+    }
+
+    @Benchmark
+    public Ball move() {
+        Ball b = balls[next()];
+        b.move(20);
+        return b;
+    }
+
+    @Benchmark
+    public Ball bounceWalls() {
+        Ball b = balls[next()];
+        b.bounce();
+        return b;
+    }
+
+    @Benchmark
+    public Ball bounceBall() {
+        Ball b = balls[next()];
+        b.bounce(player);
+        return b;
+    }
+
+    @Benchmark
+    public Ball setSpeed() {
+        int i = next();
+        balls[i].setSpeed(speeds[i]);
+        return balls[i];
+    }
+
+    @Benchmark
+    public Ball aimTowards() {
+        Ball b = balls[next()];
+        b.aimTowards(player.getX(), player.getY(), 0.1);
+        return b;
+    }
+
+    @Benchmark
+    public Ball aimAwayFrom() {
+        Ball b = balls[next()];
+        b.aimAwayFrom(player.getX(), player.getY(), 0.1);
+        return b;
+    }
+
+    @Benchmark
+    public Ball growAndShrink() {
+        // Grow then shrink by the same amount, so radii don't drift.
+        int i = next();
+        balls[i].grow(sizes[i]);
+        balls[i].grow(-sizes[i]);
+        return balls[i];
+    }
+
+    @Benchmark
+    public Ball setSize() {
+        int i = next();
+        balls[i].setSize(sizes[i]);
+        return balls[i];
+    }
+}
@@ -0,0 +1,30 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  Runs all the benchmarks with the JMH allocation profiler turned
+ *  on, so each result also shows bytes allocated per call. Any
+ *  arguments are passed through as a benchmark name filter.
+ *
+ *  Example: java -cp target/benchmarks.jar agar.Benchmarks Star
+ *----------------------------------------------------------------*/
+
+package agar;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public class Benchmarks {
+
+    public static void main(String args[]) throws RunnerException {
+        OptionsBuilder options = new OptionsBuilder();
+        if (args.length == 0)
+            options.include("agar\\..*Benchmark");
+        for (String filter : args)
+            options.include(filter);
+        Options opts = options.addProfiler(GCProfiler.class).build();
+        new Runner(opts).run();
+    }
+}
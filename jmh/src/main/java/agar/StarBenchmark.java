@@ -0,0 +1,114 @@
+/*----------------------------------------------------------------
+ *  Written:  10/18/2026
+ *
+ *  JMH microbenchmarks for moving and resizing Star sprites, which
+ *  recomputes the star's boundary points.
+ *
+ *  Example: java -jar target/benchmarks.jar StarBenchmark -prof gc
+ *----------------------------------------------------------------*/
+
+package agar;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Each benchmark repositions or resizes the next star of a population, so
+ * the reported time is per call. Both the number of points on each star and
+ * the population size are parameters. Stars only recompute their boundary
+ * when it is next needed, so placeBoundary measures that recomputation on
+ * its own.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector", "-Djava.awt.headless=true"})
+public class StarBenchmark {
+
+    // Number of points on each star.
+    @Param({"5", "16", "64", "256"})
+    public int points;
+
+    // Number of stars to cycle through. Must be a power of two.
+    @Param({"16", "1024"})
+    public int population;
+
+    private Star[] stars;
+
+    // Shared shape for the stars, and room for one star's boundary.
+    private StarShape shape;
+    private double[] px, py;
+
+    // Positions and radii to feed to setPosition() and setRadius().
+    private double[] xs, ys, radii;
+
+    // Which star the next call will use.
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        StdRandom.setSeed(42);
+        stars = new Star[population];
+        xs = new double[population];
+        ys = new double[population];
+        radii = new double[population];
+        for (int i = 0; i < population; i++) {
+            stars[i] = new Star(StdRandom.uniform(), StdRandom.uniform(), 0.03, points);
+            xs[i] = StdRandom.uniform();
+            ys[i] = StdRandom.uniform();
+            radii[i] = StdRandom.uniform(0.01, 0.05);
+        }
+        shape = StarShape.of(points);
+        px = new double[2 * points];
+        py = new double[2 * points];
+        next = 0;
+    }
+
+    // Return the index of the next star to use.
+    private int next() {
+        next = (next + 1) & (population - 1);
+        return next;
+    }
+
+    @Benchmark
+    public Star setPosition() {
+        int i = next();
+        stars[i].setPosition(xs[i], ys[i]);
+        return stars[i];
+    }
+
+    @Benchmark
+    public Star setXPosition() {
+        int i = next();
+        stars[i].setXPosition(xs[i]);
+        return stars[i];
+    }
+
+    @Benchmark
+    public Star setRadius() {
+        int i = next();
+        stars[i].setRadius(radii[i]);
+        return stars[i];
+    }
+
+    @Benchmark
+    public double[] placeBoundary() {
+        int i = next();
+        shape.place(xs[i], ys[i], radii[i], px, py);
+        return px;
+    }
+}